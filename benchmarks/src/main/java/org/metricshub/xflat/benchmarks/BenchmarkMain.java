@@ -0,0 +1,46 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Entry point of <code>benchmarks.jar</code>: the JMH runner, with the GC profiler always enabled to report the
+ * allocation rate next to the throughput.</p>
+ * <p>The arguments are the JMH ones, for example a regular expression of the benchmarks to run.</p>
+ */
+public final class BenchmarkMain {
+
+	private BenchmarkMain() {}
+
+	public static void main(final String[] args) throws Exception {
+		final Options options = new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.addProfiler(GCProfiler.class)
+			.build();
+
+		new Runner(options).run();
+	}
+}
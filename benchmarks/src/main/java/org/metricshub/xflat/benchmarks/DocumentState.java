@@ -0,0 +1,58 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+import java.util.Map;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.handlers.LinkKey;
+import org.metricshub.xflat.handlers.RowValues;
+import org.metricshub.xflat.handlers.SearchPathTreeHandler;
+import org.metricshub.xflat.handlers.XmlHandler;
+import org.metricshub.xflat.types.SearchPathNode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Document of a benchmark, with the input of each stage of the parsing prepared once per trial.
+ */
+@State(Scope.Benchmark)
+public class DocumentState {
+
+	@Param({ Documents.SMALL, Documents.MEDIUM, Documents.HUGE })
+	public String size;
+
+	List<String> propertiesList;
+	String xml;
+	SearchPathNode searchPathNode;
+	Map<LinkKey, RowValues> resultMap;
+
+	@Setup(Level.Trial)
+	public void setUp() throws XFlatException {
+		propertiesList = Documents.getPropertiesList();
+		xml = Documents.create(size);
+		searchPathNode = SearchPathTreeHandler.build(propertiesList, Documents.ROOT_TAG);
+		resultMap = XmlHandler.parse(xml, searchPathNode);
+	}
+}
@@ -0,0 +1,121 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Documents of the benchmarks, shaped like the <code>test.xml</code> resource of the tests: a document with an
+ * owner, an OS and disks, some of the disks with volumes.</p>
+ * <p>The sizes are named, so that the results of the benchmarks can be compared across releases.</p>
+ */
+public final class Documents {
+
+	/**
+	 * Properties of the benchmarks, the same as the tests.
+	 */
+	public static final String PROPERTIES =
+		"OS>name;Owner;Disks/Disk/Volumes/Volume>name;Disks/Disk/Volumes/Volume/Subscribe;" +
+		"Disks/Disk>name;Disks/Disk>size;Disks/Disk/Free";
+
+	/**
+	 * Root tag of the benchmarks.
+	 */
+	public static final String ROOT_TAG = "/Document";
+
+	/**
+	 * About 1 KB, like the test resources.
+	 */
+	public static final String SMALL = "small";
+
+	/**
+	 * About 120 KB, like a large response of an agent.
+	 */
+	public static final String MEDIUM = "medium";
+
+	/**
+	 * About 12 MB, like a full inventory.
+	 */
+	public static final String HUGE = "huge";
+
+	private Documents() {}
+
+	/**
+	 * @return The properties of the benchmarks, split
+	 */
+	public static List<String> getPropertiesList() {
+		return Arrays.asList(PROPERTIES.split(";"));
+	}
+
+	/**
+	 * @param size The name of the size: {@value #SMALL}, {@value #MEDIUM} or {@value #HUGE}
+	 * @return The XML document of this size
+	 */
+	public static String create(final String size) {
+		switch (size) {
+			case SMALL:
+				return create(4);
+			case MEDIUM:
+				return create(600);
+			case HUGE:
+				return create(60_000);
+			default:
+				throw new IllegalArgumentException("Unknown size: " + size);
+		}
+	}
+
+	/**
+	 * @param diskCount The number of disks
+	 * @return A document with this number of disks, the disk <em>i</em> having <em>i</em> modulo 4 volumes
+	 */
+	public static String create(final int diskCount) {
+		final StringBuilder builder = new StringBuilder(diskCount * 256);
+		builder.append("<?xml version=\"1.0\"?>\n<Document>\n\t<Owner>User</Owner>\n\t<Disks>\n");
+		for (int i = 0; i < diskCount; i++) {
+			builder
+				.append("\t\t<Disk name=\"Disk")
+				.append(i)
+				.append("\" size=\"")
+				.append(i * 1000L)
+				.append("\">\n\t\t\t<Free>")
+				.append(i * 500L)
+				.append("</Free>\n");
+			if (i % 4 != 0) {
+				builder.append("\t\t\t<Volumes>\n");
+				for (int j = 0; j < i % 4; j++) {
+					builder
+						.append("\t\t\t\t<Volume name=\"Vol")
+						.append(i)
+						.append('.')
+						.append(j)
+						.append("\">\n\t\t\t\t\t<Subscribe>")
+						.append(j * 100)
+						.append("</Subscribe>\n\t\t\t\t</Volume>\n");
+				}
+				builder.append("\t\t\t</Volumes>\n");
+			}
+			builder.append("\t\t</Disk>\n");
+		}
+		builder.append("\t</Disks>\n\t<OS name=\"Linux\"/>\n</Document>\n");
+		return builder.toString();
+	}
+}
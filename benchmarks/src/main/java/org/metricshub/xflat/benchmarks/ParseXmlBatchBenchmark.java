@@ -0,0 +1,84 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.metricshub.xflat.XFlat;
+import org.metricshub.xflat.XFlatQuery;
+import org.metricshub.xflat.XFlatResult;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Batch of medium documents parsed by a pool of threads, to compare the throughput with the number of
+ * threads.</p>
+ * <p>The scaling is only meaningful on a machine with at least as many cores as threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParseXmlBatchBenchmark {
+
+	private static final int BATCH_SIZE = 64;
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	private XFlatQuery query;
+	private List<String> xmls;
+	private ExecutorService executor;
+
+	@Setup(Level.Trial)
+	public void setUp() throws XFlatException {
+		query = XFlat.compile(Documents.PROPERTIES, Documents.ROOT_TAG);
+		xmls = Collections.nCopies(BATCH_SIZE, Documents.create(Documents.MEDIUM));
+		executor = Executors.newFixedThreadPool(threads);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Benchmark
+	public List<XFlatResult> parseXmlBatch() {
+		return query.parseXmlBatch(xmls, executor);
+	}
+}
@@ -0,0 +1,231 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.metricshub.xflat.XFlat;
+import org.metricshub.xflat.XmlWorkloadGenerator;
+
+/**
+ * <p>Sweep of the document size, from 1 KB to 1 GB by default, to show the non-linear costs.</p>
+ * <p>For each size, a document is generated to a file by the {@link XmlWorkloadGenerator} of the library tests and
+ * parsed from the file with {@link XFlat#parseXml(Path, String, String)}, then from a string with
+ * {@link XFlat#parseXml(String, String, String)} as long as the size is below the maximum size of the string
+ * parsing. The time and the peak heap are reported per input byte: a linear cost is a flat line.</p>
+ * <p>The results are printed, and written to <code>scaling.csv</code> and plotted in <code>scaling.svg</code>.
+ * Arguments: the maximum size in bytes, the maximum size of the string parsing in bytes (64 MB by default), and the
+ * output directory (<code>target/scaling</code> by default). Run it in its own JVM with a large heap, for example
+ * <code>java -Xmx16g -cp benchmarks.jar org.metricshub.xflat.benchmarks.ScalingBenchmark</code>.</p>
+ * <p>The peak heap is the sum of the peak usages of the heap memory pools during one parsing, minus their usage
+ * after a garbage collection before the parsing. The pools may peak at different times, so it is an upper bound.
+ * The pools are only accounted by regions with some collectors, so the peak heap of the smallest documents may
+ * be 0.</p>
+ */
+public final class ScalingBenchmark {
+
+	private static final long KB = 1024;
+	private static final long MB = 1024 * KB;
+	private static final long GB = 1024 * MB;
+
+	// Small documents are parsed many times in a row, so that each measure lasts long enough
+	private static final long MIN_BYTES_PER_MEASURE = 16 * MB;
+	private static final int MEASURES = 3;
+
+	private ScalingBenchmark() {}
+
+	public static void main(final String[] args) throws Exception {
+		final long maxSize = args.length > 0 ? Long.parseLong(args[0]) : GB;
+		final long maxStringSize = args.length > 1 ? Long.parseLong(args[1]) : 64 * MB;
+		final Path outputDirectory = Paths.get(args.length > 2 ? args[2] : "target/scaling");
+		Files.createDirectories(outputDirectory);
+
+		final List<Result> results = new ArrayList<>();
+		System.out.println(Result.HEADER);
+		for (long size = KB; size <= maxSize; size *= 4) {
+			final XmlWorkloadGenerator generator = new XmlWorkloadGenerator()
+				.withFanOuts(1, 2, 2)
+				.withAttributeCount(4)
+				.withTextLength(8)
+				.withPresence(0.8)
+				.withSize(size);
+			final Path file = generator.generate(Files.createTempFile(outputDirectory, "scaling", ".xml"));
+			try {
+				results.add(measure("path", generator, file, () -> parseFile(generator, file)));
+				if (Files.size(file) <= maxStringSize) {
+					final String xml = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+					results.add(measure("string", generator, file, () -> parseString(generator, xml)));
+				}
+			} finally {
+				Files.delete(file);
+			}
+		}
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(outputDirectory.resolve("scaling.csv")))) {
+			writer.println(Result.CSV_HEADER);
+			results.forEach(result -> writer.println(result.toCsv()));
+		}
+		ScalingPlot.write(results, outputDirectory.resolve("scaling.svg"));
+		System.out.println("Results written to " + outputDirectory.toAbsolutePath());
+	}
+
+	private static int parseFile(final XmlWorkloadGenerator generator, final Path file) throws Exception {
+		return XFlat.parseXml(file, generator.getProperties(), XmlWorkloadGenerator.ROOT_TAG).size();
+	}
+
+	private static int parseString(final XmlWorkloadGenerator generator, final String xml) throws Exception {
+		return XFlat.parseXml(xml, generator.getProperties(), XmlWorkloadGenerator.ROOT_TAG).size();
+	}
+
+	private static Result measure(
+		final String mode,
+		final XmlWorkloadGenerator generator,
+		final Path file,
+		final Parsing parsing
+	) throws Exception {
+		final long size = Files.size(file);
+		final int repeats = (int) Math.max(1, MIN_BYTES_PER_MEASURE / size);
+
+		// Warm up, and check the rows
+		for (int i = 0; i < repeats; i++) {
+			if (parsing.parse() != generator.getRowCount()) {
+				throw new IllegalStateException("Wrong number of rows for " + generator);
+			}
+		}
+
+		final long[] times = new long[MEASURES];
+		for (int measure = 0; measure < MEASURES; measure++) {
+			final long start = System.nanoTime();
+			for (int i = 0; i < repeats; i++) {
+				parsing.parse();
+			}
+			times[measure] = (System.nanoTime() - start) / repeats;
+		}
+		Arrays.sort(times);
+
+		final long peakHeap = measurePeakHeap(parsing);
+		final Result result = new Result(mode, size, generator.getRowCount(), times[MEASURES / 2], peakHeap);
+		System.out.println(result);
+		return result;
+	}
+
+	private static long measurePeakHeap(final Parsing parsing) throws Exception {
+		final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				heapPools.add(pool);
+			}
+		}
+
+		System.gc();
+		long baseline = 0;
+		for (final MemoryPoolMXBean pool : heapPools) {
+			baseline += pool.getUsage().getUsed();
+			pool.resetPeakUsage();
+		}
+
+		parsing.parse();
+
+		long peak = 0;
+		for (final MemoryPoolMXBean pool : heapPools) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return Math.max(0, peak - baseline);
+	}
+
+	/**
+	 * A parsing returning its number of rows.
+	 */
+	@FunctionalInterface
+	private interface Parsing {
+		int parse() throws Exception;
+	}
+
+	/**
+	 * Measure of one mode on one document.
+	 */
+	static final class Result {
+
+		static final String HEADER = String.format(
+			Locale.ROOT,
+			"%-6s %12s %10s %12s %10s %14s %10s",
+			"mode",
+			"bytes",
+			"rows",
+			"time (us)",
+			"ns/byte",
+			"peak heap (KB)",
+			"heap/byte"
+		);
+		static final String CSV_HEADER = "mode,bytes,rows,time_ns,peak_heap_bytes";
+
+		final String mode;
+		final long size;
+		final long rows;
+		final long time;
+		final long peakHeap;
+
+		Result(final String mode, final long size, final long rows, final long time, final long peakHeap) {
+			this.mode = mode;
+			this.size = size;
+			this.rows = rows;
+			this.time = time;
+			this.peakHeap = peakHeap;
+		}
+
+		double getTimePerByte() {
+			return (double) time / size;
+		}
+
+		double getPeakHeapPerByte() {
+			return (double) peakHeap / size;
+		}
+
+		String toCsv() {
+			return mode + ',' + size + ',' + rows + ',' + time + ',' + peakHeap;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+				Locale.ROOT,
+				"%-6s %12d %10d %12d %10.2f %14d %10.2f",
+				mode,
+				size,
+				rows,
+				time / 1000,
+				getTimePerByte(),
+				peakHeap / KB,
+				getPeakHeapPerByte()
+			);
+		}
+	}
+}
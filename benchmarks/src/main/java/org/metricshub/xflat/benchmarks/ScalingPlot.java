@@ -0,0 +1,163 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * <p>SVG plot of the results of the {@link ScalingBenchmark}, without any dependency.</p>
+ * <p>Two charts, the time per byte and the peak heap per byte, against the size on a logarithmic scale, with one
+ * line per mode. A linear cost is a flat line: a rising line shows a non-linear cost.</p>
+ */
+final class ScalingPlot {
+
+	private static final int WIDTH = 720;
+	private static final int CHART_HEIGHT = 300;
+	private static final int MARGIN = 60;
+	private static final String[] COLORS = { "#1f77b4", "#d62728", "#2ca02c", "#ff7f0e" };
+
+	private ScalingPlot() {}
+
+	/**
+	 * @param results The results, in the order of the sizes
+	 * @param file The SVG file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	static void write(final List<ScalingBenchmark.Result> results, final Path file) throws IOException {
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+			writer.printf(
+				Locale.ROOT,
+				"<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" font-family=\"sans-serif\" " +
+				"font-size=\"12\">%n",
+				WIDTH,
+				2 * (CHART_HEIGHT + MARGIN)
+			);
+			writeChart(writer, results, "Time (ns per byte)", ScalingBenchmark.Result::getTimePerByte, 0);
+			writeChart(
+				writer,
+				results,
+				"Peak heap (bytes per byte)",
+				ScalingBenchmark.Result::getPeakHeapPerByte,
+				CHART_HEIGHT + MARGIN
+			);
+			writer.println("</svg>");
+		}
+	}
+
+	private static void writeChart(
+		final PrintWriter writer,
+		final List<ScalingBenchmark.Result> results,
+		final String title,
+		final ToDoubleFunction<ScalingBenchmark.Result> metric,
+		final int top
+	) {
+		final double minLogSize = results.stream().mapToDouble(result -> Math.log(result.size)).min().orElse(0);
+		final double maxLogSize = results.stream().mapToDouble(result -> Math.log(result.size)).max().orElse(1);
+		final double maxValue = results.stream().mapToDouble(metric).max().orElse(1);
+		final double left = MARGIN;
+		final double right = WIDTH - MARGIN / 2.0;
+		final double bottom = top + CHART_HEIGHT;
+		final double chartTop = top + MARGIN / 2.0;
+
+		writer.printf(Locale.ROOT, "<text x=\"%.0f\" y=\"%d\" font-weight=\"bold\">%s</text>%n", left, top + 20, title);
+		writer.printf(
+			Locale.ROOT,
+			"<path d=\"M%.0f %.0f V%.0f H%.0f\" fill=\"none\" stroke=\"black\"/>%n",
+			left,
+			chartTop,
+			bottom,
+			right
+		);
+		writer.printf(Locale.ROOT, "<text x=\"5\" y=\"%.0f\">%.2f</text>%n", chartTop + 4, maxValue);
+		writer.printf(Locale.ROOT, "<text x=\"5\" y=\"%.0f\">0</text>%n", bottom);
+
+		final List<String> modes = results.stream().map(result -> result.mode).distinct().collect(Collectors.toList());
+		for (int i = 0; i < modes.size(); i++) {
+			final String mode = modes.get(i);
+			final String color = COLORS[i % COLORS.length];
+			final String points = results
+				.stream()
+				.filter(result -> result.mode.equals(mode))
+				.map(result -> {
+					final double x = scale(Math.log(result.size), minLogSize, maxLogSize, left, right);
+					final double y = scale(metric.applyAsDouble(result), 0, maxValue, bottom, chartTop);
+					return String.format(Locale.ROOT, "%.1f,%.1f", x, y);
+				})
+				.collect(Collectors.joining(" "));
+			writer.printf(
+				Locale.ROOT,
+				"<polyline points=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>%n",
+				points,
+				color
+			);
+			writer.printf(
+				Locale.ROOT,
+				"<text x=\"%.0f\" y=\"%d\" fill=\"%s\">%s</text>%n",
+				right - 80,
+				top + 20 + 15 * i,
+				color,
+				mode
+			);
+		}
+
+		// Size labels, from the first to the last size
+		results
+			.stream()
+			.mapToLong(result -> result.size)
+			.distinct()
+			.forEach(size ->
+				writer.printf(
+					Locale.ROOT,
+					"<text x=\"%.0f\" y=\"%.0f\" text-anchor=\"middle\">%s</text>%n",
+					scale(Math.log(size), minLogSize, maxLogSize, left, right),
+					bottom + 16,
+					formatSize(size)
+				)
+			);
+	}
+
+	private static double scale(
+		final double value,
+		final double min,
+		final double max,
+		final double from,
+		final double to
+	) {
+		return max == min ? from : from + (value - min) / (max - min) * (to - from);
+	}
+
+	private static String formatSize(final long size) {
+		if (size >= 1 << 30) {
+			return Math.round(size / (double) (1 << 30)) + "G";
+		}
+		if (size >= 1 << 20) {
+			return Math.round(size / (double) (1 << 20)) + "M";
+		}
+		return Math.round(size / 1024.0) + "K";
+	}
+}
@@ -0,0 +1,57 @@
+package org.metricshub.xflat.benchmarks;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.metricshub.xflat.XFlat;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>End-to-end parsing with the static {@link XFlat} methods, the query being compiled once by the query
+ * cache.</p>
+ * <p>The small documents mostly measure the cost per call, such as getting a DOM parser, and the huge ones the cost
+ * per byte.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class XFlatBenchmark {
+
+	@Benchmark
+	public List<List<String>> parseXml(final DocumentState state) throws XFlatException {
+		return XFlat.parseXml(state.xml, Documents.PROPERTIES, Documents.ROOT_TAG);
+	}
+
+	@Benchmark
+	public List<List<String>> parseXmlStream(final DocumentState state) throws XFlatException {
+		return XFlat.parseXmlStream(state.xml, Documents.PROPERTIES, Documents.ROOT_TAG);
+	}
+}
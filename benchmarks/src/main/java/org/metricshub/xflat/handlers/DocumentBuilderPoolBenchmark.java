@@ -0,0 +1,87 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.metricshub.xflat.benchmarks.Documents;
+import org.metricshub.xflat.handlers.ParserBackends.PooledDocumentBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * <p>DOM parsing of the small documents of the agents, 5 to 50 KB, with a document builder borrowed from the pool of
+ * the parser backend, or created for each document like before the pool.</p>
+ * <p>It lives in the package of the handlers to borrow the builders like {@link XmlHandler} does.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DocumentBuilderPoolBenchmark {
+
+	/**
+	 * Number of disks: about 5, 20 and 50 KB.
+	 */
+	@Param({ "25", "100", "250" })
+	public int diskCount;
+
+	private String xml;
+	private DocumentBuilderFactory documentBuilderFactory;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		xml = Documents.create(diskCount);
+		documentBuilderFactory = ParserBackends.getBackend().createDocumentBuilderFactory();
+	}
+
+	@Benchmark
+	public Document pooledDocumentBuilder() throws ParserConfigurationException, SAXException, IOException {
+		try (PooledDocumentBuilder documentBuilder = ParserBackends.acquireDocumentBuilder()) {
+			return documentBuilder.parse(new InputSource(new StringReader(xml)));
+		}
+	}
+
+	@Benchmark
+	public Document newDocumentBuilder() throws ParserConfigurationException, SAXException, IOException {
+		final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+		return documentBuilder.parse(new InputSource(new StringReader(xml)));
+	}
+}
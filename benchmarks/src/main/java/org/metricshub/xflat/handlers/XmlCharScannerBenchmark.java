@@ -0,0 +1,87 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.concurrent.TimeUnit;
+import org.metricshub.xflat.XmlWorkloadGenerator;
+import org.metricshub.xflat.benchmarks.Documents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Scanning of the fed characters for the line ends, the control characters and the surrogates, by the scalar loop
+ * of the Java 8 version of {@link XmlCharScanner}, or by the version of the running JVM.</p>
+ * <p>On Java 21 and later, the versioned scanner uses the Vector API only when the JVM runs with
+ * {@code -jvmArgsAppend --add-modules=jdk.incubator.vector}, otherwise both benchmarks run the same loop.</p>
+ * <p>It lives in the package of the handlers to call the scanner like {@link XmlFeedReader} does.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class XmlCharScannerBenchmark {
+
+	/**
+	 * The medium inventory, dense with markup and indentation, or a document of about the same size with long texts.
+	 */
+	@Param({ "markup", "text" })
+	public String content;
+
+	private char[] chars;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final String xml = Documents.create(Documents.MEDIUM);
+		chars = "markup".equals(content)
+			? xml.toCharArray()
+			: new XmlWorkloadGenerator().withTextLength(1000).withSize(xml.length()).generate().toCharArray();
+	}
+
+	@Benchmark
+	public int java8() {
+		int count = 0;
+		for (int i = 0; (i = XmlCharScanner.scan(chars, i, chars.length)) < chars.length; i++) {
+			count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int versioned() {
+		int count = 0;
+		for (int i = 0; (i = XmlCharScanner.indexOfCharToCheck(chars, i, chars.length)) < chars.length; i++) {
+			count++;
+		}
+		return count;
+	}
+}
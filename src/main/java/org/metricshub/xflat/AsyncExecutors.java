@@ -0,0 +1,93 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Default executor of the asynchronous parsings.</p>
+ * <p>On Java 21 and later, each parsing runs in its own virtual thread, so that a parsing blocked on its input does
+ * not hold a platform thread. On older versions, the parsings share a pool of daemon threads, bounded by the number
+ * of processors.</p>
+ */
+final class AsyncExecutors {
+
+	private AsyncExecutors() {}
+
+	/**
+	 * @return The default executor of the asynchronous parsings, created once
+	 */
+	static ExecutorService getDefault() {
+		return DefaultHolder.EXECUTOR;
+	}
+
+	/**
+	 * Create an executor starting a virtual thread per task, through reflection to keep running on Java 8.
+	 *
+	 * @return The new executor, or null if the virtual threads are not available
+	 */
+	static ExecutorService createVirtualThreadExecutor() {
+		try {
+			final Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+		} catch (final ReflectiveOperationException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Create a fixed pool of daemon threads, so that an idle pool never prevents the JVM from exiting.
+	 *
+	 * @param threadCount The number of threads of the pool
+	 * @return The new executor
+	 */
+	static ExecutorService createBoundedExecutor(final int threadCount) {
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final ThreadFactory threadFactory = runnable -> {
+			final Thread thread = new Thread(runnable, "xflat-async-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+
+		return Executors.newFixedThreadPool(threadCount, threadFactory);
+	}
+
+	/**
+	 * Lazy holder of the default executor, created on the first asynchronous parsing.
+	 */
+	private static final class DefaultHolder {
+
+		private static final ExecutorService EXECUTOR = createDefault();
+
+		private static ExecutorService createDefault() {
+			final ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+			if (virtualThreadExecutor != null) {
+				return virtualThreadExecutor;
+			}
+
+			return createBoundedExecutor(Runtime.getRuntime().availableProcessors());
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.xflat.handlers.ParsingProbe;
+
+/**
+ * <p>The registered {@link XFlatListener}s.</p>
+ * <p>The listeners are an array replaced on each change, so that checking them on each parsing is a volatile
+ * read.</p>
+ * <p>The Java Flight Recorder events are a listener, registered only while a recording enables them.</p>
+ */
+final class Listeners {
+
+	private static final XFlatListener[] NONE = new XFlatListener[0];
+
+	/**
+	 * Bridge to the Java Flight Recorder events, compiled for Java 11: it is missing from a build with an older JDK.
+	 */
+	private static final String FLIGHT_RECORDER_BRIDGE = "org.metricshub.xflat.jfr.XFlatEvents";
+
+	private static volatile XFlatListener[] listeners = NONE;
+
+	static {
+		installFlightRecorderBridge();
+	}
+
+	private Listeners() {}
+
+	/**
+	 * Install the Java Flight Recorder events, if the bridge is built and the JVM supports them.
+	 */
+	private static void installFlightRecorderBridge() {
+		try {
+			Class.forName(FLIGHT_RECORDER_BRIDGE).getMethod("install").invoke(null);
+		} catch (final ReflectiveOperationException | LinkageError | RuntimeException e) {
+			// No Java Flight Recorder: missing bridge or jdk.jfr module, or class version too recent for this JVM
+		}
+	}
+
+	/**
+	 * @param listener The listener to register (Mandatory)
+	 */
+	static synchronized void add(final XFlatListener listener) {
+		Utils.checkNonNull(listener, "listener");
+
+		final XFlatListener[] added = new XFlatListener[listeners.length + 1];
+		System.arraycopy(listeners, 0, added, 0, listeners.length);
+		added[listeners.length] = listener;
+		listeners = added;
+	}
+
+	/**
+	 * @param listener The listener to unregister
+	 * @return Whether the listener was registered
+	 */
+	static synchronized boolean remove(final XFlatListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				final XFlatListener[] removed = new XFlatListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, removed, 0, i);
+				System.arraycopy(listeners, i + 1, removed, i, removed.length - i);
+				listeners = removed.length == 0 ? NONE : removed;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The probe of a new parsing, or null if no listener is registered
+	 */
+	static ParsingProbe createProbe() {
+		final XFlatListener[] current = listeners;
+		return current.length == 0 ? null : new ParsingProbe(current);
+	}
+}
@@ -0,0 +1,57 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+
+/**
+ * <p>Sink receiving the rows of a XML, one at a time, as soon as they are complete.</p>
+ * <p>The returned signal tells the parser whether to go on, to suspend reading the input until
+ * {@link XFlatParsing#resume()} is called, or to stop.</p>
+ */
+@FunctionalInterface
+public interface RowConsumer {
+	/**
+	 * Receive a row.
+	 *
+	 * @param row The values list of the row
+	 * @return The signal telling the parser what to do next, never null
+	 */
+	Signal accept(List<String> row);
+
+	/**
+	 * Signal returned by the sink after each row.
+	 */
+	enum Signal {
+		/**
+		 * Go on with the next row.
+		 */
+		CONTINUE,
+		/**
+		 * Suspend reading the input, until the parsing is resumed.
+		 */
+		PAUSE,
+		/**
+		 * Stop the parsing and release the input.
+		 */
+		STOP
+	}
+}
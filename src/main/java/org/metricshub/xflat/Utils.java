@@ -74,4 +74,30 @@ public class Utils {
 	public static boolean isEmpty(String value) {
 		return value.trim().isEmpty();
 	}
+
+	/**
+	 * Remove the white space characters, same as <code>value.replaceAll("\\s", "")</code> without any regular
+	 * expression.
+	 *
+	 * @param value The value
+	 * @return The value without any space, tab, line feed, carriage return, form feed or vertical tab
+	 */
+	public static String removeWhiteSpaces(final String value) {
+		StringBuilder builder = null;
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (isWhiteSpace(c)) {
+				if (builder == null) {
+					builder = new StringBuilder(value.length()).append(value, 0, i);
+				}
+			} else if (builder != null) {
+				builder.append(c);
+			}
+		}
+		return builder == null ? value : builder.toString();
+	}
+
+	private static boolean isWhiteSpace(final char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
 }
@@ -20,20 +20,84 @@ package org.metricshub.xflat;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 import org.metricshub.xflat.exceptions.XFlatException;
-import org.metricshub.xflat.handlers.ResultHandler;
-import org.metricshub.xflat.handlers.SearchPathTreeHandler;
-import org.metricshub.xflat.handlers.XmlHandler;
-import org.metricshub.xflat.types.SearchPathNode;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+import org.metricshub.xflat.io.MappedFileInputStream;
 
 public class XFlat {
 
+	/**
+	 * Size from which the XML files are read through memory-mapped segments: 1 MB.
+	 */
+	static final long MAPPED_FILE_THRESHOLD = 1024L * 1024;
+
+	/**
+	 * Queries compiled by the static parsing methods.
+	 */
+	private static final XFlatQueryCache QUERY_CACHE = XFlatQueryCache.createDefault();
+
 	private XFlat() {}
 
+	/**
+	 * <p>Register a listener timing the phases and counting the work of the compilations and parsings, of all the
+	 * threads.</p>
+	 * <p>With no registered listener, nothing is measured. See {@link XFlatListener}.</p>
+	 *
+	 * @param listener The listener (Mandatory)
+	 */
+	public static void addListener(final XFlatListener listener) {
+		Listeners.add(listener);
+	}
+
+	/**
+	 * Unregister a listener.
+	 *
+	 * @param listener The listener
+	 * @return Whether the listener was registered
+	 */
+	public static boolean removeListener(final XFlatListener listener) {
+		return Listeners.remove(listener);
+	}
+
+	/**
+	 * <p>Get the cache of the queries compiled by the static parsing methods of this class.</p>
+	 * <p>The same properties and root tag are only compiled once, until they are evicted. The cache can be resized
+	 * and exposes its hit and miss counters.</p>
+	 *
+	 * @return The query cache
+	 */
+	public static XFlatQueryCache getQueryCache() {
+		return QUERY_CACHE;
+	}
+
+	/**
+	 * <p>Compile the properties and the root tag into a query, to be run against many XML documents.</p>
+	 * <p>The properties are split and the search path tree is built only once. The query is immutable and
+	 * thread-safe. It is not added to the query cache.</p>
+	 *
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The compiled query
+	 * @throws XFlatException
+	 */
+	public static XFlatQuery compile(final String properties, final String rootTag) throws XFlatException {
+		return XFlatQuery.compile(properties, rootTag);
+	}
+
 	/**
 	 * Parse a XML with the argument properties into a list of values list.
 	 *
@@ -47,19 +111,421 @@ public class XFlat {
 	public static List<List<String>> parseXml(final String xml, final String properties, final String rootTag)
 		throws XFlatException {
 		Utils.checkNonBlank(xml, "xml");
-		Utils.checkNonBlank(properties, "properties");
-		Utils.checkNonBlank(rootTag, "rootTag");
 
-		// Init complete search path for each properties.
-		final List<String> propertiesList = Stream
-			.of(properties.replaceAll("\\s", Utils.EMPTY).split(";"))
-			.filter(property -> !Utils.isBlank(property))
-			.collect(Collectors.toList());
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml);
+	}
+
+	/**
+	 * <p>Parse many XML with the argument properties in parallel, on the common fork-join pool.</p>
+	 * <p>See {@link #parseXmlBatch(Collection, String, String, Executor)}.</p>
+	 *
+	 * @param xmls The XML documents (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The result of each XML, in the order of the documents
+	 * @throws XFlatException if the properties or the root tag are invalid
+	 */
+	public static List<XFlatResult> parseXmlBatch(
+		final Collection<String> xmls,
+		final String properties,
+		final String rootTag
+	) throws XFlatException {
+		Utils.checkNonNull(xmls, "xmls");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXmlBatch(xmls);
+	}
+
+	/**
+	 * <p>Parse many XML with the argument properties in parallel, on the executor.</p>
+	 * <p>The properties and root tag are compiled once for the whole batch, and each parsing thread reuses its own
+	 * parser. Each XML is parsed like {@link #parseXml(String, String, String)}: its rows, or the error which failed
+	 * it, are returned in its result, so that a failed document does not fail the batch. The call returns once all
+	 * the documents are parsed.</p>
+	 *
+	 * @param xmls The XML documents (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param executor The executor running the parsings (Mandatory)
+	 * @return The result of each XML, in the order of the documents
+	 * @throws XFlatException if the properties or the root tag are invalid
+	 */
+	public static List<XFlatResult> parseXmlBatch(
+		final Collection<String> xmls,
+		final String properties,
+		final String rootTag,
+		final Executor executor
+	) throws XFlatException {
+		Utils.checkNonNull(xmls, "xmls");
+		Utils.checkNonNull(executor, "executor");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXmlBatch(xmls, executor);
+	}
 
-		final SearchPathNode rootTreeNode = SearchPathTreeHandler.build(propertiesList, rootTag);
+	/**
+	 * <p>Parse a XML with the argument properties asynchronously, on the default executor.</p>
+	 * <p>See {@link #parseXmlAsync(String, String, String, Executor)}.</p>
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The future list of values list.
+	 * @throws XFlatException if the properties or the root tag are invalid
+	 */
+	public static CompletableFuture<List<List<String>>> parseXmlAsync(
+		final String xml,
+		final String properties,
+		final String rootTag
+	) throws XFlatException {
+		Utils.checkNonBlank(xml, "xml");
 
-		final Map<String, Map<Integer, String>> dataValueNodesMap = XmlHandler.parse(xml, rootTreeNode);
+		return QUERY_CACHE.get(properties, rootTag).parseXmlAsync(xml);
+	}
+
+	/**
+	 * <p>Parse a XML with the argument properties asynchronously, on the executor.</p>
+	 * <p>The XML is parsed like {@link #parseXml(String, String, String)}, and the future completes with its rows or
+	 * with the {@link XFlatException} which failed it. The default executor starts a virtual thread per parsing on
+	 * Java 21 and later, and is a pool of daemon threads bounded by the number of processors on older versions.</p>
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param executor The executor running the parsing (Mandatory)
+	 * @return The future list of values list.
+	 * @throws XFlatException if the properties or the root tag are invalid
+	 */
+	public static CompletableFuture<List<List<String>>> parseXmlAsync(
+		final String xml,
+		final String properties,
+		final String rootTag,
+		final Executor executor
+	) throws XFlatException {
+		Utils.checkNonBlank(xml, "xml");
+		Utils.checkNonNull(executor, "executor");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXmlAsync(xml, executor);
+	}
+
+	/**
+	 * <p>Parse a XML input stream with the argument properties asynchronously, on the default executor.</p>
+	 * <p>See {@link #parseXmlAsync(InputStream, String, String, Executor)}.</p>
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The future list of values list.
+	 * @throws XFlatException if the properties or the root tag are invalid
+	 */
+	public static CompletableFuture<List<List<String>>> parseXmlAsync(
+		final InputStream xml,
+		final String properties,
+		final String rootTag
+	) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXmlAsync(xml);
+	}
+
+	/**
+	 * <p>Parse a XML input stream with the argument properties asynchronously, on the executor.</p>
+	 * <p>The input stream is read like {@link #parseXml(InputStream, String, String)}, by the thread of the executor,
+	 * and is not closed. With the default executor on Java 21 and later, a blocking read only blocks a virtual
+	 * thread.</p>
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param executor The executor running the parsing (Mandatory)
+	 * @return The future list of values list.
+	 * @throws XFlatException if the properties or the root tag are invalid
+	 */
+	public static CompletableFuture<List<List<String>>> parseXmlAsync(
+		final InputStream xml,
+		final String properties,
+		final String rootTag,
+		final Executor executor
+	) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(executor, "executor");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXmlAsync(xml, executor);
+	}
+
+	/**
+	 * <p>Parse a XML with the argument properties into a list of values list, using a StAX reader.</p>
+	 * <p>The result is the same as {@link #parseXml(String, String, String)}, but the whole document is never loaded
+	 * in memory: only the elements matching the properties are kept while reading.</p>
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public static List<List<String>> parseXmlStream(final String xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonBlank(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXmlStream(xml);
+	}
+
+	/**
+	 * <p>Parse a XML input stream with the argument properties into a list of values list.</p>
+	 * <p>The bytes are streamed to the parser, which decodes them with the encoding detected from the byte order
+	 * mark or declared in the XML prolog. The input stream is not closed.</p>
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public static List<List<String>> parseXml(final InputStream xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml);
+	}
+
+	/**
+	 * <p>Parse a XML reader with the argument properties into a list of values list.</p>
+	 * <p>The characters are streamed to the parser. The reader is not closed.</p>
+	 *
+	 * @param xml The XML reader (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public static List<List<String>> parseXml(final Reader xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml);
+	}
+
+	/**
+	 * <p>Parse a XML file with the argument properties into a list of values list.</p>
+	 * <p>The file bytes are streamed to the parser, which decodes them with the encoding detected from the byte
+	 * order mark or declared in the XML prolog.</p>
+	 * <p>Large files, including files over 2 GB, are read through memory-mapped segments
+	 * (see {@link MappedFileInputStream}), so their bytes are never copied onto the heap.</p>
+	 *
+	 * @param xml The path of the XML file (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public static List<List<String>> parseXml(final Path xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml);
+	}
+
+	/**
+	 * Open a XML file, through memory-mapped segments if it is large enough.
+	 *
+	 * @param path The path of the XML file
+	 * @return The input stream of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	static InputStream openFile(final Path path) throws IOException {
+		return Files.size(path) >= MAPPED_FILE_THRESHOLD
+			? new MappedFileInputStream(path)
+			: new BufferedInputStream(Files.newInputStream(path));
+	}
+
+	/**
+	 * <p>Parse the remaining bytes of a XML buffer with the argument properties into a list of values list.</p>
+	 * <p>The bytes are read in place, and decoded by the parser with the encoding detected from the byte order mark
+	 * or declared in the XML prolog. The buffer position is not modified.</p>
+	 *
+	 * @param xml The XML buffer (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public static List<List<String>> parseXml(final ByteBuffer xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml);
+	}
+
+	/**
+	 * <p>Stream the rows of a XML reader with the argument properties.</p>
+	 * <p>The XML is read lazily: the rows of each repeating element, matched by the last element of the root tag
+	 * (like {@code Disk} in {@code /Document/Disks/Disk}) or below it as long as the path does not fork, are returned
+	 * as soon as this element is complete, with the attributes of its ancestors, and the element is then dropped.
+	 * The memory is bounded by the largest repeating element. When the properties also read the elements of an
+	 * ancestor, which may come after the repeating elements, the rows of this ancestor wait for its end.</p>
+	 * <p>The rows are the same as {@link #parseXml(String, String, String)}, streamed in the document order. The
+	 * stream must be closed once done. The reader is not closed.</p>
+	 *
+	 * @param xml The XML reader (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The lazy stream of values list. Parsing errors are thrown as {@link XFlatRunTimeException}.
+	 * @throws XFlatException
+	 */
+	public static Stream<List<String>> stream(final Reader xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).stream(xml);
+	}
+
+	/**
+	 * <p>Stream the rows of a XML input stream with the argument properties.</p>
+	 * <p>The bytes are decoded with the encoding detected from the byte order mark or declared in the XML prolog.
+	 * See {@link #stream(Reader, String, String)}. The input stream is not closed.</p>
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The lazy stream of values list. Parsing errors are thrown as {@link XFlatRunTimeException}.
+	 * @throws XFlatException
+	 */
+	public static Stream<List<String>> stream(final InputStream xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).stream(xml);
+	}
+
+	/**
+	 * <p>Stream the rows of a XML file with the argument properties.</p>
+	 * <p>See {@link #stream(Reader, String, String)}. The file is closed with the stream.</p>
+	 *
+	 * @param xml The path of the XML file (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The lazy stream of values list. Parsing errors are thrown as {@link XFlatRunTimeException}.
+	 * @throws XFlatException
+	 */
+	public static Stream<List<String>> stream(final Path xml, final String properties, final String rootTag)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return QUERY_CACHE.get(properties, rootTag).stream(xml);
+	}
+
+	/**
+	 * <p>Create a non-blocking feeder of a XML received by chunks of bytes, with the argument properties.</p>
+	 * <p>The rows are the ones of {@link #parseXml(InputStream, String, String)}. Each chunk is parsed as soon as it is
+	 * fed, and the rows completed by it are pushed to the sink before the call returns, so that the extraction
+	 * overlaps with the transfer of the XML. After each row, the sink tells whether to go on, to stop, or to
+	 * pause: a paused feeder refuses the next chunks until it is resumed.</p>
+	 *
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param charset The encoding of the XML bytes without byte order mark nor encoding declaration (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The feeder, waiting for the first bytes
+	 * @throws XFlatException
+	 */
+	public static XFlatFeeder feeder(
+		final String properties,
+		final String rootTag,
+		final Charset charset,
+		final RowConsumer sink
+	) throws XFlatException {
+		Utils.checkNonNull(charset, "charset");
+		Utils.checkNonNull(sink, "sink");
+
+		return QUERY_CACHE.get(properties, rootTag).feeder(charset, sink);
+	}
+
+	/**
+	 * <p>Parse a XML reader with the argument properties, pushing each row to the sink as soon as it is complete.</p>
+	 * <p>The rows are the ones of {@link #stream(Reader, String, String)}, without any list of all the rows.
+	 * After each row, the sink tells whether to go on, to stop, or to pause: the input is then not read any further
+	 * until the returned parsing is resumed. The reader is not closed.</p>
+	 *
+	 * @param xml The XML reader (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The parsing, done or paused by the sink
+	 * @throws XFlatException
+	 */
+	public static XFlatParsing parseXml(
+		final Reader xml,
+		final String properties,
+		final String rootTag,
+		final RowConsumer sink
+	) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(sink, "sink");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml, sink);
+	}
+
+	/**
+	 * <p>Parse a XML input stream with the argument properties, pushing each row to the sink as soon as it is
+	 * complete.</p>
+	 * <p>See {@link #parseXml(Reader, String, String, RowConsumer)}. The input stream is not closed.</p>
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The parsing, done or paused by the sink
+	 * @throws XFlatException
+	 */
+	public static XFlatParsing parseXml(
+		final InputStream xml,
+		final String properties,
+		final String rootTag,
+		final RowConsumer sink
+	) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(sink, "sink");
+
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml, sink);
+	}
+
+	/**
+	 * <p>Parse a XML file with the argument properties, pushing each row to the sink as soon as it is complete.</p>
+	 * <p>See {@link #parseXml(Reader, String, String, RowConsumer)}. The file is closed once the parsing is done.</p>
+	 *
+	 * @param xml The path of the XML file (Mandatory)
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The parsing, done or paused by the sink
+	 * @throws XFlatException
+	 */
+	public static XFlatParsing parseXml(
+		final Path xml,
+		final String properties,
+		final String rootTag,
+		final RowConsumer sink
+	) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(sink, "sink");
 
-		return ResultHandler.arrange(dataValueNodesMap, propertiesList.size());
+		return QUERY_CACHE.get(properties, rootTag).parseXml(xml, sink);
 	}
 }
@@ -0,0 +1,169 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.handlers.LinkKey;
+import org.metricshub.xflat.handlers.ResultHandler;
+import org.metricshub.xflat.handlers.ResultMapFeeder;
+import org.metricshub.xflat.handlers.RowValues;
+
+/**
+ * <p>Non-blocking parsing of a XML fed by chunks of bytes, pushing its rows to a {@link RowConsumer}.</p>
+ * <p>The chunks are fed as they are received, for example from a non-blocking socket, and the end of the XML is
+ * told with {@link #endOfInput()}. Each chunk is parsed as soon as it is fed, and the rows of each complete repeating
+ * element, like with {@link XFlat#stream(java.io.Reader, String, String)}, are pushed to the sink before the call
+ * returns: no thread waits for the input.</p>
+ * <p>When the sink asks to pause, the reading stops at the current row, and the rest of the fed chunks is read once
+ * the feeder is resumed. The next chunks are refused until then, so that the rows don't pile up while the sink is
+ * paused. When it asks to stop, the next chunks are ignored. A feeder is not thread-safe.</p>
+ */
+public final class XFlatFeeder {
+
+	private final ResultMapFeeder resultMapFeeder;
+	private final int totalProperties;
+	private final RowConsumer sink;
+	private final Queue<List<String>> rows = new ArrayDeque<>();
+	private boolean paused;
+	private boolean done;
+
+	XFlatFeeder(final ResultMapFeeder resultMapFeeder, final int totalProperties, final RowConsumer sink) {
+		this.resultMapFeeder = resultMapFeeder;
+		this.totalProperties = totalProperties;
+		this.sink = sink;
+	}
+
+	/**
+	 * Feed the next bytes of the XML, and push the rows completed by them until the sink asks to pause.
+	 * All the remaining bytes of the buffer are consumed.
+	 *
+	 * @param bytes The next bytes (Mandatory)
+	 * @return This feeder
+	 * @throws XFlatException for error in parsing, the feeder is then done
+	 * @throws IllegalStateException if the feeder is paused: it must be resumed before feeding the next bytes
+	 * @throws IllegalArgumentException if the sink returns a null signal, the feeder is then done
+	 */
+	public XFlatFeeder feed(final ByteBuffer bytes) throws XFlatException {
+		Utils.checkNonNull(bytes, "bytes");
+
+		if (done) {
+			bytes.position(bytes.limit());
+			return this;
+		}
+		if (paused) {
+			throw new IllegalStateException("The feeder is paused, it must be resumed before feeding the next bytes.");
+		}
+
+		try {
+			resultMapFeeder.feed(bytes);
+		} catch (final XFlatException | RuntimeException e) {
+			done = true;
+			throw e;
+		}
+		return push();
+	}
+
+	/**
+	 * End the XML, and push the remaining rows until the sink asks to pause. A paused feeder checks the end of the
+	 * XML once resumed.
+	 *
+	 * @return This feeder
+	 * @throws XFlatException for error in parsing, if the XML is not complete. The feeder is then done.
+	 * @throws IllegalArgumentException if the sink returns a null signal, the feeder is then done
+	 */
+	public XFlatFeeder endOfInput() throws XFlatException {
+		if (done) {
+			return this;
+		}
+
+		try {
+			resultMapFeeder.endOfInput();
+		} catch (final XFlatException | RuntimeException e) {
+			done = true;
+			throw e;
+		}
+		return push();
+	}
+
+	/**
+	 * Read the rest of the fed chunks and push its rows, until the sink asks to pause again.
+	 *
+	 * @return This feeder
+	 * @throws XFlatException for error in parsing, the feeder is then done
+	 * @throws IllegalArgumentException if the sink returns a null signal, the feeder is then done
+	 */
+	public XFlatFeeder resume() throws XFlatException {
+		paused = false;
+		return push();
+	}
+
+	/**
+	 * @return Whether the feeder is done: the XML is ended and all its rows are pushed, or the sink asked to stop
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * @return Whether the feeder is paused by the sink and must be resumed to push the next rows
+	 */
+	public boolean isPaused() {
+		return paused && !done;
+	}
+
+	private XFlatFeeder push() throws XFlatException {
+		try {
+			while (!paused && !done) {
+				if (rows.isEmpty()) {
+					final Map<LinkKey, RowValues> resultMap = resultMapFeeder.poll();
+					if (resultMap == null) {
+						done = resultMapFeeder.isEnded();
+						break;
+					}
+					rows.addAll(ResultHandler.arrange(resultMap, totalProperties));
+					continue;
+				}
+
+				final RowConsumer.Signal signal = sink.accept(rows.poll());
+				Utils.checkNonNull(signal, "The signal returned by the sink");
+				if (signal == RowConsumer.Signal.PAUSE) {
+					paused = true;
+				} else if (signal == RowConsumer.Signal.STOP) {
+					done = true;
+				}
+			}
+		} catch (final XFlatException | RuntimeException e) {
+			done = true;
+			rows.clear();
+			throw e;
+		}
+
+		if (done) {
+			rows.clear();
+		}
+		return this;
+	}
+}
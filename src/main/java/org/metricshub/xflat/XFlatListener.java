@@ -0,0 +1,85 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * <p>Listener of the work of XFlat, registered with {@link XFlat#addListener(XFlatListener)}, to time each phase
+ * and count what a parsing did.</p>
+ * <p>The listeners are called synchronously, on the thread doing the work: they must be fast and thread-safe, and
+ * must not throw. With no registered listener, the parsings do not measure anything.</p>
+ * <p>The parsings returning the whole list of rows are reported: the <code>parseXml</code> and
+ * <code>parseXmlStream</code> methods, and the batch and asynchronous parsings. The streams, the feeders and the
+ * pushed parsings are not.</p>
+ */
+public interface XFlatListener {
+	/**
+	 * Phase of the work of XFlat.
+	 */
+	enum Phase {
+		/**
+		 * Build of the search path tree of the properties and the root tag, and of its automaton.
+		 */
+		COMPILE,
+		/**
+		 * Read of the XML into a document, reduced to the searched elements when streaming.
+		 */
+		PARSE,
+		/**
+		 * Navigation of the document into the values fragments, from <code>initNavigation</code>.
+		 */
+		NAVIGATE,
+		/**
+		 * Assembly of the values fragments into rows, by <code>ResultHandler.arrange</code>.
+		 */
+		ARRANGE
+	}
+
+	/**
+	 * Called when a phase starts.
+	 *
+	 * @param phase The phase
+	 */
+	default void phaseStarted(final Phase phase) {}
+
+	/**
+	 * Called when a phase ends, successfully or not, on the thread which started it.
+	 *
+	 * @param phase The phase
+	 * @param durationNanos The duration of the phase, in nanoseconds
+	 */
+	default void phaseEnded(final Phase phase, final long durationNanos) {}
+
+	/**
+	 * Called after the {@link Phase#COMPILE} phase of a query.
+	 *
+	 * @param query The compiled query
+	 * @param durationNanos The duration of the compilation, in nanoseconds
+	 */
+	default void queryCompiled(final XFlatQuery query, final long durationNanos) {}
+
+	/**
+	 * Called after the {@link Phase#ARRANGE} phase of a successful parsing.
+	 *
+	 * @param query The query of the parsing
+	 * @param statistics The durations and counters of the parsing
+	 */
+	default void parsingEnded(final XFlatQuery query, final XFlatStatistics statistics) {}
+}
@@ -0,0 +1,116 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+
+/**
+ * <p>Parsing of a XML pushing its rows to a {@link RowConsumer}.</p>
+ * <p>The parsing runs until the end of the XML, or until the sink asks to stop or to pause. A paused parsing does
+ * not read its input any further until it is resumed. A parsing which is not done must be closed to release its
+ * input.</p>
+ */
+public class XFlatParsing implements Closeable {
+
+	private final XFlatRowIterator rowIterator;
+	private final RowConsumer sink;
+	private boolean done;
+
+	XFlatParsing(final XFlatRowIterator rowIterator, final RowConsumer sink) {
+		this.rowIterator = rowIterator;
+		this.sink = sink;
+	}
+
+	/**
+	 * Push the rows to the sink until the end of the XML, or until the sink asks to stop or to pause.
+	 *
+	 * @return This parsing
+	 * @throws XFlatException for error in parsing, the parsing is then done
+	 * @throws IllegalArgumentException if the sink returns a null signal, the parsing is then done
+	 */
+	public XFlatParsing resume() throws XFlatException {
+		if (done) {
+			return this;
+		}
+
+		try {
+			while (rowIterator.hasNext()) {
+				final RowConsumer.Signal signal = sink.accept(rowIterator.next());
+				Utils.checkNonNull(signal, "The signal returned by the sink");
+				if (signal == RowConsumer.Signal.PAUSE) {
+					return this;
+				}
+				if (signal == RowConsumer.Signal.STOP) {
+					break;
+				}
+			}
+		} catch (final XFlatRunTimeException e) {
+			closeQuietly();
+			throw new XFlatException(e.getMessage(), e);
+		} catch (final RuntimeException e) {
+			closeQuietly();
+			throw e;
+		}
+
+		close();
+		return this;
+	}
+
+	/**
+	 * @return Whether the parsing is done: the XML is fully read, the sink asked to stop, or the parsing is closed
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * @return Whether the parsing is paused by the sink and can be resumed
+	 */
+	public boolean isPaused() {
+		return !done;
+	}
+
+	/**
+	 * Stop the parsing and release its input.
+	 */
+	@Override
+	public void close() {
+		if (!done) {
+			done = true;
+			try {
+				rowIterator.close();
+			} catch (final IOException e) {
+				throw new XFlatRunTimeException("Error in closing xml.", e);
+			}
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (final XFlatRunTimeException e) {
+			// Nothing to do, the original error is reported
+		}
+	}
+}
@@ -0,0 +1,651 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.metricshub.xflat.XFlatListener.Phase;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+import org.metricshub.xflat.handlers.LinkKey;
+import org.metricshub.xflat.handlers.ParallelNavigation;
+import org.metricshub.xflat.handlers.ParsingProbe;
+import org.metricshub.xflat.handlers.ResultHandler;
+import org.metricshub.xflat.handlers.ResultMapFeeder;
+import org.metricshub.xflat.handlers.ResultMapIterator;
+import org.metricshub.xflat.handlers.RowValues;
+import org.metricshub.xflat.handlers.SearchPathAutomaton;
+import org.metricshub.xflat.handlers.SearchPathTreeHandler;
+import org.metricshub.xflat.handlers.XmlHandler;
+import org.metricshub.xflat.handlers.XmlStreamHandler;
+import org.metricshub.xflat.io.ByteBufferInputStream;
+import org.metricshub.xflat.types.SearchPathNode;
+
+/**
+ * <p>Properties and root tag compiled once, to be run against many XML documents.</p>
+ * <p>The properties are split and the search path tree is built and compiled into its matching automaton when the
+ * query is created. A query is immutable and thread-safe: it can be shared and run concurrently.</p>
+ * <p>Each method gives the same result as its {@link XFlat} counterpart called with the properties and the root
+ * tag of the query.</p>
+ */
+public final class XFlatQuery {
+
+	private final String properties;
+	private final String rootTag;
+	private final int totalProperties;
+	private final SearchPathAutomaton automaton;
+
+	private XFlatQuery(
+		final String properties,
+		final String rootTag,
+		final int totalProperties,
+		final SearchPathAutomaton automaton
+	) {
+		this.properties = properties;
+		this.rootTag = rootTag;
+		this.totalProperties = totalProperties;
+		this.automaton = automaton;
+	}
+
+	/**
+	 * Compile the properties and the root tag into a query.
+	 *
+	 * @param properties A string containing the paths to properties to retrieve separated by a semi-colon character.
+	 * If the property comes from an attribute, it will be preceded by a superior character: '&gt;'.  (Mandatory)
+	 * @param rootTag A string containing the first element xml tags path to convert. example: /rootTag/tag2 (Mandatory)
+	 * @return The compiled query
+	 * @throws XFlatException if the search path tree cannot be built
+	 */
+	static XFlatQuery compile(final String properties, final String rootTag) throws XFlatException {
+		Utils.checkNonBlank(properties, "properties");
+		Utils.checkNonBlank(rootTag, "rootTag");
+
+		final ParsingProbe probe = Listeners.createProbe();
+		if (probe == null) {
+			return build(properties, rootTag);
+		}
+
+		final XFlatQuery query;
+		probe.start(Phase.COMPILE);
+		try {
+			query = build(properties, rootTag);
+		} finally {
+			probe.end(Phase.COMPILE);
+		}
+		probe.queryCompiled(query);
+		return query;
+	}
+
+	/**
+	 * Build the search path tree of the properties and the root tag, and compile its automaton.
+	 *
+	 * @param properties The properties separated by a semi-colon character
+	 * @param rootTag The root tag
+	 * @return The compiled query
+	 * @throws XFlatException if the search path tree cannot be built
+	 */
+	private static XFlatQuery build(final String properties, final String rootTag) throws XFlatException {
+		final List<String> propertiesList = buildPropertiesList(properties);
+
+		final SearchPathNode rootTreeNode = SearchPathTreeHandler.build(propertiesList, rootTag);
+
+		return new XFlatQuery(properties, rootTag, propertiesList.size(), new SearchPathAutomaton(rootTreeNode));
+	}
+
+	/**
+	 * Init complete search path for each properties.
+	 *
+	 * @param properties The properties separated by a semi-colon character
+	 * @return The list of non blank properties, without any white space
+	 */
+	private static List<String> buildPropertiesList(final String properties) {
+		return Stream
+			.of(Utils.removeWhiteSpaces(properties).split(";"))
+			.filter(property -> !Utils.isBlank(property))
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * @return The properties of the query
+	 */
+	public String getProperties() {
+		return properties;
+	}
+
+	/**
+	 * @return The root tag of the query
+	 */
+	public String getRootTag() {
+		return rootTag;
+	}
+
+	/**
+	 * @return The number of properties of the query, which is the number of values of each row
+	 */
+	public int getPropertyCount() {
+		return totalProperties;
+	}
+
+	/**
+	 * Copy this query with the parallel navigation on the common fork-join pool.
+	 * See {@link #withParallelNavigation(ForkJoinPool, int)}.
+	 *
+	 * @param threshold The minimum number of repeated elements navigated in parallel, at least 2
+	 * @return The query navigating in parallel
+	 */
+	public XFlatQuery withParallelNavigation(final int threshold) {
+		return withParallelNavigation(ForkJoinPool.commonPool(), threshold);
+	}
+
+	/**
+	 * <p>Copy this query with the parallel navigation of the large repeated branches of a document.</p>
+	 * <p>When an element repeats at least <code>threshold</code> times under its parent, the repeated elements are
+	 * navigated by fork-join tasks on the pool. The rows are the same, in the same order, as a sequential
+	 * navigation.</p>
+	 * <p>The navigation runs on the reduced document built while streaming, so the XML strings are parsed like
+	 * {@link #parseXmlStream(String)}.</p>
+	 *
+	 * @param pool The pool running the navigation tasks (Mandatory)
+	 * @param threshold The minimum number of repeated elements navigated in parallel, at least 2
+	 * @return The query navigating in parallel
+	 */
+	public XFlatQuery withParallelNavigation(final ForkJoinPool pool, final int threshold) {
+		return new XFlatQuery(
+			properties,
+			rootTag,
+			totalProperties,
+			automaton.withParallelNavigation(new ParallelNavigation(pool, threshold))
+		);
+	}
+
+	/**
+	 * <p>Parse a XML into a list of values list. See {@link XFlat#parseXml(String, String, String)}.</p>
+	 * <p>With the parallel navigation, see {@link #withParallelNavigation(ForkJoinPool, int)}, the XML is not parsed
+	 * into a DOM but streamed like {@link #parseXmlStream(String)}, with the StAX parser of the backend.</p>
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public List<List<String>> parseXml(final String xml) throws XFlatException {
+		Utils.checkNonBlank(xml, "xml");
+
+		if (automaton.getParallelNavigation() != null) {
+			// A parsed DOM cannot be read by concurrent tasks, unlike the reduced document of the streaming
+			return parseXmlStream(xml);
+		}
+
+		final ParsingProbe probe = Listeners.createProbe();
+		return arrange(XmlHandler.parse(xml, automaton.getSearchPathNode(), probe), probe);
+	}
+
+	/**
+	 * Parse many XML in parallel on the common fork-join pool. See
+	 * {@link XFlat#parseXmlBatch(Collection, String, String, Executor)}.
+	 *
+	 * @param xmls The XML documents (Mandatory)
+	 * @return The result of each XML, in the order of the documents
+	 */
+	public List<XFlatResult> parseXmlBatch(final Collection<String> xmls) {
+		return parseXmlBatch(xmls, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parse many XML in parallel on the executor. See {@link XFlat#parseXmlBatch(Collection, String, String, Executor)}.
+	 *
+	 * @param xmls The XML documents (Mandatory)
+	 * @param executor The executor running the parsings (Mandatory)
+	 * @return The result of each XML, in the order of the documents
+	 */
+	public List<XFlatResult> parseXmlBatch(final Collection<String> xmls, final Executor executor) {
+		Utils.checkNonNull(xmls, "xmls");
+		Utils.checkNonNull(executor, "executor");
+
+		final List<CompletableFuture<XFlatResult>> futures = new ArrayList<>(xmls.size());
+		for (final String xml : xmls) {
+			futures.add(supplyAsync(() -> parseXmlResult(xml), executor));
+		}
+
+		return futures.stream().map(XFlatQuery::joinResult).collect(Collectors.toList());
+	}
+
+	/**
+	 * Wait for the result of a XML of a batch. A parsing rejected by the executor fails its XML only, an error
+	 * still fails the batch.
+	 *
+	 * @param future The future result of the XML
+	 * @return The result of the XML
+	 */
+	private static XFlatResult joinResult(final CompletableFuture<XFlatResult> future) {
+		return future
+			.handle((result, e) -> {
+				if (e == null) {
+					return result;
+				}
+				if (e instanceof Exception) {
+					return XFlatResult.failure(new XFlatException(e.getMessage(), (Exception) e));
+				}
+				throw new CompletionException(e);
+			})
+			.join();
+	}
+
+	/**
+	 * Parse a XML, catching its error.
+	 *
+	 * @param xml The XML
+	 * @return The result of the XML
+	 */
+	private XFlatResult parseXmlResult(final String xml) {
+		try {
+			return XFlatResult.success(parseXml(xml));
+		} catch (final XFlatException e) {
+			return XFlatResult.failure(e);
+		} catch (final RuntimeException e) {
+			return XFlatResult.failure(new XFlatException(e.getMessage(), e));
+		}
+	}
+
+	/**
+	 * Parse a XML asynchronously on the default executor. See
+	 * {@link XFlat#parseXmlAsync(String, String, String, Executor)}.
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @return The future list of values list
+	 */
+	public CompletableFuture<List<List<String>>> parseXmlAsync(final String xml) {
+		return parseXmlAsync(xml, AsyncExecutors.getDefault());
+	}
+
+	/**
+	 * Parse a XML asynchronously on the executor. See {@link XFlat#parseXmlAsync(String, String, String, Executor)}.
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @param executor The executor running the parsing (Mandatory)
+	 * @return The future list of values list
+	 */
+	public CompletableFuture<List<List<String>>> parseXmlAsync(final String xml, final Executor executor) {
+		Utils.checkNonBlank(xml, "xml");
+		Utils.checkNonNull(executor, "executor");
+
+		return supplyAsync(() -> parseXml(xml), executor);
+	}
+
+	/**
+	 * Parse a XML input stream asynchronously on the default executor. See
+	 * {@link XFlat#parseXmlAsync(InputStream, String, String, Executor)}.
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @return The future list of values list
+	 */
+	public CompletableFuture<List<List<String>>> parseXmlAsync(final InputStream xml) {
+		return parseXmlAsync(xml, AsyncExecutors.getDefault());
+	}
+
+	/**
+	 * Parse a XML input stream asynchronously on the executor. See
+	 * {@link XFlat#parseXmlAsync(InputStream, String, String, Executor)}.
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param executor The executor running the parsing (Mandatory)
+	 * @return The future list of values list
+	 */
+	public CompletableFuture<List<List<String>>> parseXmlAsync(final InputStream xml, final Executor executor) {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(executor, "executor");
+
+		return supplyAsync(() -> parseXml(xml), executor);
+	}
+
+	/**
+	 * Run a parsing on the executor. The future completes with the error of the parsing itself, not wrapped, and
+	 * with the rejection of the executor.
+	 *
+	 * @param parsing The parsing
+	 * @param executor The executor running the parsing
+	 * @return The future result of the parsing
+	 */
+	private static <T> CompletableFuture<T> supplyAsync(final Parsing<T> parsing, final Executor executor) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(parsing.parse());
+				} catch (final Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+
+	/**
+	 * A parsing run by an executor.
+	 *
+	 * @param <T> The type of the result
+	 */
+	@FunctionalInterface
+	private interface Parsing<T> {
+		T parse() throws XFlatException;
+	}
+
+	/**
+	 * Parse a XML into a list of values list, using a StAX reader. See
+	 * {@link XFlat#parseXmlStream(String, String, String)}.
+	 *
+	 * @param xml The XML (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public List<List<String>> parseXmlStream(final String xml) throws XFlatException {
+		Utils.checkNonBlank(xml, "xml");
+
+		final ParsingProbe probe = Listeners.createProbe();
+		try (StringReader stringReader = new StringReader(xml)) {
+			return arrange(XmlStreamHandler.parse(stringReader, automaton, probe), probe);
+		}
+	}
+
+	/**
+	 * Parse a XML input stream into a list of values list. See {@link XFlat#parseXml(InputStream, String, String)}.
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public List<List<String>> parseXml(final InputStream xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		final ParsingProbe probe = Listeners.createProbe();
+		return arrange(XmlStreamHandler.parse(xml, automaton, probe), probe);
+	}
+
+	/**
+	 * Parse a XML reader into a list of values list. See {@link XFlat#parseXml(Reader, String, String)}.
+	 *
+	 * @param xml The XML reader (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public List<List<String>> parseXml(final Reader xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		final ParsingProbe probe = Listeners.createProbe();
+		return arrange(XmlStreamHandler.parse(xml, automaton, probe), probe);
+	}
+
+	/**
+	 * Parse a XML file into a list of values list. See {@link XFlat#parseXml(Path, String, String)}.
+	 *
+	 * @param xml The path of the XML file (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public List<List<String>> parseXml(final Path xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		final ParsingProbe probe = Listeners.createProbe();
+		try (InputStream inputStream = XFlat.openFile(xml)) {
+			return arrange(XmlStreamHandler.parse(inputStream, automaton, probe), probe);
+		} catch (final IOException e) {
+			throw new XFlatException("Error in reading xml file " + xml + ".", e);
+		}
+	}
+
+	/**
+	 * Parse the remaining bytes of a XML buffer into a list of values list.
+	 * See {@link XFlat#parseXml(ByteBuffer, String, String)}.
+	 *
+	 * @param xml The XML buffer (Mandatory)
+	 * @return The list of values list.
+	 * @throws XFlatException
+	 */
+	public List<List<String>> parseXml(final ByteBuffer xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		final ParsingProbe probe = Listeners.createProbe();
+		return arrange(XmlStreamHandler.parse(new ByteBufferInputStream(xml), automaton, probe), probe);
+	}
+
+	/**
+	 * Stream the rows of a XML reader. See {@link XFlat#stream(Reader, String, String)}.
+	 *
+	 * @param xml The XML reader (Mandatory)
+	 * @return The lazy stream of values list. Parsing errors are thrown as {@link XFlatRunTimeException}.
+	 * @throws XFlatException
+	 */
+	public Stream<List<String>> stream(final Reader xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return stream(iterateRows(XmlStreamHandler.iterate(xml, automaton), null));
+	}
+
+	/**
+	 * Stream the rows of a XML input stream. See {@link XFlat#stream(InputStream, String, String)}.
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @return The lazy stream of values list. Parsing errors are thrown as {@link XFlatRunTimeException}.
+	 * @throws XFlatException
+	 */
+	public Stream<List<String>> stream(final InputStream xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		return stream(iterateRows(XmlStreamHandler.iterate(xml, automaton), null));
+	}
+
+	/**
+	 * Stream the rows of a XML file. See {@link XFlat#stream(Path, String, String)}.
+	 *
+	 * @param xml The path of the XML file (Mandatory)
+	 * @return The lazy stream of values list. Parsing errors are thrown as {@link XFlatRunTimeException}.
+	 * @throws XFlatException
+	 */
+	public Stream<List<String>> stream(final Path xml) throws XFlatException {
+		return stream(iterateRows(xml));
+	}
+
+	/**
+	 * Create a non-blocking feeder of a XML received by chunks of bytes, pushing each row to the sink as soon as it
+	 * is complete. See {@link XFlat#feeder(String, String, Charset, RowConsumer)}.
+	 *
+	 * @param charset The encoding of the XML bytes without byte order mark nor encoding declaration (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The feeder, waiting for the first bytes
+	 * @throws XFlatException
+	 */
+	public XFlatFeeder feeder(final Charset charset, final RowConsumer sink) throws XFlatException {
+		Utils.checkNonNull(charset, "charset");
+		Utils.checkNonNull(sink, "sink");
+
+		return new XFlatFeeder(ResultMapFeeder.create(automaton, charset), totalProperties, sink);
+	}
+
+	/**
+	 * Parse a XML reader, pushing each row to the sink as soon as it is complete.
+	 * See {@link XFlat#parseXml(Reader, String, String, RowConsumer)}.
+	 *
+	 * @param xml The XML reader (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The parsing, done or paused by the sink
+	 * @throws XFlatException
+	 */
+	public XFlatParsing parseXml(final Reader xml, final RowConsumer sink) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(sink, "sink");
+
+		return new XFlatParsing(iterateRows(XmlStreamHandler.iterate(xml, automaton), null), sink).resume();
+	}
+
+	/**
+	 * Parse a XML input stream, pushing each row to the sink as soon as it is complete.
+	 * See {@link XFlat#parseXml(InputStream, String, String, RowConsumer)}.
+	 *
+	 * @param xml The XML input stream (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The parsing, done or paused by the sink
+	 * @throws XFlatException
+	 */
+	public XFlatParsing parseXml(final InputStream xml, final RowConsumer sink) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+		Utils.checkNonNull(sink, "sink");
+
+		return new XFlatParsing(iterateRows(XmlStreamHandler.iterate(xml, automaton), null), sink).resume();
+	}
+
+	/**
+	 * Parse a XML file, pushing each row to the sink as soon as it is complete.
+	 * See {@link XFlat#parseXml(Path, String, String, RowConsumer)}.
+	 *
+	 * @param xml The path of the XML file (Mandatory)
+	 * @param sink The consumer of the rows (Mandatory)
+	 * @return The parsing, done or paused by the sink
+	 * @throws XFlatException
+	 */
+	public XFlatParsing parseXml(final Path xml, final RowConsumer sink) throws XFlatException {
+		Utils.checkNonNull(sink, "sink");
+
+		return new XFlatParsing(iterateRows(xml), sink).resume();
+	}
+
+	/**
+	 * Arrange the result map into rows.
+	 *
+	 * @param resultMap The result map issued from the XML parsing
+	 * @return The list of values list
+	 */
+	private List<List<String>> arrange(final Map<LinkKey, RowValues> resultMap) {
+		return ResultHandler.arrange(resultMap, totalProperties);
+	}
+
+	/**
+	 * Arrange the result map of a parsing measured by the probe, and report the parsing to the listeners.
+	 *
+	 * @param resultMap The result map of the parsing
+	 * @param probe The probe of the parsing, or null if no listener is registered
+	 * @return The list of values list
+	 */
+	private List<List<String>> arrange(final Map<LinkKey, RowValues> resultMap, final ParsingProbe probe) {
+		if (probe == null) {
+			return arrange(resultMap);
+		}
+
+		final List<List<String>> rows;
+		probe.start(Phase.ARRANGE);
+		try {
+			rows = arrange(resultMap);
+		} finally {
+			probe.end(Phase.ARRANGE);
+		}
+		probe.parsingEnded(this, new XFlatStatistics(probe, rows.size()));
+		return rows;
+	}
+
+	/**
+	 * Iterate lazily over the rows of a XML file, closed with the iterator.
+	 *
+	 * @param xml The path of the XML file
+	 * @return The lazy iterator of values list
+	 * @throws XFlatException
+	 */
+	private XFlatRowIterator iterateRows(final Path xml) throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		final InputStream inputStream;
+		try {
+			inputStream = XFlat.openFile(xml);
+		} catch (final IOException e) {
+			throw new XFlatException("Error in reading xml file " + xml + ".", e);
+		}
+
+		try {
+			return iterateRows(XmlStreamHandler.iterate(inputStream, automaton), inputStream);
+		} catch (final XFlatException | RuntimeException e) {
+			closeQuietly(inputStream);
+			throw e;
+		}
+	}
+
+	/**
+	 * Iterate lazily over the rows of the result maps.
+	 *
+	 * @param resultMapIterator The iterator over the result maps of each branch element
+	 * @param input The input to close with the iterator, or null
+	 * @return The lazy iterator of values list
+	 */
+	private XFlatRowIterator iterateRows(final ResultMapIterator resultMapIterator, final Closeable input) {
+		return new XFlatRowIterator(resultMapIterator, totalProperties, input);
+	}
+
+	/**
+	 * Stream the rows of the iterator, closed with the stream.
+	 *
+	 * @param rowIterator The lazy iterator of values list
+	 * @return The lazy stream of values list
+	 */
+	private static Stream<List<String>> stream(final XFlatRowIterator rowIterator) {
+		return StreamSupport
+			.stream(Spliterators.spliteratorUnknownSize(rowIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(() -> {
+				try {
+					rowIterator.close();
+				} catch (final IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+	}
+
+	private static void closeQuietly(final Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (final IOException e) {
+			// Nothing to do, the original error is reported
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "XFlatQuery [properties=" + properties + ", rootTag=" + rootTag + "]";
+	}
+}
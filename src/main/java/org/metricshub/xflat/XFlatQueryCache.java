@@ -0,0 +1,224 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.metricshub.xflat.exceptions.XFlatException;
+
+/**
+ * <p>Bounded cache of the queries compiled by the static {@link XFlat} methods.</p>
+ * <p>The queries are looked up by their properties and root tag, without white spaces, so that the same pair
+ * is only compiled once. Looking up a cached query does not lock. Once the cache is full, the least recently used
+ * query is evicted.</p>
+ * <p>The maximum size is read from the {@value #MAXIMUM_SIZE_PROPERTY} system property, 512 by default, and can
+ * be changed at runtime. A maximum size of 0 disables the cache.</p>
+ */
+public final class XFlatQueryCache {
+
+	/**
+	 * System property overriding the default maximum size of the cache.
+	 */
+	public static final String MAXIMUM_SIZE_PROPERTY = "org.metricshub.xflat.queryCacheSize";
+
+	/**
+	 * Default maximum number of cached queries.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 512;
+
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong clock = new AtomicLong();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private volatile int maximumSize;
+
+	XFlatQueryCache(final int maximumSize) {
+		setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * @return The cache used by the static {@link XFlat} methods, sized from the system property
+	 */
+	static XFlatQueryCache createDefault() {
+		return new XFlatQueryCache(Math.max(0, Integer.getInteger(MAXIMUM_SIZE_PROPERTY, DEFAULT_MAXIMUM_SIZE)));
+	}
+
+	/**
+	 * Get the compiled query of the properties and root tag, compiling it if it is not cached.
+	 *
+	 * @param properties The properties separated by a semi-colon character (Mandatory)
+	 * @param rootTag The root tag (Mandatory)
+	 * @return The compiled query
+	 * @throws XFlatException if the search path tree cannot be built
+	 */
+	XFlatQuery get(final String properties, final String rootTag) throws XFlatException {
+		Utils.checkNonBlank(properties, "properties");
+		Utils.checkNonBlank(rootTag, "rootTag");
+
+		if (maximumSize == 0) {
+			missCount.increment();
+			return XFlatQuery.compile(properties, rootTag);
+		}
+
+		final Key key = new Key(Utils.removeWhiteSpaces(properties), Utils.removeWhiteSpaces(rootTag));
+
+		final Entry entry = entries.get(key);
+		if (entry != null) {
+			hitCount.increment();
+			entry.lastAccess = clock.incrementAndGet();
+			return entry.query;
+		}
+
+		missCount.increment();
+		final XFlatQuery query = XFlatQuery.compile(properties, rootTag);
+
+		final Entry previous = entries.putIfAbsent(key, new Entry(query, clock.incrementAndGet()));
+		if (previous != null) {
+			// Compiled concurrently by another thread
+			return previous.query;
+		}
+
+		evict();
+
+		return query;
+	}
+
+	/**
+	 * Evict the least recently used queries until the cache fits its maximum size.
+	 */
+	private synchronized void evict() {
+		while (entries.size() > maximumSize) {
+			Key eldestKey = null;
+			long eldestAccess = Long.MAX_VALUE;
+			for (final Map.Entry<Key, Entry> entry : entries.entrySet()) {
+				if (entry.getValue().lastAccess < eldestAccess) {
+					eldestKey = entry.getKey();
+					eldestAccess = entry.getValue().lastAccess;
+				}
+			}
+			if (eldestKey == null) {
+				return;
+			}
+			entries.remove(eldestKey);
+		}
+	}
+
+	/**
+	 * @return The maximum number of cached queries
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Set the maximum number of cached queries, evicting the least recently used ones if needed.
+	 *
+	 * @param maximumSize The maximum number of cached queries, 0 to disable the cache
+	 * @throws IllegalArgumentException if the maximum size is negative
+	 */
+	public void setMaximumSize(final int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("maximumSize must not be negative.");
+		}
+		this.maximumSize = maximumSize;
+		evict();
+	}
+
+	/**
+	 * @return The number of cached queries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return The number of lookups which found a cached query
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return The number of lookups which had to compile the query
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Remove all the cached queries and reset the counters.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		hitCount.reset();
+		missCount.reset();
+	}
+
+	/**
+	 * Normalized properties and root tag.
+	 */
+	private static final class Key {
+
+		private final String properties;
+		private final String rootTag;
+		private final int hashCode;
+
+		private Key(final String properties, final String rootTag) {
+			this.properties = properties;
+			this.rootTag = rootTag;
+			this.hashCode = Objects.hash(properties, rootTag);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return properties.equals(other.properties) && rootTag.equals(other.rootTag);
+		}
+	}
+
+	/**
+	 * A cached query with its last access time.
+	 */
+	private static final class Entry {
+
+		private final XFlatQuery query;
+		private volatile long lastAccess;
+
+		private Entry(final XFlatQuery query, final long lastAccess) {
+			this.query = query;
+			this.lastAccess = lastAccess;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+import org.metricshub.xflat.exceptions.XFlatException;
+
+/**
+ * Result of the parsing of one document of a batch: its rows, or the error which failed it.
+ */
+public final class XFlatResult {
+
+	private final List<List<String>> rows;
+	private final XFlatException exception;
+
+	private XFlatResult(final List<List<String>> rows, final XFlatException exception) {
+		this.rows = rows;
+		this.exception = exception;
+	}
+
+	static XFlatResult success(final List<List<String>> rows) {
+		return new XFlatResult(rows, null);
+	}
+
+	static XFlatResult failure(final XFlatException exception) {
+		return new XFlatResult(null, exception);
+	}
+
+	/**
+	 * @return Whether the document has been parsed
+	 */
+	public boolean isSuccess() {
+		return exception == null;
+	}
+
+	/**
+	 * @return The rows of the document
+	 * @throws XFlatException the error which failed the parsing of the document
+	 */
+	public List<List<String>> getRows() throws XFlatException {
+		if (exception != null) {
+			throw exception;
+		}
+		return rows;
+	}
+
+	/**
+	 * @return The error which failed the parsing of the document, or null if it has been parsed
+	 */
+	public XFlatException getException() {
+		return exception;
+	}
+
+	@Override
+	public String toString() {
+		return isSuccess() ? "XFlatResult [rows=" + rows + "]" : "XFlatResult [exception=" + exception + "]";
+	}
+}
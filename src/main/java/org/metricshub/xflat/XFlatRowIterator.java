@@ -0,0 +1,80 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.metricshub.xflat.handlers.ResultHandler;
+import org.metricshub.xflat.handlers.ResultMapIterator;
+
+/**
+ * Iterator over the rows of a XML, arranged one branch element at a time.
+ */
+class XFlatRowIterator implements Iterator<List<String>>, Closeable {
+
+	private final ResultMapIterator resultMapIterator;
+	private final int totalProperties;
+	private final Closeable input;
+	private Iterator<List<String>> rows = Collections.emptyIterator();
+
+	/**
+	 * @param resultMapIterator The iterator over the result maps of each branch element
+	 * @param totalProperties The total number of properties
+	 * @param input The input to close with the iterator, or null
+	 */
+	XFlatRowIterator(final ResultMapIterator resultMapIterator, final int totalProperties, final Closeable input) {
+		this.resultMapIterator = resultMapIterator;
+		this.totalProperties = totalProperties;
+		this.input = input;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!rows.hasNext() && resultMapIterator.hasNext()) {
+			rows = ResultHandler.arrange(resultMapIterator.next(), totalProperties).iterator();
+		}
+		return rows.hasNext();
+	}
+
+	@Override
+	public List<String> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return rows.next();
+	}
+
+	@Override
+	public void close() throws IOException {
+		rows = Collections.emptyIterator();
+		try {
+			resultMapIterator.close();
+		} finally {
+			if (input != null) {
+				input.close();
+			}
+		}
+	}
+}
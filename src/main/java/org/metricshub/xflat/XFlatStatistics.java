@@ -0,0 +1,131 @@
+package org.metricshub.xflat;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.xflat.XFlatListener.Phase;
+import org.metricshub.xflat.handlers.ParsingProbe;
+
+/**
+ * Durations and counters of one parsing, reported to the {@link XFlatListener}s.
+ */
+public final class XFlatStatistics {
+
+	private final long bytesRead;
+	private final long parseNanos;
+	private final long navigationNanos;
+	private final long arrangeNanos;
+	private final long elementsVisited;
+	private final long elementsSkipped;
+	private final int fragmentCount;
+	private final int rowCount;
+
+	XFlatStatistics(final ParsingProbe probe, final int rowCount) {
+		this.bytesRead = probe.getBytesRead();
+		this.parseNanos = probe.getDuration(Phase.PARSE);
+		this.navigationNanos = probe.getDuration(Phase.NAVIGATE);
+		this.arrangeNanos = probe.getDuration(Phase.ARRANGE);
+		this.elementsVisited = probe.getElementsVisited();
+		this.elementsSkipped = probe.getElementsSkipped();
+		this.fragmentCount = probe.getFragmentCount();
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * @return The size of the XML read: the bytes of the input streams, files and buffers, or the characters of the
+	 * strings and readers
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return The duration of the {@link Phase#PARSE} phase, in nanoseconds
+	 */
+	public long getParseNanos() {
+		return parseNanos;
+	}
+
+	/**
+	 * @return The duration of the {@link Phase#NAVIGATE} phase, in nanoseconds
+	 */
+	public long getNavigationNanos() {
+		return navigationNanos;
+	}
+
+	/**
+	 * @return The duration of the {@link Phase#ARRANGE} phase, in nanoseconds
+	 */
+	public long getArrangeNanos() {
+		return arrangeNanos;
+	}
+
+	/**
+	 * @return The number of elements navigated because they match the search path tree
+	 */
+	public long getElementsVisited() {
+		return elementsVisited;
+	}
+
+	/**
+	 * @return The number of elements skipped because they do not match the search path tree: while streaming, and
+	 * among the children of the navigated elements
+	 */
+	public long getElementsSkipped() {
+		return elementsSkipped;
+	}
+
+	/**
+	 * @return The number of values fragments produced by the navigation
+	 */
+	public int getFragmentCount() {
+		return fragmentCount;
+	}
+
+	/**
+	 * @return The number of rows returned
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public String toString() {
+		return (
+			"XFlatStatistics [bytesRead=" +
+			bytesRead +
+			", parseNanos=" +
+			parseNanos +
+			", navigationNanos=" +
+			navigationNanos +
+			", arrangeNanos=" +
+			arrangeNanos +
+			", elementsVisited=" +
+			elementsVisited +
+			", elementsSkipped=" +
+			elementsSkipped +
+			", fragmentCount=" +
+			fragmentCount +
+			", rowCount=" +
+			rowCount +
+			"]"
+		);
+	}
+}
@@ -27,4 +27,8 @@ public class XFlatRunTimeException extends RuntimeException {
 	public XFlatRunTimeException(final String message) {
 		super(message);
 	}
+
+	public XFlatRunTimeException(final String message, final Exception e) {
+		super(message, e);
+	}
 }
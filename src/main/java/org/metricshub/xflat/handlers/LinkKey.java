@@ -0,0 +1,99 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Identifier of a row fragment issued from the XML navigation.</p>
+ * <p>Each time the navigation forks on repeated elements, the fragments of the branches get a child key of the
+ * current one. A key only holds an integer id, unique within the navigation, and a pointer to its parent key, so the
+ * lineage of a fragment is tracked without any string.</p>
+ * <p>The keys forked from a key are kept in the creation order, so the keys of a navigation form a tree whose
+ * leaves are the rows. Keys are compared by identity.</p>
+ */
+public final class LinkKey {
+
+	private final LinkKey parent;
+	private final int id;
+	private final int depth;
+	private List<LinkKey> children = Collections.emptyList();
+
+	LinkKey(final LinkKey parent, final int id) {
+		this.parent = parent;
+		this.id = id;
+		this.depth = parent == null ? 0 : parent.depth + 1;
+
+		if (parent != null) {
+			if (parent.children.isEmpty()) {
+				parent.children = new ArrayList<>();
+			}
+			parent.children.add(this);
+		}
+	}
+
+	/**
+	 * @return The key of the fragment this one was forked from, or null for a first level key
+	 */
+	public LinkKey getParent() {
+		return parent;
+	}
+
+	/**
+	 * @return The id of the key, unique within the navigation
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return The number of ancestors of the key
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return The keys forked from this key, in the creation order
+	 */
+	public List<LinkKey> getChildren() {
+		return Collections.unmodifiableList(children);
+	}
+
+	/**
+	 * @param ancestorDepth The depth of the ancestor, lower than or equal to the depth of this key
+	 * @return The ancestor of this key at the given depth, or this key itself
+	 */
+	LinkKey getAncestor(final int ancestorDepth) {
+		LinkKey linkKey = this;
+		while (linkKey.depth > ancestorDepth) {
+			linkKey = linkKey.parent;
+		}
+		return linkKey;
+	}
+
+	@Override
+	public String toString() {
+		return parent == null ? String.valueOf(id) : parent + ResultHandler.LINK_SEPARATOR + id;
+	}
+}
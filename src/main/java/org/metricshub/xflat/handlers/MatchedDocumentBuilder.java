@@ -0,0 +1,226 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.metricshub.xflat.handlers.SearchPathAutomaton.State;
+import org.metricshub.xflat.types.SearchPathNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * <p>Build a reduced document from XML events, following the search path automaton.</p>
+ * <p>Only the elements matched by the search path tree are kept, with their requested attributes,
+ * and the whole text content of the elements matched as a property.
+ * The ancestors of a kept element are kept as empty placeholders to preserve the document order.
+ * Everything else is dropped as soon as it is read.</p>
+ * <p>The resulting document is navigated exactly like a fully parsed one, so that the
+ * result map is the same, while the memory only depends on the document depth and the kept values.</p>
+ * <p>With a listener, each element of the branch path of the automaton is notified as soon as it ends, so that it
+ * can be navigated and dropped without waiting for the end of its root element.</p>
+ */
+class MatchedDocumentBuilder {
+
+	private final SearchPathAutomaton automaton;
+	private final Document document;
+	private final List<SearchPathNode> branchPath;
+	private final BranchListener branchListener;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	private long elementsSkipped;
+
+	MatchedDocumentBuilder(final SearchPathAutomaton automaton, final Document document) {
+		this(automaton, document, null);
+	}
+
+	/**
+	 * Create a builder notifying each element of the branch path once it is complete.
+	 *
+	 * @param automaton The search path automaton
+	 * @param document The document to fill
+	 * @param branchListener Called with each element of the branch path of the automaton, under an outermost
+	 * element matched by the root search path node, when it ends. Null to keep the whole reduced document.
+	 */
+	MatchedDocumentBuilder(
+		final SearchPathAutomaton automaton,
+		final Document document,
+		final BranchListener branchListener
+	) {
+		this.automaton = automaton;
+		this.document = document;
+		this.branchPath = automaton.getBranchPath();
+		this.branchListener = branchListener;
+	}
+
+	/**
+	 * Handle the start of an element.
+	 *
+	 * @param name The qualified name of the element
+	 * @param attributes Function returning the value of an attribute from its qualified name, or null if absent
+	 */
+	void startElement(final String name, final UnaryOperator<String> attributes) {
+		final Frame parent = frames.peek();
+		final State state = (parent == null ? automaton.getInitialState() : parent.state).next(name);
+		final boolean capture = (parent != null && parent.capture) || state.isCapture();
+		final boolean outermostRoot = state.isRoot() && (parent == null || !parent.insideRoot);
+
+		final int branchDepth;
+		if (outermostRoot) {
+			branchDepth = 0;
+		} else if (
+			parent != null &&
+			parent.branchDepth >= 0 &&
+			parent.branchDepth < branchPath.size() - 1 &&
+			state.isMatchedBy(branchPath.get(parent.branchDepth + 1))
+		) {
+			branchDepth = parent.branchDepth + 1;
+		} else {
+			branchDepth = -1;
+		}
+
+		final Frame frame = new Frame(parent, name, state, capture, outermostRoot, branchDepth);
+		frames.push(frame);
+
+		if (!state.isMatched() && !capture) {
+			// Not matched: the element may only be materialized later as a placeholder
+			elementsSkipped++;
+			return;
+		}
+
+		final Element element = frame.materialize();
+		for (final String attributeName : state.getAttributeNames()) {
+			final String value = attributes.apply(attributeName);
+			if (value != null) {
+				element.setAttribute(attributeName, value);
+			}
+		}
+	}
+
+	/**
+	 * Handle character data. The text is only kept inside elements matched as a property.
+	 *
+	 * @param text The character data
+	 */
+	void characters(final String text) {
+		final Frame frame = frames.peek();
+		if (frame != null && frame.capture && !text.isEmpty()) {
+			frame.materialize().appendChild(document.createTextNode(text));
+		}
+	}
+
+	/**
+	 * @return Whether the character data of the current element is kept
+	 */
+	boolean isCapturing() {
+		final Frame frame = frames.peek();
+		return frame != null && frame.capture;
+	}
+
+	/**
+	 * Handle the end of the current element.
+	 */
+	void endElement() {
+		final Frame frame = frames.pop();
+		if (frame.branchDepth >= 0 && branchListener != null) {
+			branchListener.branchElementEnded(frame.element, frame.branchDepth, frame.branchesEnded);
+			if (frame.branchDepth > 0) {
+				frame.parent.branchesEnded = true;
+			}
+		}
+	}
+
+	/**
+	 * @return The number of elements read which are neither matched nor captured
+	 */
+	long getElementsSkipped() {
+		return elementsSkipped;
+	}
+
+	/**
+	 * @return The reduced document
+	 */
+	Document getDocument() {
+		return document;
+	}
+
+	/**
+	 * An open element of the XML being read.
+	 */
+	private class Frame {
+
+		private final Frame parent;
+		private final String name;
+		private final State state;
+		private final boolean capture;
+		private final boolean insideRoot;
+		private final int branchDepth;
+		private boolean branchesEnded;
+		private Element element;
+
+		private Frame(
+			final Frame parent,
+			final String name,
+			final State state,
+			final boolean capture,
+			final boolean outermostRoot,
+			final int branchDepth
+		) {
+			this.parent = parent;
+			this.name = name;
+			this.state = state;
+			this.capture = capture;
+			this.insideRoot = outermostRoot || (parent != null && parent.insideRoot);
+			this.branchDepth = branchDepth;
+		}
+
+		/**
+		 * Create the element in the reduced document, with its ancestors if they are not created yet.
+		 *
+		 * @return The element in the reduced document
+		 */
+		private Element materialize() {
+			if (element == null) {
+				final Node parentNode = parent == null ? document : parent.materialize();
+				element = document.createElement(name);
+				parentNode.appendChild(element);
+			}
+			return element;
+		}
+	}
+
+	/**
+	 * Listener of the elements of the branch path.
+	 */
+	@FunctionalInterface
+	interface BranchListener {
+		/**
+		 * Called when an element of the branch path ends.
+		 *
+		 * @param element The element in the reduced document
+		 * @param branchDepth The index of its node in the branch path, 0 for an outermost root element
+		 * @param branchesEnded Whether deeper elements of the branch path have already been notified in its subtree
+		 */
+		void branchElementEnded(Element element, int branchDepth, boolean branchesEnded);
+	}
+}
@@ -0,0 +1,77 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import org.metricshub.xflat.Utils;
+
+/**
+ * <p>Settings of the parallel navigation of the repeated elements of a document.</p>
+ * <p>When the navigation forks on at least {@link #getThreshold()} repeated elements, the elements are split into
+ * fork-join tasks navigated in parallel on the pool, and their result maps are merged back in the document
+ * order.</p>
+ */
+public final class ParallelNavigation {
+
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+	/**
+	 * @param pool The pool running the navigation tasks. (Mandatory)
+	 * @param threshold The minimum number of repeated elements navigated in parallel, at least 2
+	 */
+	public ParallelNavigation(final ForkJoinPool pool, final int threshold) {
+		Utils.checkNonNull(pool, "pool");
+		if (threshold < 2) {
+			throw new IllegalArgumentException("threshold must be at least 2: " + threshold);
+		}
+
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return The pool running the navigation tasks
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return The minimum number of repeated elements navigated in parallel
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @param size The number of repeated elements
+	 * @return The maximum number of repeated elements navigated by one task: a few tasks per worker of the pool
+	 */
+	int getBatchSize(final int size) {
+		return Math.max(1, size / (pool.getParallelism() * 4));
+	}
+
+	@Override
+	public String toString() {
+		return "ParallelNavigation [parallelism=" + pool.getParallelism() + ", threshold=" + threshold + "]";
+	}
+}
@@ -0,0 +1,304 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import org.metricshub.xflat.Utils;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+import org.metricshub.xflat.spi.JdkParserBackend;
+import org.metricshub.xflat.spi.XFlatParserBackend;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+
+/**
+ * <p>Selection of the {@link XFlatParserBackend} providing the XML parser factories.</p>
+ * <p>The backends are discovered with a {@link ServiceLoader} on the first parsing. The backend named by the
+ * {@value #BACKEND_PROPERTY} system property is used if it is set, else the available backend with the highest
+ * priority. The backend can also be changed at runtime.</p>
+ */
+public final class ParserBackends {
+
+	/**
+	 * System property selecting the parser backend by name.
+	 */
+	public static final String BACKEND_PROPERTY = "org.metricshub.xflat.parserBackend";
+
+	/**
+	 * The maximum number of idle document builders kept by a backend.
+	 */
+	static final int MAX_IDLE_DOCUMENT_BUILDERS = Runtime.getRuntime().availableProcessors();
+
+	private static volatile Factories factories;
+
+	private ParserBackends() {}
+
+	/**
+	 * @return The available parser backends, the highest priority first
+	 */
+	public static List<XFlatParserBackend> getAvailableBackends() {
+		final List<XFlatParserBackend> backends = new ArrayList<>();
+		final Iterator<XFlatParserBackend> iterator = ServiceLoader
+			.load(XFlatParserBackend.class, ParserBackends.class.getClassLoader())
+			.iterator();
+		while (iterator.hasNext()) {
+			try {
+				final XFlatParserBackend backend = iterator.next();
+				if (backend.isAvailable()) {
+					backends.add(backend);
+				}
+			} catch (final ServiceConfigurationError e) {
+				// A broken provider doesn't prevent using the others
+			}
+		}
+
+		// The service file may have been dropped by a repackaging of the jar
+		if (backends.stream().noneMatch(backend -> JdkParserBackend.NAME.equals(backend.getName()))) {
+			backends.add(new JdkParserBackend());
+		}
+
+		backends.sort(Comparator.comparingInt(XFlatParserBackend::getPriority).reversed());
+		return backends;
+	}
+
+	/**
+	 * @return The parser backend in use
+	 */
+	public static XFlatParserBackend getBackend() {
+		return getFactories().backend;
+	}
+
+	/**
+	 * Use the given parser backend for the next parsings.
+	 *
+	 * @param backend The parser backend. (Mandatory)
+	 */
+	public static void setBackend(final XFlatParserBackend backend) {
+		Utils.checkNonNull(backend, "backend");
+
+		factories = new Factories(backend);
+	}
+
+	/**
+	 * Select the backend by name, or the highest priority one if no name is given.
+	 *
+	 * @param name The name of the backend, may be null
+	 * @return The selected backend
+	 * @throws XFlatRunTimeException if no available backend has this name
+	 */
+	static XFlatParserBackend selectBackend(final String name) {
+		final List<XFlatParserBackend> backends = getAvailableBackends();
+		if (name == null || name.trim().isEmpty()) {
+			return backends.get(0);
+		}
+
+		return backends
+			.stream()
+			.filter(backend -> name.trim().equals(backend.getName()))
+			.findFirst()
+			.orElseThrow(() -> new XFlatRunTimeException("No available parser backend named " + name + "."));
+	}
+
+	/**
+	 * @return The StAX factory of the parser backend in use
+	 */
+	static XMLInputFactory getInputFactory() {
+		return getFactories().inputFactory;
+	}
+
+	/**
+	 * Create a SAX parser of the parser backend in use, with the external access restricted when the parser
+	 * supports it.
+	 *
+	 * @return A new SAX parser
+	 * @throws ParserConfigurationException if the SAX parser cannot be created
+	 * @throws SAXException if the SAX parser cannot be created
+	 */
+	static SAXParser newSAXParser() throws ParserConfigurationException, SAXException {
+		final SAXParser parser = getFactories().saxParserFactory.newSAXParser();
+		setProperty(parser, XMLConstants.ACCESS_EXTERNAL_DTD);
+		setProperty(parser, XMLConstants.ACCESS_EXTERNAL_SCHEMA);
+		return parser;
+	}
+
+	private static void setProperty(final SAXParser parser, final String name) {
+		try {
+			parser.setProperty(name, Utils.EMPTY);
+		} catch (final SAXNotRecognizedException | SAXNotSupportedException e) {
+			// Not supported by this implementation, which has no external access to restrict
+		}
+	}
+
+	/**
+	 * <p>Borrow an idle document builder of the parser backend in use, or create one if none is idle.</p>
+	 * <p>Creating a document builder sets up the whole parser configuration and symbol table, which is a visible part
+	 * of the time to parse a small document. The idle builders are shared by all the threads rather than confined to
+	 * each one, so that the parsings running in their own virtual thread reuse them too, and they are bounded by
+	 * {@link #MAX_IDLE_DOCUMENT_BUILDERS} whatever the number of threads.</p>
+	 *
+	 * @return The borrowed document builder, to be closed after the parsing to give it back
+	 * @throws ParserConfigurationException if the document builder cannot be created
+	 */
+	static PooledDocumentBuilder acquireDocumentBuilder() throws ParserConfigurationException {
+		final Factories current = getFactories();
+		final DocumentBuilder documentBuilder = current.idleDocumentBuilders.pollFirst();
+		return new PooledDocumentBuilder(
+			documentBuilder != null ? documentBuilder : current.documentBuilderFactory.newDocumentBuilder(),
+			current.idleDocumentBuilders
+		);
+	}
+
+	/**
+	 * @return The number of idle document builders of the parser backend in use
+	 */
+	static int getIdleDocumentBuilderCount() {
+		return getFactories().idleDocumentBuilders.size();
+	}
+
+	private static Factories getFactories() {
+		Factories current = factories;
+		if (current == null) {
+			synchronized (ParserBackends.class) {
+				current = factories;
+				if (current == null) {
+					current = new Factories(selectBackend(System.getProperty(BACKEND_PROPERTY)));
+					factories = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * The configured factories of a parser backend.
+	 */
+	private static class Factories {
+
+		private final XFlatParserBackend backend;
+		private final DocumentBuilderFactory documentBuilderFactory;
+		private final XMLInputFactory inputFactory;
+		private final SAXParserFactory saxParserFactory;
+
+		// The idle document builders, reset and reused between the parsings of any thread, the last given back first
+		private final BlockingDeque<DocumentBuilder> idleDocumentBuilders = new LinkedBlockingDeque<>(
+			MAX_IDLE_DOCUMENT_BUILDERS
+		);
+
+		private Factories(final XFlatParserBackend backend) {
+			this.backend = backend;
+
+			documentBuilderFactory = backend.createDocumentBuilderFactory();
+			setAttribute(documentBuilderFactory, XMLConstants.ACCESS_EXTERNAL_DTD);
+			setAttribute(documentBuilderFactory, XMLConstants.ACCESS_EXTERNAL_SCHEMA);
+
+			inputFactory = backend.createInputFactory();
+			// Element and attribute names are the qualified names, like in the DOM path
+			inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+			inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			if (inputFactory.isPropertySupported(XMLConstants.ACCESS_EXTERNAL_DTD)) {
+				inputFactory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, Utils.EMPTY);
+			}
+
+			saxParserFactory = backend.createSAXParserFactory();
+			saxParserFactory.setNamespaceAware(false);
+		}
+
+		private static void setAttribute(final DocumentBuilderFactory documentBuilderFactory, final String name) {
+			try {
+				documentBuilderFactory.setAttribute(name, Utils.EMPTY);
+			} catch (final IllegalArgumentException e) {
+				// Not supported by this implementation, which has no external access to restrict
+			}
+		}
+	}
+
+	/**
+	 * A document builder borrowed from the idle builders of a parser backend, used by one parsing at a time.
+	 */
+	static final class PooledDocumentBuilder implements AutoCloseable {
+
+		private final DocumentBuilder documentBuilder;
+		private final BlockingDeque<DocumentBuilder> idleDocumentBuilders;
+		private boolean reusable = true;
+
+		private PooledDocumentBuilder(
+			final DocumentBuilder documentBuilder,
+			final BlockingDeque<DocumentBuilder> idleDocumentBuilders
+		) {
+			this.documentBuilder = documentBuilder;
+			this.idleDocumentBuilders = idleDocumentBuilders;
+		}
+
+		/**
+		 * @return The borrowed document builder
+		 */
+		DocumentBuilder get() {
+			return documentBuilder;
+		}
+
+		/**
+		 * <p>Parse the input with the borrowed document builder.</p>
+		 * <p>A document builder failing to parse is not given back: the JDK parser keeps a part of its scanning state
+		 * through the reset after a fatal error in an attribute value, and then silently drops elements of the next
+		 * documents expanding an entity in an attribute.</p>
+		 *
+		 * @param inputSource The XML input
+		 * @return The parsed document
+		 * @throws SAXException if the XML is not well-formed
+		 * @throws IOException if the input cannot be read
+		 */
+		Document parse(final InputSource inputSource) throws SAXException, IOException {
+			reusable = false;
+			final Document document = documentBuilder.parse(inputSource);
+			reusable = true;
+			return document;
+		}
+
+		/**
+		 * Reset the document builder and give it back to the backend it comes from, or drop it if enough builders
+		 * are idle or if its last parsing failed.
+		 */
+		@Override
+		public void close() {
+			if (reusable) {
+				documentBuilder.reset();
+				idleDocumentBuilders.offerFirst(documentBuilder);
+			}
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import org.metricshub.xflat.XFlatListener;
+import org.metricshub.xflat.XFlatListener.Phase;
+import org.metricshub.xflat.XFlatQuery;
+import org.metricshub.xflat.XFlatStatistics;
+
+/**
+ * <p>Measures of one parsing, for its {@link XFlatListener}s.</p>
+ * <p>A probe is only created when a listener is registered: the handlers take a null probe otherwise, and then
+ * measure nothing. A probe is used by the thread of its parsing only.</p>
+ */
+public final class ParsingProbe {
+
+	private final XFlatListener[] listeners;
+	private final long[] starts = new long[Phase.values().length];
+	private final long[] durations = new long[Phase.values().length];
+	private long bytesRead;
+	private long elementsVisited;
+	private long elementsSkipped;
+	private int fragmentCount;
+
+	/**
+	 * @param listeners The listeners of the parsing (Mandatory)
+	 */
+	public ParsingProbe(final XFlatListener... listeners) {
+		this.listeners = listeners.clone();
+	}
+
+	/**
+	 * Start timing a phase, and notify the listeners.
+	 *
+	 * @param phase The phase
+	 */
+	public void start(final Phase phase) {
+		for (final XFlatListener listener : listeners) {
+			listener.phaseStarted(phase);
+		}
+		starts[phase.ordinal()] = System.nanoTime();
+	}
+
+	/**
+	 * End timing a phase, and notify the listeners.
+	 *
+	 * @param phase The phase
+	 */
+	public void end(final Phase phase) {
+		final long duration = System.nanoTime() - starts[phase.ordinal()];
+		durations[phase.ordinal()] += duration;
+		for (final XFlatListener listener : listeners) {
+			listener.phaseEnded(phase, duration);
+		}
+	}
+
+	/**
+	 * Notify the listeners of a compiled query.
+	 *
+	 * @param query The compiled query
+	 */
+	public void queryCompiled(final XFlatQuery query) {
+		for (final XFlatListener listener : listeners) {
+			listener.queryCompiled(query, getDuration(Phase.COMPILE));
+		}
+	}
+
+	/**
+	 * Notify the listeners of a successful parsing.
+	 *
+	 * @param query The query of the parsing
+	 * @param statistics The statistics of the parsing
+	 */
+	public void parsingEnded(final XFlatQuery query, final XFlatStatistics statistics) {
+		for (final XFlatListener listener : listeners) {
+			listener.parsingEnded(query, statistics);
+		}
+	}
+
+	/**
+	 * @param inputStream The XML input stream
+	 * @return The input stream counting the bytes read
+	 */
+	public InputStream count(final InputStream inputStream) {
+		return new FilterInputStream(inputStream) {
+			@Override
+			public int read() throws IOException {
+				final int b = super.read();
+				if (b >= 0) {
+					bytesRead++;
+				}
+				return b;
+			}
+
+			@Override
+			public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+				final int count = super.read(buffer, offset, length);
+				if (count > 0) {
+					bytesRead += count;
+				}
+				return count;
+			}
+		};
+	}
+
+	/**
+	 * @param reader The XML reader
+	 * @return The reader counting the characters read
+	 */
+	public Reader count(final Reader reader) {
+		return new FilterReader(reader) {
+			@Override
+			public int read() throws IOException {
+				final int c = super.read();
+				if (c >= 0) {
+					bytesRead++;
+				}
+				return c;
+			}
+
+			@Override
+			public int read(final char[] buffer, final int offset, final int length) throws IOException {
+				final int count = super.read(buffer, offset, length);
+				if (count > 0) {
+					bytesRead += count;
+				}
+				return count;
+			}
+		};
+	}
+
+	/**
+	 * @param phase The phase
+	 * @return The total duration of the phase, in nanoseconds
+	 */
+	public long getDuration(final Phase phase) {
+		return durations[phase.ordinal()];
+	}
+
+	/**
+	 * @return The bytes or characters read
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return The number of navigated elements
+	 */
+	public long getElementsVisited() {
+		return elementsVisited;
+	}
+
+	/**
+	 * @return The number of skipped elements
+	 */
+	public long getElementsSkipped() {
+		return elementsSkipped;
+	}
+
+	/**
+	 * @return The number of values fragments
+	 */
+	public int getFragmentCount() {
+		return fragmentCount;
+	}
+
+	void addBytesRead(final long count) {
+		bytesRead += count;
+	}
+
+	/**
+	 * Add the counters of a navigation.
+	 *
+	 * @param xmlHandler The handler of the navigation
+	 */
+	void addNavigation(final XmlHandler xmlHandler) {
+		elementsVisited += xmlHandler.getElementsVisited();
+		elementsSkipped += xmlHandler.getElementsSkipped();
+		fragmentCount += xmlHandler.getResultMap().size();
+	}
+
+	void addElementsSkipped(final long count) {
+		elementsSkipped += count;
+	}
+}
@@ -21,15 +21,11 @@ package org.metricshub.xflat.handlers;
  */
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 import org.metricshub.xflat.Utils;
 
 public class ResultHandler {
@@ -41,15 +37,17 @@ public class ResultHandler {
 
 	/**
 	 * <p>Arrange the result map issued from the XML parsing into a list of values list.</p>
-	 * Link and merge the rows fragments and keep the row order
-	 * Reorder the values inside a row and the missing properties values with an empty string
+	 * <p>The link keys form a tree: a row is issued for each leaf, with the values of the fragments of the leaf and of
+	 * all its ancestors, the deepest values first. The rows are issued in one depth-first pass over the tree, in the
+	 * navigation order, so the time is linear in the size of the fragments and of the rows.</p>
+	 * The values inside a row are ordered by property, and the missing properties values are empty strings.
 	 *
 	 * @param rowValuesMap The result map issued from the XML parsing
 	 * @param totalProperties the total number of properties
 	 * @return The list of values list
 	 */
 	public static List<List<String>> arrange(
-		final Map<String, Map<Integer, String>> rowValuesMap,
+		final Map<LinkKey, RowValues> rowValuesMap,
 		final int totalProperties
 	) {
 		// if there's no map return empty list
@@ -57,176 +55,80 @@ public class ResultHandler {
 			return new ArrayList<>();
 		}
 
-		// Recursively Link and merge the rows fragments and keep the row order.
-		final List<Map<Integer, String>> linkedRows = recursiveLinkAndMergeRows(rowValuesMap);
+		// The roots of the link keys, in the navigation order
+		final Set<LinkKey> roots = new LinkedHashSet<>();
+		rowValuesMap.keySet().forEach(linkKey -> roots.add(linkKey.getAncestor(0)));
 
-		// Reorder the values inside a row and the missing properties values with an empty string
-		return linkedRows.stream().map(values -> getValueData(values, totalProperties)).collect(Collectors.toList());
-	}
+		final RowAssembler rowAssembler = new RowAssembler(rowValuesMap, totalProperties);
+		roots.forEach(rowAssembler::assemble);
 
-	static List<String> getValueData(final Map<Integer, String> values, final int totalProperties) {
-		return values.containsKey(ROOT_TAG_NOT_FOUND)
-			? new ArrayList<>()
-			: IntStream
-				.range(0, totalProperties)
-				.boxed()
-				.map(id -> values.getOrDefault(id, Utils.EMPTY))
-				.collect(Collectors.toList());
+		return rowAssembler.rows;
 	}
 
-	private static List<Map<Integer, String>> recursiveLinkAndMergeRows(
-		final Map<String, Map<Integer, String>> rowValuesMap
-	) {
-		// 	For example this rowValuesMap for start :
-
-		// 	linkKey = "1fb7505"	,											row values map = {0=Linux, 1=User}
-		// 	linkKey = "1fb7505=>82e176f9",							row values map = {1=User, 2=Vol1, 3=600, 4=Disk1, 5=1000, 6=500}
-		// 	linkKey = "1fb7505=>fa67f9d8",							row values map = {1=User, 4=Disk2, 5=2000, 6=750}
-		// 	linkKey = "1fb7505=>62dc3ae1",							row values map = {1=User, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "1fb7505=>62dc3ae1=>69442fb2",		row values map = {1=User, 2=Vol3.0, 3=3000, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "1fb7505=>62dc3ae1=>39622424",	row values map = {1=User, 2=Vol3.1, 3=3100, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = " 1fb7505=>62dc3ae1=>bc8a4630",	row values map = {1=User, 2=Vol3.2, 3=3200, 4=Disk3, 5=2900, 6=1500}
-
-		// All the rows which linKey doesn't contain a link separator.
-		// in our example firstLevelMap would contain only the first record.
-		// 	linkKey = "1fb7505" , row values map = {0=Linux, 1=User}
-		final Map<String, Map<Integer, String>> firstLevelMap = rowValuesMap
-			.entrySet()
-			.stream()
-			.filter(entry -> !entry.getKey().contains(LINK_SEPARATOR))
-			.collect(Collectors.toMap(Entry::getKey, Entry::getValue, (oldValue, newValue) -> oldValue, LinkedHashMap::new));
-
-		// if there's no first level left (like a final array), remove the first linkKey part for all the keys.
-		if (firstLevelMap.isEmpty()) {
-			final Map<String, Map<Integer, String>> rowValuesMapWithoutFirstLinks = rowValuesMap
-				.entrySet()
-				.stream()
-				.collect(
-					Collectors.toMap(
-						entry -> removeFirstLinkPart(entry.getKey()),
-						Entry::getValue,
-						(oldValue, newValue) -> oldValue,
-						LinkedHashMap::new
-					)
-				);
-
-			return recursiveLinkAndMergeRows(rowValuesMapWithoutFirstLinks);
+	/**
+	 * Depth-first assembly of the rows of a link key tree.
+	 */
+	private static class RowAssembler {
+
+		private final Map<LinkKey, RowValues> rowValuesMap;
+		private final List<List<String>> rows = new ArrayList<>();
+
+		// The values of the current branch: set when entering a fragment, restored when leaving it
+		private final String[] values;
+		private int rootTagNotFound;
+
+		private RowAssembler(final Map<LinkKey, RowValues> rowValuesMap, final int totalProperties) {
+			this.rowValuesMap = rowValuesMap;
+			this.values = new String[totalProperties];
+			Arrays.fill(values, Utils.EMPTY);
 		}
 
-		// All the rows which linKey contains a link separator
-		// in our example remainingMap would contain the others records.
-		// 	linkKey = "1fb7505=>82e176f9",							row values map = {1=User, 2=Vol1, 3=600, 4=Disk1, 5=1000, 6=500}
-		// 	linkKey = "1fb7505=>fa67f9d8",							row values map = {1=User, 4=Disk2, 5=2000, 6=750}
-		// 	linkKey = "1fb7505=>62dc3ae1",							row values map = {1=User, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "1fb7505=>62dc3ae1=>69442fb2",		row values map = {1=User, 2=Vol3.0, 3=3000, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "1fb7505=>62dc3ae1=>39622424",	row values map = {1=User, 2=Vol3.1, 3=3100, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = " 1fb7505=>62dc3ae1=>bc8a4630",	row values map = {1=User, 2=Vol3.2, 3=3200, 4=Disk3, 5=2900, 6=1500}
-		final Map<String, Map<Integer, String>> remainingMap = rowValuesMap
-			.entrySet()
-			.stream()
-			.filter(entry -> entry.getKey().contains(LINK_SEPARATOR))
-			.collect(Collectors.toMap(Entry::getKey, Entry::getValue, (oldValue, newValue) -> oldValue, LinkedHashMap::new));
-
-		// if there's only first keys, end the recursion and return the list of values maps
-		return remainingMap.isEmpty()
-			? firstLevelMap.entrySet().stream().map(Entry::getValue).collect(Collectors.toList())
-			// It's not the most straight way to create the list but the
-			// reason is to keep the order in the map of the values to the List.
-			// No more remaining map, return rows value list without the link keys.
-			: recursiveLinkAndMergeRows(linkAndMergeRowMap(firstLevelMap, remainingMap)); // merge the remaining keys with the first levels.
-	}
+		private void assemble(final LinkKey linkKey) {
+			final RowValues fragment = rowValuesMap.get(linkKey);
+			final String[] previousValues = enter(fragment);
 
-	static Map<String, Map<Integer, String>> linkAndMergeRowMap(
-		final Map<String, Map<Integer, String>> firstLevelMap,
-		final Map<String, Map<Integer, String>> remainingMap
-	) {
-		// In our example:
-
-		// firstLevelMap:
-		// 	linkKey = "1fb7505" , row values map = {0=Linux, 1=User}
-
-		// remainingMap
-		// 	linkKey = "1fb7505=>82e176f9",							row values map = {1=User, 2=Vol1, 3=600, 4=Disk1, 5=1000, 6=500}
-		// 	linkKey = "1fb7505=>fa67f9d8",							row values map = {1=User, 4=Disk2, 5=2000, 6=750}
-		// 	linkKey = "1fb7505=>62dc3ae1",							row values map = {1=User, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "1fb7505=>62dc3ae1=>69442fb2",		row values map = {1=User, 2=Vol3.0, 3=3000, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "1fb7505=>62dc3ae1=>39622424",	row values map = {1=User, 2=Vol3.1, 3=3100, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = " 1fb7505=>62dc3ae1=>bc8a4630",	row values map = {1=User, 2=Vol3.2, 3=3200, 4=Disk3, 5=2900, 6=1500}
-
-		// firstLevelMap merged in remainingMap would return:
-		// 	linkKey = "82e176f9",						row values map = {0=Linux, 1=User, 2=Vol1, 3=600, 4=Disk1, 5=1000, 6=500}
-		// 	linkKey = "fa67f9d8",							row values map = {0=Linux, 1=User, 4=Disk2, 5=2000, 6=750}
-		// 	linkKey = "62dc3ae1",						row values map = {0=Linux, 1=User, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "62dc3ae1=>69442fb2",	row values map = {0=Linux, 1=User, 2=Vol3.0, 3=3000, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "62dc3ae1=>39622424",	row values map = {0=Linux, 1=User, 2=Vol3.1, 3=3100, 4=Disk3, 5=2900, 6=1500}
-		// 	linkKey = "62dc3ae1=>bc8a4630",	row values map = {0=Linux, 1=User, 2=Vol3.2, 3=3200, 4=Disk3, 5=2900, 6=1500}
-
-		final Map<String, Map<Integer, String>> result = new LinkedHashMap<>();
-		final Set<String> sharedLinks = new HashSet<>();
-
-		// for each first level linkKey update all the related next linkKeys with
-		// removing the first linkKey part of the key and merging the rows maps.
-		firstLevelMap.forEach((key, value) -> {
-			final List<Entry<String, Map<Integer, String>>> shared = remainingMap
-				.entrySet()
-				.stream()
-				.filter(entry -> entry.getKey().startsWith(key))
-				.collect(Collectors.toList());
-
-			final Map<String, Map<Integer, String>> remainingMerged = shared
-				.stream()
-				.filter(entry -> entry.getKey().startsWith(key))
-				.collect(
-					Collectors.toMap(
-						// remove the key and the unique linkKey part in to the new LinkKey
-						entry -> entry.getKey().substring(key.length() + LINK_SEPARATOR.length()),
-						// merge the row map.
-						entry ->
-							Stream
-								.concat(entry.getValue().entrySet().stream(), value.entrySet().stream())
-								.collect(Collectors.toMap(Entry::getKey, Entry::getValue, (oldValue, newValue) -> oldValue)),
-						(oldValue, newValue) -> oldValue,
-						LinkedHashMap::new
-					)
-				);
-
-			if (remainingMerged.isEmpty()) {
-				result.put(key, value);
+			final List<LinkKey> children = linkKey.getChildren();
+			if (children.isEmpty()) {
+				rows.add(rootTagNotFound > 0 ? new ArrayList<>() : new ArrayList<>(Arrays.asList(values)));
 			} else {
-				sharedLinks.addAll(shared.stream().map(Entry::getKey).collect(Collectors.toSet()));
-				result.putAll(remainingMerged);
+				children.forEach(this::assemble);
 			}
-		});
-
-		// Remove the first links level to all all the links left that hasn't been merged into firstLink before
-		// and add them to the result.
-		final Map<String, Map<Integer, String>> remainingMapAfterMerged = remainingMap
-			.entrySet()
-			.stream()
-			.filter(entry -> !sharedLinks.contains(entry.getKey()))
-			.collect(
-				Collectors.toMap(
-					entry -> removeFirstLinkPart(entry.getKey()),
-					Entry::getValue,
-					(oldValue, newValue) -> oldValue,
-					LinkedHashMap::new
-				)
-			);
-		if (!remainingMapAfterMerged.isEmpty()) {
-			result.putAll(remainingMapAfterMerged);
+
+			leave(fragment, previousValues);
 		}
 
-		return result;
-	}
+		/**
+		 * Set the values of the fragment in the current branch.
+		 *
+		 * @param fragment The fragment values, or null if no fragment is stored for the link key
+		 * @return The overridden values, to be restored when leaving the fragment
+		 */
+		private String[] enter(final RowValues fragment) {
+			if (fragment == null) {
+				return null;
+			}
 
-	static String removeFirstLinkPart(final String link) {
-		if (Utils.isBlank(link)) {
-			return link;
+			if (fragment.isRootTagNotFound()) {
+				rootTagNotFound++;
+			}
+			return fragment.apply(values);
 		}
-		final int indexOfLinkSeparator = link.indexOf(LINK_SEPARATOR);
-		if (indexOfLinkSeparator == -1) {
-			return link;
+
+		/**
+		 * Restore the values overridden by the fragment.
+		 *
+		 * @param fragment The fragment values, or null if no fragment is stored for the link key
+		 * @param previousValues The values overridden when entering the fragment
+		 */
+		private void leave(final RowValues fragment, final String[] previousValues) {
+			if (fragment == null) {
+				return;
+			}
+
+			if (fragment.isRootTagNotFound()) {
+				rootTagNotFound--;
+			}
+			fragment.restore(values, previousValues);
 		}
-		return link.substring(indexOfLinkSeparator + LINK_SEPARATOR.length());
 	}
 }
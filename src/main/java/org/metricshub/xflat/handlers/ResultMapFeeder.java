@@ -0,0 +1,331 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.metricshub.xflat.Utils;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+import org.w3c.dom.Element;
+
+/**
+ * <p>Incremental parsing of a XML fed by chunks of bytes, like the ones received from a non-blocking socket.</p>
+ * <p>Each chunk is decoded and read as soon as it is fed, and the result map of each branch element is available
+ * once the branch element is complete, like with a {@link ResultMapIterator}. Feeding a chunk never blocks: an
+ * incomplete character, markup or text is kept until the next chunks complete it.</p>
+ * <p>The reading stops at the first complete branch element, and goes on when its result map is polled: whatever
+ * the number of branch elements of a chunk, a single result map is pending, unless an entity reference expands to
+ * several branch elements. The characters not read yet are kept, so the memory is bounded by the size of the chunks
+ * fed before polling.</p>
+ * <p>The encoding is detected from the first bytes like the XML parsers do: byte order mark, UTF-16 start of the
+ * XML declaration, or encoding declaration. The given charset is only used when none of them is found.</p>
+ * <p>If the XML has no root element, a single result map is available at the end of the input, like
+ * {@link XmlHandler#parse}.</p>
+ */
+public class ResultMapFeeder {
+
+	private static final Pattern ENCODING_DECLARATION = Pattern.compile(
+		"\\sencoding\\s*=\\s*[\"']([A-Za-z][A-Za-z0-9._-]*)[\"']"
+	);
+
+	private final SearchPathAutomaton automaton;
+	private final MatchedDocumentBuilder builder;
+	private final XmlFeedReader reader;
+	private final Charset defaultCharset;
+	private CharsetDecoder decoder;
+	private final Queue<Map<LinkKey, RowValues>> resultMaps = new ArrayDeque<>();
+	private ByteBuffer remainingBytes;
+	private CharBuffer chars = CharBuffer.allocate(0);
+	private boolean rootElementFound;
+	private boolean ended;
+	private boolean finished;
+
+	private ResultMapFeeder(final SearchPathAutomaton automaton, final Charset charset) throws XFlatException {
+		this.automaton = automaton;
+		try {
+			this.builder = new MatchedDocumentBuilder(automaton, XmlHandler.createDocument(), this::branchElementEnded);
+		} catch (final Exception e) {
+			throw new XFlatException("Error in parsing xml.", e);
+		}
+		this.reader = new XmlFeedReader(builder, () -> !resultMaps.isEmpty());
+		this.defaultCharset = charset;
+	}
+
+	/**
+	 * Create a feeder of a XML following the search path automaton.
+	 *
+	 * @param automaton The compiled search path tree. (Mandatory)
+	 * @param charset The encoding of the XML bytes without byte order mark nor encoding declaration. (Mandatory)
+	 * @return The feeder, waiting for the first bytes
+	 * @throws XFlatException if the reduced document cannot be created
+	 */
+	public static ResultMapFeeder create(final SearchPathAutomaton automaton, final Charset charset)
+		throws XFlatException {
+		Utils.checkNonNull(automaton, "automaton");
+		Utils.checkNonNull(charset, "charset");
+
+		return new ResultMapFeeder(automaton, charset);
+	}
+
+	/**
+	 * Feed the next bytes of the XML, read until the first complete branch element. All the remaining bytes of the
+	 * buffer are consumed.
+	 *
+	 * @param bytes The next bytes. (Mandatory)
+	 * @throws XFlatException for error in parsing
+	 */
+	public void feed(final ByteBuffer bytes) throws XFlatException {
+		Utils.checkNonNull(bytes, "bytes");
+		if (ended) {
+			throw new IllegalStateException("The end of input has already been fed.");
+		}
+
+		final ByteBuffer input;
+		if (remainingBytes == null) {
+			input = bytes;
+		} else {
+			// The bytes of a character cut by the previous chunk
+			input = ByteBuffer.allocate(remainingBytes.remaining() + bytes.remaining());
+			input.put(remainingBytes).put(bytes).flip();
+		}
+
+		if (decoder == null) {
+			final Charset charset = detectCharset(input, false);
+			if (charset == null) {
+				// Not enough bytes to tell the encoding yet
+				remainingBytes = ByteBuffer.allocate(input.remaining()).put(input);
+				remainingBytes.flip();
+				bytes.position(bytes.limit());
+				return;
+			}
+			decoder = newDecoder(charset);
+		}
+
+		decode(input, false);
+		remainingBytes = input.hasRemaining() ? ByteBuffer.allocate(input.remaining()).put(input) : null;
+		if (remainingBytes != null) {
+			remainingBytes.flip();
+		}
+		bytes.position(bytes.limit());
+	}
+
+	/**
+	 * End the XML. The result map of a XML without any root element is then available. If a result map is pending,
+	 * the end of the XML is only checked once all the result maps are polled.
+	 *
+	 * @throws XFlatException for error in parsing, if the XML is not complete
+	 */
+	public void endOfInput() throws XFlatException {
+		if (ended) {
+			return;
+		}
+		ended = true;
+
+		final ByteBuffer input = remainingBytes == null ? ByteBuffer.allocate(0) : remainingBytes;
+		if (decoder == null) {
+			decoder = newDecoder(detectCharset(input, true));
+		}
+		decode(input, true);
+		remainingBytes = null;
+		resume();
+	}
+
+	/**
+	 * Poll the result map of the next complete branch element, reading the characters kept since the previous one.
+	 *
+	 * @return The result map, or null if none is complete yet
+	 * @throws XFlatException for error in parsing
+	 */
+	public Map<LinkKey, RowValues> poll() throws XFlatException {
+		if (resultMaps.isEmpty()) {
+			resume();
+		}
+		return resultMaps.poll();
+	}
+
+	/**
+	 * @return The number of result maps ready to be polled: one at most, unless an entity reference expands to
+	 * several branch elements
+	 */
+	public int getPendingResultMapCount() {
+		return resultMaps.size();
+	}
+
+	/**
+	 * @return Whether the end of input has been fed
+	 */
+	public boolean isEnded() {
+		return ended;
+	}
+
+	/**
+	 * Resume the reading of the kept characters, and check the end of the XML once they are all read.
+	 */
+	private void resume() throws XFlatException {
+		try {
+			reader.resume();
+			if (ended && !finished && !reader.isSuspended()) {
+				finished = true;
+				reader.end();
+				if (!rootElementFound) {
+					resultMaps.add(ResultMapIterator.navigateDocument(automaton, builder.getDocument()));
+				}
+			}
+		} catch (final XFlatRunTimeException e) {
+			throw new XFlatException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Detect the encoding of the XML from its first bytes.
+	 *
+	 * @param input The first bytes, not consumed
+	 * @param endOfInput Whether no more bytes will come
+	 * @return The charset, or null if more bytes are needed to tell it
+	 * @throws XFlatException if the declared encoding is not supported
+	 */
+	private Charset detectCharset(final ByteBuffer input, final boolean endOfInput) throws XFlatException {
+		final int[][] signatures = {
+			{ 0xFE, 0xFF },
+			{ 0x00, '<', 0x00, '?' },
+			{ 0xFF, 0xFE },
+			{ '<', 0x00, '?', 0x00 },
+			{ 0xEF, 0xBB, 0xBF },
+			{ '<', '?', 'x', 'm', 'l' }
+		};
+		final Charset[] charsets = {
+			StandardCharsets.UTF_16BE,
+			StandardCharsets.UTF_16BE,
+			StandardCharsets.UTF_16LE,
+			StandardCharsets.UTF_16LE,
+			StandardCharsets.UTF_8,
+			null
+		};
+
+		boolean incomplete = false;
+		for (int i = 0; i < signatures.length; i++) {
+			final int match = match(input, signatures[i]);
+			if (match > 0) {
+				return charsets[i] != null ? charsets[i] : declaredCharset(input, endOfInput);
+			}
+			incomplete |= match == 0;
+		}
+		return incomplete && !endOfInput ? null : defaultCharset;
+	}
+
+	/**
+	 * @return 1 if the bytes start with the signature, 0 if they may start with it once complete, -1 if they don't
+	 */
+	private static int match(final ByteBuffer input, final int[] signature) {
+		for (int i = 0; i < signature.length; i++) {
+			if (input.position() + i == input.limit()) {
+				return 0;
+			}
+			if ((input.get(input.position() + i) & 0xFF) != signature[i]) {
+				return -1;
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Read the encoding of the XML declaration starting the bytes, in an ASCII compatible encoding.
+	 *
+	 * @return The declared charset, the default one if none is declared, or null if the declaration is not complete
+	 * @throws XFlatException if the declared encoding is not supported
+	 */
+	private Charset declaredCharset(final ByteBuffer input, final boolean endOfInput) throws XFlatException {
+		for (int i = input.position(); i < input.limit(); i++) {
+			if (input.get(i) == '>') {
+				final byte[] declaration = new byte[i - input.position()];
+				input.duplicate().get(declaration);
+				final Matcher matcher = ENCODING_DECLARATION.matcher(new String(declaration, StandardCharsets.ISO_8859_1));
+				if (!matcher.find()) {
+					return defaultCharset;
+				}
+				try {
+					return Charset.forName(matcher.group(1));
+				} catch (final IllegalArgumentException e) {
+					throw new XFlatException("Error in parsing xml: unsupported encoding " + matcher.group(1) + ".", e);
+				}
+			}
+		}
+		return endOfInput ? defaultCharset : null;
+	}
+
+	private static CharsetDecoder newDecoder(final Charset charset) {
+		return charset
+			.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPORT)
+			.onUnmappableCharacter(CodingErrorAction.REPORT);
+	}
+
+	private void decode(final ByteBuffer input, final boolean endOfInput) throws XFlatException {
+		try {
+			CoderResult result;
+			do {
+				final int capacity = (int) Math.ceil(input.remaining() * (double) decoder.maxCharsPerByte()) + 1;
+				if (chars.capacity() < capacity) {
+					chars = CharBuffer.allocate(capacity);
+				}
+				result = decoder.decode(input, chars, endOfInput);
+				if (endOfInput && result.isUnderflow()) {
+					result = decoder.flush(chars);
+				}
+				if (result.isError()) {
+					result.throwException();
+				}
+				chars.flip();
+				reader.read(chars);
+				chars.clear();
+			} while (result.isOverflow());
+		} catch (final CharacterCodingException e) {
+			throw new XFlatException("Error in parsing xml.", e);
+		} catch (final XFlatRunTimeException e) {
+			throw new XFlatException(e.getMessage(), e);
+		}
+	}
+
+	private void branchElementEnded(final Element element, final int branchDepth, final boolean branchesEnded) {
+		rootElementFound |= branchDepth == 0;
+		final Map<LinkKey, RowValues> resultMap = ResultMapIterator.navigateBranchElement(
+			automaton,
+			element,
+			branchDepth,
+			branchesEnded
+		);
+		if (!resultMap.isEmpty()) {
+			resultMaps.add(resultMap);
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+import org.metricshub.xflat.types.SearchPathElementAttribute;
+import org.metricshub.xflat.types.SearchPathNode;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * <p>Iterator over the result maps of each branch element of a XML read with a StAX reader.</p>
+ * <p>The branch elements are the elements matched by the last node of the branch path of the automaton: the
+ * repeated elements under a root tag like {@code /Document/Disks/Disk}. The XML is only read until the next
+ * branch element is complete. Each branch element is then navigated with the attributes of its ancestors, and
+ * dropped, so the memory is bounded by the largest branch element, not by the whole document. An element of the
+ * branch path without any branch element, like a root element whose branch is missing, is navigated as a whole when
+ * it ends. The root elements nested in an outermost root element follow it, in the document order.</p>
+ * <p>If the XML has no root element, a single result map is returned, like {@link XmlHandler#parse}.</p>
+ */
+public class ResultMapIterator implements Iterator<Map<LinkKey, RowValues>>, Closeable {
+
+	private static final String ANY_TAG = "*";
+
+	private final XMLStreamReader streamReader;
+	private final SearchPathAutomaton automaton;
+	private final MatchedDocumentBuilder builder;
+	private final Queue<Map<LinkKey, RowValues>> resultMaps = new ArrayDeque<>();
+	private boolean rootElementFound;
+	private boolean ended;
+
+	ResultMapIterator(final XMLStreamReader streamReader, final SearchPathAutomaton automaton, final Document document) {
+		this.streamReader = streamReader;
+		this.automaton = automaton;
+		this.builder = new MatchedDocumentBuilder(automaton, document, this::branchElementEnded);
+	}
+
+	private void branchElementEnded(final Element element, final int branchDepth, final boolean branchesEnded) {
+		rootElementFound |= branchDepth == 0;
+		final Map<LinkKey, RowValues> resultMap = navigateBranchElement(automaton, element, branchDepth, branchesEnded);
+		if (!resultMap.isEmpty()) {
+			resultMaps.add(resultMap);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			while (resultMaps.isEmpty() && streamReader.hasNext()) {
+				XmlStreamHandler.readEvent(streamReader, builder);
+			}
+		} catch (final XMLStreamException e) {
+			throw new XFlatRunTimeException("Error in parsing xml.", e);
+		}
+
+		return !resultMaps.isEmpty() || (!rootElementFound && !ended);
+	}
+
+	@Override
+	public Map<LinkKey, RowValues> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		final Map<LinkKey, RowValues> resultMap = resultMaps.poll();
+		if (resultMap == null) {
+			// No root element in the whole document
+			ended = true;
+			return navigateDocument(automaton, builder.getDocument());
+		}
+
+		return resultMap;
+	}
+
+	/**
+	 * Navigate a document without any root element.
+	 *
+	 * @param automaton The automaton compiled from the search path tree
+	 * @param document The reduced document
+	 * @return The result map of the document
+	 */
+	static Map<LinkKey, RowValues> navigateDocument(
+		final SearchPathAutomaton automaton,
+		final Document document
+	) {
+		final XmlHandler xmlHandler = XmlHandler.createXmlHandlerInstance(automaton);
+		xmlHandler.initNavigation(automaton.getSearchPathNode(), document);
+		return xmlHandler.getResultMap();
+	}
+
+	/**
+	 * Navigate a complete element of the branch path, then drop it from its document. The root elements nested in an
+	 * outermost root element are navigated after it, the ones nested in a deeper element are moved in its place to be
+	 * navigated with their outermost root element, like in the DOM path.
+	 *
+	 * @param automaton The automaton compiled from the search path tree
+	 * @param element The element of the branch path
+	 * @param branchDepth The index of its node in the branch path, 0 for an outermost root element
+	 * @param branchesEnded Whether its branch elements are already navigated, so only its nested root elements are
+	 * @return The result map of the element, empty if there is nothing left to navigate
+	 */
+	static Map<LinkKey, RowValues> navigateBranchElement(
+		final SearchPathAutomaton automaton,
+		final Element element,
+		final int branchDepth,
+		final boolean branchesEnded
+	) {
+		final XmlHandler xmlHandler = XmlHandler.createXmlHandlerInstance(automaton);
+		final SearchPathNode searchPathNode = automaton.getSearchPathNode();
+		final String rootName = searchPathNode.getElement().getName();
+
+		if (!branchesEnded) {
+			// The ancestors on the branch path only have attributes to carry down to the element
+			final List<SearchPathNode> branchPath = automaton.getBranchPath();
+			final RowValues rowValues = xmlHandler.createRowValues();
+			Node ancestor = element.getParentNode();
+			for (int depth = branchDepth - 1; depth >= 0; depth--) {
+				putAttributes(branchPath.get(depth), (Element) ancestor, rowValues);
+				ancestor = ancestor.getParentNode();
+			}
+			xmlHandler.navigateNext(branchPath.get(branchDepth), element, xmlHandler.generateUniqueLinkKey(), rowValues);
+		}
+
+		if (branchDepth == 0) {
+			// The root elements nested in it, in the document order
+			final NodeList nestedRootElements = element.getElementsByTagName(rootName);
+			for (int i = 0; i < nestedRootElements.getLength(); i++) {
+				navigateRootElement(xmlHandler, searchPathNode, (Element) nestedRootElements.item(i));
+			}
+		} else {
+			moveNestedRootElements(element, rootName, element);
+		}
+
+		// Drop the navigated element
+		element.getParentNode().removeChild(element);
+
+		return xmlHandler.getResultMap();
+	}
+
+	/**
+	 * Move the outermost root elements nested in an element before the branch element containing it.
+	 *
+	 * @param element The element whose descendants are searched
+	 * @param rootName The name of the root elements
+	 * @param branchElement The branch element about to be dropped
+	 */
+	private static void moveNestedRootElements(
+		final Element element,
+		final String rootName,
+		final Element branchElement
+	) {
+		Node child = element.getFirstChild();
+		while (child != null) {
+			final Node nextSibling = child.getNextSibling();
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+				if (ANY_TAG.equals(rootName) || rootName.equals(child.getNodeName())) {
+					branchElement.getParentNode().insertBefore(child, branchElement);
+				} else {
+					moveNestedRootElements((Element) child, rootName, branchElement);
+				}
+			}
+			child = nextSibling;
+		}
+	}
+
+	private static void putAttributes(
+		final SearchPathNode searchPathNode,
+		final Element element,
+		final RowValues rowValues
+	) {
+		for (final SearchPathNode next : searchPathNode.getNexts()) {
+			if (next.getElement() instanceof SearchPathElementAttribute) {
+				final Attr attr = element.getAttributeNode(next.getElement().getName());
+				rowValues.put(((SearchPathElementAttribute) next.getElement()).getId(), attr != null ? attr.getValue() : null);
+			}
+		}
+	}
+
+	private static void navigateRootElement(
+		final XmlHandler xmlHandler,
+		final SearchPathNode searchPathNode,
+		final Element rootElement
+	) {
+		xmlHandler.navigateNext(
+			searchPathNode,
+			rootElement,
+			xmlHandler.generateUniqueLinkKey(),
+			xmlHandler.createRowValues()
+		);
+	}
+
+	@Override
+	public void close() {
+		ended = true;
+		resultMaps.clear();
+		try {
+			streamReader.close();
+		} catch (final XMLStreamException e) {
+			throw new XFlatRunTimeException("Error in closing xml.", e);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * <p>Values of a row fragment, indexed by property id.</p>
+ * <p>The values are held in a fixed-width array sized from the number of properties, with a bitset telling which
+ * properties are set. A property set to null (missing attribute) is present with a null value. The first slot is
+ * the root tag not found marker.</p>
+ */
+public final class RowValues {
+
+	// Slot of a property id: the root tag not found marker (-1) is the first slot
+	private static final int OFFSET = -ResultHandler.ROOT_TAG_NOT_FOUND;
+
+	private String[] values;
+	private final BitSet present;
+
+	/**
+	 * Create empty row values.
+	 *
+	 * @param columnCount The number of properties
+	 */
+	public RowValues(final int columnCount) {
+		this.values = new String[columnCount + OFFSET];
+		this.present = new BitSet(values.length);
+	}
+
+	private RowValues(final String[] values, final BitSet present) {
+		this.values = values;
+		this.present = present;
+	}
+
+	/**
+	 * Set the value of a property.
+	 *
+	 * @param id The property id, or {@link ResultHandler#ROOT_TAG_NOT_FOUND}
+	 * @param value The value, null for a missing attribute
+	 */
+	public void put(final int id, final String value) {
+		final int slot = id + OFFSET;
+		if (slot >= values.length) {
+			values = Arrays.copyOf(values, slot + 1);
+		}
+		values[slot] = value;
+		present.set(slot);
+	}
+
+	/**
+	 * @param id The property id
+	 * @return Whether the property is set
+	 */
+	public boolean containsKey(final int id) {
+		return present.get(id + OFFSET);
+	}
+
+	/**
+	 * @param id The property id
+	 * @return The value of the property, or null if it is not set
+	 */
+	public String get(final int id) {
+		final int slot = id + OFFSET;
+		return slot < values.length ? values[slot] : null;
+	}
+
+	/**
+	 * @return Whether the root tag has not been found
+	 */
+	public boolean isRootTagNotFound() {
+		return containsKey(ResultHandler.ROOT_TAG_NOT_FOUND);
+	}
+
+	/**
+	 * @return The number of properties which are set, the root tag not found marker included
+	 */
+	public int size() {
+		return present.cardinality();
+	}
+
+	/**
+	 * Create the merge of these row values with other ones.
+	 *
+	 * @param other The other row values
+	 * @return New row values with these values, and the other values of the properties not set in these ones
+	 */
+	RowValues merge(final RowValues other) {
+		final RowValues merged = new RowValues(
+			Arrays.copyOf(values, Math.max(values.length, other.values.length)),
+			(BitSet) present.clone()
+		);
+		for (int slot = other.present.nextSetBit(0); slot >= 0; slot = other.present.nextSetBit(slot + 1)) {
+			if (!present.get(slot)) {
+				merged.values[slot] = other.values[slot];
+				merged.present.set(slot);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Override the values of the branch with the values which are set, and save the overridden ones.
+	 *
+	 * @param branchValues The values of the branch, indexed by property id
+	 * @return The overridden values of the branch, to be restored by {@link #restore(String[], String[])}
+	 */
+	String[] apply(final String[] branchValues) {
+		final String[] previousValues = new String[present.cardinality()];
+		int index = 0;
+		for (int slot = present.nextSetBit(OFFSET); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+			final int id = slot - OFFSET;
+			if (id < branchValues.length) {
+				previousValues[index] = branchValues[id];
+				branchValues[id] = values[slot];
+			}
+			index++;
+		}
+		return previousValues;
+	}
+
+	/**
+	 * Restore the values of the branch overridden by {@link #apply(String[])}.
+	 *
+	 * @param branchValues The values of the branch, indexed by property id
+	 * @param previousValues The overridden values
+	 */
+	void restore(final String[] branchValues, final String[] previousValues) {
+		int index = 0;
+		for (int slot = present.nextSetBit(OFFSET); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+			final int id = slot - OFFSET;
+			if (id < branchValues.length) {
+				branchValues[id] = previousValues[index];
+			}
+			index++;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int result = present.hashCode();
+		for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+			result = 31 * result + (values[slot] == null ? 0 : values[slot].hashCode());
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof RowValues)) {
+			return false;
+		}
+		final RowValues other = (RowValues) obj;
+		if (!present.equals(other.present)) {
+			return false;
+		}
+		for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+			if (!Objects.equals(values[slot], other.values[slot])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("RowValues {");
+		for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+			if (builder.length() > "RowValues {".length()) {
+				builder.append(", ");
+			}
+			builder.append(slot - OFFSET).append('=').append(values[slot]);
+		}
+		return builder.append('}').toString();
+	}
+}
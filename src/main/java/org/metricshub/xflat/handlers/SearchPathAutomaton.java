@@ -0,0 +1,303 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.metricshub.xflat.Utils;
+import org.metricshub.xflat.types.SearchPathElement;
+import org.metricshub.xflat.types.SearchPathElementAttribute;
+import org.metricshub.xflat.types.SearchPathElementProperty;
+import org.metricshub.xflat.types.SearchPathNode;
+
+/**
+ * <p>Matching automaton compiled from a search path tree.</p>
+ * <p>Each state is the set of search path nodes matched by an XML element. The transitions on the element names
+ * of the search path tree are computed once, the first time they are met, then looked up in the state table. The
+ * other names all lead to the same state without being added to the table, so that documents with open-ended
+ * element names do not grow the table of a long-lived automaton.
+ * The root search path node is matched at any depth, like getElementsByTagName does in the DOM path.</p>
+ * <p>The branch path goes down from the root search path node as long as a node searches one element only, which is
+ * not a property, and nothing else but attributes. The values of the ancestors of the last node of the branch path
+ * are therefore known as soon as they start, so the elements matched by this last node can be navigated one by one,
+ * as soon as each one ends.</p>
+ * <p>The automaton is thread-safe and can be shared between parsers using the same search path tree.</p>
+ */
+public final class SearchPathAutomaton {
+
+	private static final String ANY_TAG = "*";
+
+	private final SearchPathNode rootSearchPathNode;
+	private final String rootName;
+	private final int columnCount;
+	private final State initialState;
+	private final Set<String> elementNames;
+	private final State unknownElementState;
+	private final List<SearchPathNode> branchPath;
+	private final ParallelNavigation parallelNavigation;
+
+	/**
+	 * Compile the search path tree into a matching automaton.
+	 *
+	 * @param rootSearchPathNode The first node of the search path tree. (Mandatory)
+	 */
+	public SearchPathAutomaton(final SearchPathNode rootSearchPathNode) {
+		Utils.checkNonNull(rootSearchPathNode, "rootSearchPathNode");
+
+		this.rootSearchPathNode = rootSearchPathNode;
+		this.rootName = rootSearchPathNode.getElement().getName();
+		this.columnCount = SearchPathTreeHandler.getColumnCount(rootSearchPathNode);
+		this.initialState = new State(Collections.emptyList());
+		this.elementNames = new HashSet<>();
+		collectElementNames(rootSearchPathNode, elementNames);
+		this.unknownElementState =
+			ANY_TAG.equals(rootName) ? new State(Collections.singletonList(rootSearchPathNode)) : initialState;
+		this.branchPath = Collections.unmodifiableList(buildBranchPath(rootSearchPathNode));
+		this.parallelNavigation = null;
+	}
+
+	/**
+	 * Build the branch path, from the root search path node to the deepest node whose ancestors only search
+	 * attributes besides the next node of the path.
+	 *
+	 * @param rootSearchPathNode The first node of the search path tree
+	 * @return The nodes of the branch path, starting with the root search path node
+	 */
+	private static List<SearchPathNode> buildBranchPath(final SearchPathNode rootSearchPathNode) {
+		final List<SearchPathNode> path = new ArrayList<>();
+		SearchPathNode searchPathNode = rootSearchPathNode;
+		while (searchPathNode != null) {
+			path.add(searchPathNode);
+
+			SearchPathNode nextElement = null;
+			int elementCount = 0;
+			for (final SearchPathNode next : searchPathNode.getNexts()) {
+				if (!(next.getElement() instanceof SearchPathElementAttribute)) {
+					nextElement = next;
+					elementCount++;
+				}
+			}
+			searchPathNode =
+				elementCount == 1 && !(nextElement.getElement() instanceof SearchPathElementProperty) ? nextElement : null;
+		}
+		return path;
+	}
+
+	/**
+	 * Collect the names of the elements of a search path tree, without its attributes.
+	 *
+	 * @param searchPathNode The node of the search path tree
+	 * @param names The collected names
+	 */
+	private static void collectElementNames(final SearchPathNode searchPathNode, final Set<String> names) {
+		if (!(searchPathNode.getElement() instanceof SearchPathElementAttribute)) {
+			names.add(searchPathNode.getElement().getName());
+		}
+		for (final SearchPathNode next : searchPathNode.getNexts()) {
+			collectElementNames(next, names);
+		}
+	}
+
+	private SearchPathAutomaton(final SearchPathAutomaton automaton, final ParallelNavigation parallelNavigation) {
+		this.rootSearchPathNode = automaton.rootSearchPathNode;
+		this.rootName = automaton.rootName;
+		this.columnCount = automaton.columnCount;
+		this.initialState = automaton.initialState;
+		this.elementNames = automaton.elementNames;
+		this.unknownElementState = automaton.unknownElementState;
+		this.branchPath = automaton.branchPath;
+		this.parallelNavigation = parallelNavigation;
+	}
+
+	/**
+	 * Get the same automaton, sharing its states, with other navigation settings.
+	 *
+	 * @param parallelNavigation The settings of the parallel navigation, or null for a sequential navigation
+	 * @return The automaton with these navigation settings
+	 */
+	public SearchPathAutomaton withParallelNavigation(final ParallelNavigation parallelNavigation) {
+		return new SearchPathAutomaton(this, parallelNavigation);
+	}
+
+	/**
+	 * @return The settings of the parallel navigation, or null if the navigation is sequential
+	 */
+	public ParallelNavigation getParallelNavigation() {
+		return parallelNavigation;
+	}
+
+	/**
+	 * @return The first node of the compiled search path tree
+	 */
+	public SearchPathNode getSearchPathNode() {
+		return rootSearchPathNode;
+	}
+
+	/**
+	 * @return The nodes of the branch path, from the root search path node to the node of the repeated elements
+	 */
+	List<SearchPathNode> getBranchPath() {
+		return branchPath;
+	}
+
+	/**
+	 * @return The number of columns of the rows issued from the search path tree
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * @return The state of the document, before its first element
+	 */
+	State getInitialState() {
+		return initialState;
+	}
+
+	/**
+	 * A state of the automaton: the search path nodes matched by an element.
+	 */
+	final class State {
+
+		private final List<SearchPathNode> searchPathNodes;
+		private final String[] attributeNames;
+		private final boolean capture;
+		private final Map<String, State> transitions = new ConcurrentHashMap<>();
+
+		private State(final List<SearchPathNode> searchPathNodes) {
+			this.searchPathNodes = searchPathNodes;
+
+			final Set<String> names = new LinkedHashSet<>();
+			boolean isProperty = false;
+			for (final SearchPathNode searchPathNode : searchPathNodes) {
+				final SearchPathElement element = searchPathNode.getElement();
+				isProperty |=
+					element instanceof SearchPathElementProperty && !(element instanceof SearchPathElementAttribute);
+
+				for (final SearchPathNode next : searchPathNode.getNexts()) {
+					if (next.getElement() instanceof SearchPathElementAttribute) {
+						names.add(next.getElement().getName());
+					}
+				}
+			}
+			this.attributeNames = names.toArray(new String[0]);
+			this.capture = isProperty;
+		}
+
+		/**
+		 * Move to the state of a child element.
+		 *
+		 * @param name The child element name
+		 * @return The state of the child element
+		 */
+		State next(final String name) {
+			final State state = transitions.get(name);
+			if (state != null) {
+				return state;
+			}
+
+			// A name out of the search path tree only matches the root tag, when it is any tag
+			if (!elementNames.contains(name)) {
+				return unknownElementState;
+			}
+
+			return transitions.computeIfAbsent(name, this::compile);
+		}
+
+		private State compile(final String name) {
+			final List<SearchPathNode> nexts = new ArrayList<>();
+
+			for (final SearchPathNode searchPathNode : searchPathNodes) {
+				for (final SearchPathNode next : searchPathNode.getNexts()) {
+					final SearchPathElement element = next.getElement();
+					if (
+						!(element instanceof SearchPathElementAttribute) &&
+						name.equals(element.getName()) &&
+						!nexts.contains(next)
+					) {
+						nexts.add(next);
+					}
+				}
+			}
+
+			if ((ANY_TAG.equals(rootName) || rootName.equals(name)) && !nexts.contains(rootSearchPathNode)) {
+				nexts.add(rootSearchPathNode);
+			}
+
+			// All the unmatched elements share the initial state
+			return nexts.isEmpty() ? initialState : new State(nexts);
+		}
+
+		/**
+		 * @return The number of transitions computed from this state
+		 */
+		int getTransitionCount() {
+			return transitions.size();
+		}
+
+		/**
+		 * @return Whether the element is matched by at least one search path node
+		 */
+		boolean isMatched() {
+			return !searchPathNodes.isEmpty();
+		}
+
+		/**
+		 * @return Whether the element is matched by the root search path node
+		 */
+		boolean isRoot() {
+			return searchPathNodes.contains(rootSearchPathNode);
+		}
+
+		/**
+		 * @param searchPathNode A node of the search path tree
+		 * @return Whether the element is matched by this very node
+		 */
+		boolean isMatchedBy(final SearchPathNode searchPathNode) {
+			for (final SearchPathNode matched : searchPathNodes) {
+				if (matched == searchPathNode) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return Whether the element is matched as a property, so its text content must be kept
+		 */
+		boolean isCapture() {
+			return capture;
+		}
+
+		/**
+		 * @return The names of the attributes to keep on the element
+		 */
+		String[] getAttributeNames() {
+			return attributeNames;
+		}
+	}
+}
@@ -79,7 +79,7 @@ public class SearchPathTreeHandler {
 
 		final String root = new StringBuilder()
 			.append(SLASH)
-			.append(rootTag.replaceAll("\\s", Utils.EMPTY))
+			.append(Utils.removeWhiteSpaces(rootTag))
 			.append(SLASH)
 			.toString();
 
@@ -119,6 +119,28 @@ public class SearchPathTreeHandler {
 		}
 	}
 
+	/**
+	 * Get the number of columns of the rows issued from a search path tree: the highest property id plus one.
+	 *
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The number of columns
+	 */
+	public static int getColumnCount(final SearchPathNode searchPathNode) {
+		Utils.checkNonNull(searchPathNode, "searchPathNode");
+
+		int columnCount = 0;
+		final Deque<SearchPathNode> nodes = new LinkedList<>();
+		nodes.push(searchPathNode);
+		while (!nodes.isEmpty()) {
+			final SearchPathNode node = nodes.pop();
+			if (node.getElement() instanceof SearchPathElementProperty) {
+				columnCount = Math.max(columnCount, ((SearchPathElementProperty) node.getElement()).getId() + 1);
+			}
+			node.getNexts().forEach(nodes::push);
+		}
+		return columnCount;
+	}
+
 	/**
 	 * Build the search path elements for a property path.
 	 *
@@ -0,0 +1,63 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * <p>Scanning of the characters fed to the {@link XmlFeedReader}, for the few ones which need a check.</p>
+ * <p>On Java 21 and later, this class is replaced by its version of <code>src/main/java21</code>, which compares
+ * several characters at once with the Vector API.</p>
+ */
+final class XmlCharScanner {
+
+	private XmlCharScanner() {}
+
+	/**
+	 * Find the first character to check in the range: a control character, including the line ends and the
+	 * tabulations, a surrogate, or a character following the surrogates.
+	 *
+	 * @param chars The characters
+	 * @param from The index of the first character to scan
+	 * @param to The index following the last character to scan
+	 * @return The index of the first character below <code>0x20</code> or from <code>0xD800</code>, or
+	 * <code>to</code> if there is none
+	 */
+	static int indexOfCharToCheck(final char[] chars, final int from, final int to) {
+		return scan(chars, from, to);
+	}
+
+	/**
+	 * Compare the characters one by one.
+	 *
+	 * @param chars The characters
+	 * @param from The index of the first character to scan
+	 * @param to The index following the last character to scan
+	 * @return The index of the first character to check, or <code>to</code> if there is none
+	 */
+	static int scan(final char[] chars, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			final char c = chars[i];
+			if (c < 0x20 || c >= 0xD800) {
+				return i;
+			}
+		}
+		return to;
+	}
+}
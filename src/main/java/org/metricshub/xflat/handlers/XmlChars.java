@@ -0,0 +1,145 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+/**
+ * Characters and names of the XML 1.0 specification, checked by the {@link XmlFeedReader}.
+ */
+final class XmlChars {
+
+	private XmlChars() {}
+
+	/**
+	 * @param c A character
+	 * @return Whether the character is a XML white space
+	 */
+	static boolean isWhitespace(final int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	/**
+	 * @param codePoint A code point
+	 * @return Whether the code point is a character allowed in a XML document
+	 */
+	static boolean isChar(final int codePoint) {
+		return (
+			codePoint >= 0x20 && codePoint <= 0xD7FF ||
+			codePoint == '\t' ||
+			codePoint == '\n' ||
+			codePoint == '\r' ||
+			codePoint >= 0xE000 && codePoint <= 0xFFFD ||
+			codePoint >= 0x10000 && codePoint <= 0x10FFFF
+		);
+	}
+
+	/**
+	 * @param codePoint A code point
+	 * @return Whether the code point can start a XML name
+	 */
+	static boolean isNameStartChar(final int codePoint) {
+		if (codePoint < 0x80) {
+			return (
+				codePoint >= 'a' && codePoint <= 'z' ||
+				codePoint >= 'A' && codePoint <= 'Z' ||
+				codePoint == '_' ||
+				codePoint == ':'
+			);
+		}
+		return (
+			codePoint >= 0xC0 && codePoint <= 0xD6 ||
+			codePoint >= 0xD8 && codePoint <= 0xF6 ||
+			codePoint >= 0xF8 && codePoint <= 0x2FF ||
+			codePoint >= 0x370 && codePoint <= 0x37D ||
+			codePoint >= 0x37F && codePoint <= 0x1FFF ||
+			codePoint >= 0x200C && codePoint <= 0x200D ||
+			codePoint >= 0x2070 && codePoint <= 0x218F ||
+			codePoint >= 0x2C00 && codePoint <= 0x2FEF ||
+			codePoint >= 0x3001 && codePoint <= 0xD7FF ||
+			codePoint >= 0xF900 && codePoint <= 0xFDCF ||
+			codePoint >= 0xFDF0 && codePoint <= 0xFFFD ||
+			codePoint >= 0x10000 && codePoint <= 0xEFFFF
+		);
+	}
+
+	/**
+	 * @param codePoint A code point
+	 * @return Whether the code point can be part of a XML name
+	 */
+	static boolean isNameChar(final int codePoint) {
+		return (
+			isNameStartChar(codePoint) ||
+			codePoint >= '0' && codePoint <= '9' ||
+			codePoint == '-' ||
+			codePoint == '.' ||
+			codePoint == 0xB7 ||
+			codePoint >= 0x300 && codePoint <= 0x36F ||
+			codePoint >= 0x203F && codePoint <= 0x2040
+		);
+	}
+
+	/**
+	 * Find the end of the XML name starting at the given position.
+	 *
+	 * @param chars The characters
+	 * @param start The position of the name
+	 * @param end The end of the characters to read
+	 * @return The position following the name, or <code>start</code> if no name starts there
+	 */
+	static int nameEnd(final CharSequence chars, final int start, final int end) {
+		int i = start;
+		while (i < end) {
+			final int codePoint = Character.codePointAt(chars, i);
+			if (i == start ? !isNameStartChar(codePoint) : !isNameChar(codePoint)) {
+				break;
+			}
+			i += Character.charCount(codePoint);
+		}
+		return Math.min(i, end);
+	}
+
+	/**
+	 * Find the end of the XML name token starting at the given position.
+	 *
+	 * @param chars The characters
+	 * @param start The position of the name token
+	 * @param end The end of the characters to read
+	 * @return The position following the name token, or <code>start</code> if no name token starts there
+	 */
+	static int nmtokenEnd(final CharSequence chars, final int start, final int end) {
+		int i = start;
+		while (i < end) {
+			final int codePoint = Character.codePointAt(chars, i);
+			if (!isNameChar(codePoint)) {
+				break;
+			}
+			i += Character.charCount(codePoint);
+		}
+		return Math.min(i, end);
+	}
+
+	/**
+	 * @param chars The characters
+	 * @return Whether the characters are a XML name
+	 */
+	static boolean isName(final CharSequence chars) {
+		return chars.length() > 0 && nameEnd(chars, 0, chars.length()) == chars.length();
+	}
+}
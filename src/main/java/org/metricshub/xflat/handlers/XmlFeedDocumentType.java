@@ -0,0 +1,696 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Declarations of the document type of a XML read by the {@link XmlFeedReader}.</p>
+ * <p>The internal subset of the document type declaration is read: the internal general entities are expanded in
+ * the content and the attribute values, the internal parameter entities between the declarations, the default
+ * attribute values are added and the values of the attributes not declared as CDATA are normalized, like a
+ * non-validating parser does. As with the DOM and StAX parsers, whose external access is restricted, an external
+ * document type or a reference to an external entity cannot be read.</p>
+ */
+class XmlFeedDocumentType {
+
+	/**
+	 * The maximum number of entity expansions in a document, the default limit of the JDK parsers.
+	 */
+	static final int MAX_ENTITY_EXPANSIONS = 64000;
+
+	private static final String DOCTYPE_START = "<!DOCTYPE";
+	private static final Entity EXTERNAL_ENTITY = new Entity(null, false);
+	private static final Entity UNPARSED_ENTITY = new Entity(null, true);
+
+	private final Map<String, Entity> generalEntities = new HashMap<>();
+	private final Map<String, Entity> parameterEntities = new HashMap<>();
+	private final Map<String, Map<String, AttributeDeclaration>> attributeDeclarations = new HashMap<>();
+
+	// The entities being expanded, the innermost first, and the number of expansions so far
+	private final Deque<String> expandedEntities = new ArrayDeque<>();
+	private int expansionCount;
+
+	// The declarations being read, and the position in them
+	private String text;
+	private int index;
+
+	/**
+	 * Read a document type declaration.
+	 *
+	 * @param declaration The complete document type declaration
+	 * @throws org.metricshub.xflat.exceptions.XFlatRunTimeException if the declaration is not well-formed, or if it
+	 * has an external subset
+	 */
+	void parse(final String declaration) {
+		text = declaration;
+		index = DOCTYPE_START.length();
+
+		requireWhitespace();
+		name();
+		skipWhitespace();
+		if (startsWith("SYSTEM") || startsWith("PUBLIC")) {
+			throw XmlFeedReader.error("the external document type cannot be read, the external access is not allowed");
+		}
+		if (index < text.length() && text.charAt(index) == '[') {
+			index++;
+			parseDeclarations(true);
+			index++;
+			skipWhitespace();
+		}
+		if (index != text.length() - 1 || text.charAt(index) != '>') {
+			throw XmlFeedReader.error("invalid document type declaration");
+		}
+		text = null;
+	}
+
+	/**
+	 * Start the expansion of a general entity.
+	 *
+	 * @param name The name of the entity
+	 * @return The replacement text of the entity
+	 * @throws org.metricshub.xflat.exceptions.XFlatRunTimeException if the entity cannot be expanded
+	 */
+	String beginExpansion(final String name) {
+		final Entity entity = generalEntities.get(name);
+		if (entity == null) {
+			throw XmlFeedReader.error("undeclared entity &" + name + ";");
+		}
+		if (entity.unparsed) {
+			throw XmlFeedReader.error("reference to the unparsed entity &" + name + ";");
+		}
+		if (entity.replacementText == null) {
+			throw XmlFeedReader.error(
+				"the external entity &" + name + "; cannot be read, the external access is not allowed"
+			);
+		}
+		pushExpansion(name);
+		return entity.replacementText;
+	}
+
+	/**
+	 * End the expansion of the innermost entity.
+	 */
+	void endExpansion() {
+		expandedEntities.pop();
+	}
+
+	/**
+	 * Replace the references and normalize the white spaces of an attribute value.
+	 *
+	 * @param value The characters of the value
+	 * @param start The position of the value, after its quote
+	 * @param end The end of the value, at its quote
+	 * @return The normalized value
+	 * @throws org.metricshub.xflat.exceptions.XFlatRunTimeException if the value is not well-formed
+	 */
+	String normalizeAttributeValue(final CharSequence value, final int start, final int end) {
+		boolean plain = true;
+		for (int i = start; i < end && plain; i++) {
+			final char c = value.charAt(i);
+			plain = c != '&' && c != '<' && c != '\t' && c != '\n' && c != '\r';
+		}
+		if (plain) {
+			return value.subSequence(start, end).toString();
+		}
+
+		final StringBuilder normalized = new StringBuilder(end - start);
+		appendAttributeValue(normalized, value, start, end);
+		return normalized.toString();
+	}
+
+	/**
+	 * Normalize the values of the attributes declared with another type than CDATA, and add the default values of
+	 * the declared attributes which are not specified.
+	 *
+	 * @param element The name of the element
+	 * @param names The names of the attributes specified in the start tag
+	 * @param values The values of the attributes specified in the start tag
+	 */
+	void completeAttributes(final String element, final List<String> names, final List<String> values) {
+		if (attributeDeclarations.isEmpty()) {
+			return;
+		}
+		final Map<String, AttributeDeclaration> declarations = attributeDeclarations.get(element);
+		if (declarations == null) {
+			return;
+		}
+
+		for (int i = 0; i < names.size(); i++) {
+			final AttributeDeclaration declaration = declarations.get(names.get(i));
+			if (declaration != null && !declaration.cdata) {
+				values.set(i, collapseSpaces(values.get(i)));
+			}
+		}
+		for (final Map.Entry<String, AttributeDeclaration> entry : declarations.entrySet()) {
+			if (entry.getValue().defaultValue != null && !names.contains(entry.getKey())) {
+				names.add(entry.getKey());
+				values.add(entry.getValue().defaultValue);
+			}
+		}
+	}
+
+	/**
+	 * @param name The name of an entity
+	 * @return The replacement text of the predefined entity, or null if it is not a predefined entity
+	 */
+	static String predefinedEntity(final String name) {
+		switch (name) {
+			case "lt":
+				return "<";
+			case "gt":
+				return ">";
+			case "amp":
+				return "&";
+			case "quot":
+				return "\"";
+			case "apos":
+				return "'";
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Find the end of a reference.
+	 *
+	 * @param chars The characters
+	 * @param ampersand The position of the ampersand starting the reference
+	 * @param end The end of the characters to read
+	 * @return The position of the semicolon ending the reference
+	 * @throws org.metricshub.xflat.exceptions.XFlatRunTimeException if the reference is not well-formed
+	 */
+	static int referenceEnd(final CharSequence chars, final int ampersand, final int end) {
+		final int nameEnd = ampersand + 1 < end && chars.charAt(ampersand + 1) == '#'
+			? characterReferenceEnd(chars, ampersand + 2, end)
+			: XmlChars.nameEnd(chars, ampersand + 1, end);
+		if (nameEnd == ampersand + 1 || nameEnd == end || chars.charAt(nameEnd) != ';') {
+			throw XmlFeedReader.error("invalid or unclosed reference");
+		}
+		return nameEnd;
+	}
+
+	/**
+	 * Read a character reference.
+	 *
+	 * @param reference The reference, without its ampersand and semicolon, like <code>#x20</code>
+	 * @return The code point of the character
+	 * @throws org.metricshub.xflat.exceptions.XFlatRunTimeException if the character is not allowed
+	 */
+	static int characterReference(final String reference) {
+		try {
+			final int codePoint = reference.charAt(1) == 'x'
+				? Integer.parseInt(reference.substring(2), 16)
+				: Integer.parseInt(reference.substring(1));
+			if (XmlChars.isChar(codePoint)) {
+				return codePoint;
+			}
+		} catch (final NumberFormatException e) {
+			// Too large
+		}
+		throw XmlFeedReader.error("invalid character reference &" + reference + ";");
+	}
+
+	private static int characterReferenceEnd(final CharSequence chars, final int start, final int end) {
+		final boolean hexadecimal = start < end && chars.charAt(start) == 'x';
+		int i = hexadecimal ? start + 1 : start;
+		while (i < end && Character.digit(chars.charAt(i), hexadecimal ? 16 : 10) >= 0 && chars.charAt(i) < 0x80) {
+			i++;
+		}
+		return i == (hexadecimal ? start + 1 : start) ? start - 1 : i;
+	}
+
+	private void appendAttributeValue(
+		final StringBuilder normalized,
+		final CharSequence value,
+		final int start,
+		final int end
+	) {
+		int i = start;
+		while (i < end) {
+			final char c = value.charAt(i);
+			if (c == '&') {
+				final int semicolon = referenceEnd(value, i, end);
+				final String reference = value.subSequence(i + 1, semicolon).toString();
+				if (reference.charAt(0) == '#') {
+					normalized.appendCodePoint(characterReference(reference));
+				} else {
+					final String predefined = predefinedEntity(reference);
+					if (predefined != null) {
+						normalized.append(predefined);
+					} else {
+						final String replacementText = beginExpansion(reference);
+						appendAttributeValue(normalized, replacementText, 0, replacementText.length());
+						endExpansion();
+					}
+				}
+				i = semicolon + 1;
+			} else if (c == '<') {
+				throw XmlFeedReader.error("the character < is not allowed in an attribute value");
+			} else {
+				normalized.append(XmlChars.isWhitespace(c) ? ' ' : c);
+				i++;
+			}
+		}
+	}
+
+	private void pushExpansion(final String name) {
+		if (expandedEntities.contains(name)) {
+			throw XmlFeedReader.error("recursive reference to the entity " + name);
+		}
+		if (++expansionCount > MAX_ENTITY_EXPANSIONS) {
+			throw XmlFeedReader.error("more than " + MAX_ENTITY_EXPANSIONS + " entity expansions");
+		}
+		expandedEntities.push(name);
+	}
+
+	private static String collapseSpaces(final String value) {
+		final StringBuilder collapsed = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c != ' ') {
+				collapsed.append(c);
+			} else if (collapsed.length() > 0 && i + 1 < value.length() && value.charAt(i + 1) != ' ') {
+				collapsed.append(' ');
+			}
+		}
+		return collapsed.toString();
+	}
+
+	/**
+	 * Read the markup declarations, up to the end of the internal subset or of the text.
+	 *
+	 * @param subset Whether the declarations are the internal subset, ended by a bracket
+	 */
+	private void parseDeclarations(final boolean subset) {
+		while (true) {
+			skipWhitespace();
+			if (index == text.length()) {
+				if (subset) {
+					throw XmlFeedReader.error("internal subset not closed");
+				}
+				return;
+			}
+
+			if (subset && text.charAt(index) == ']') {
+				return;
+			} else if (text.charAt(index) == '%') {
+				parameterEntityReference();
+			} else if (startsWith("<!--")) {
+				final int end = find(4, "-->");
+				XmlFeedReader.checkComment(text, index + 4, end);
+				index = end + 3;
+			} else if (startsWith("<?")) {
+				final int end = find(2, "?>");
+				if ("xml".equalsIgnoreCase(XmlFeedReader.processingInstructionTarget(text, index + 2, end))) {
+					throw XmlFeedReader.error("the processing instruction target xml is reserved");
+				}
+				index = end + 2;
+			} else if (startsWith("<!ENTITY")) {
+				entityDeclaration();
+			} else if (startsWith("<!ATTLIST")) {
+				attributeListDeclaration();
+			} else if (startsWith("<!ELEMENT")) {
+				elementDeclaration();
+			} else if (startsWith("<!NOTATION")) {
+				notationDeclaration();
+			} else {
+				throw XmlFeedReader.error("invalid markup declaration");
+			}
+		}
+	}
+
+	private void parameterEntityReference() {
+		index++;
+		final String name = name();
+		expect(';');
+
+		// An undeclared parameter entity only breaks the validity, it is skipped like the DOM parser does
+		final Entity entity = parameterEntities.get(name);
+		if (entity == null) {
+			return;
+		}
+		if (entity.replacementText == null) {
+			throw XmlFeedReader.error(
+				"the external parameter entity %" + name + "; cannot be read, the external access is not allowed"
+			);
+		}
+
+		pushExpansion('%' + name);
+		final String declarations = text;
+		final int position = index;
+		text = entity.replacementText;
+		index = 0;
+		parseDeclarations(false);
+		text = declarations;
+		index = position;
+		endExpansion();
+	}
+
+	private void entityDeclaration() {
+		index += "<!ENTITY".length();
+		requireWhitespace();
+		final boolean parameter = index < text.length() && text.charAt(index) == '%';
+		if (parameter) {
+			index++;
+			requireWhitespace();
+		}
+		final String name = name();
+		requireWhitespace();
+
+		final Entity entity;
+		if (index < text.length() && (text.charAt(index) == '"' || text.charAt(index) == '\'')) {
+			entity = new Entity(entityValue(), false);
+		} else {
+			externalId(false);
+			if (!parameter && skipWhitespace() && startsWith("NDATA")) {
+				index += "NDATA".length();
+				requireWhitespace();
+				name();
+				entity = UNPARSED_ENTITY;
+			} else {
+				entity = EXTERNAL_ENTITY;
+			}
+		}
+		skipWhitespace();
+		expect('>');
+
+		// The first declaration is binding, the predefined entities keep their meaning
+		if (parameter) {
+			parameterEntities.putIfAbsent(name, entity);
+		} else if (predefinedEntity(name) == null) {
+			generalEntities.putIfAbsent(name, entity);
+		}
+	}
+
+	/**
+	 * Read a quoted entity value: the character references are replaced, the general entity references are kept.
+	 */
+	private String entityValue() {
+		final char quote = text.charAt(index);
+		final int end = text.indexOf(quote, index + 1);
+		if (end < 0) {
+			throw XmlFeedReader.error("entity value not closed");
+		}
+
+		final StringBuilder value = new StringBuilder(end - index);
+		int i = index + 1;
+		while (i < end) {
+			final char c = text.charAt(i);
+			if (c == '%') {
+				throw XmlFeedReader.error("parameter entity reference in an entity value of the internal subset");
+			}
+			if (c == '&') {
+				final int semicolon = referenceEnd(text, i, end);
+				if (text.charAt(i + 1) == '#') {
+					value.appendCodePoint(characterReference(text.substring(i + 1, semicolon)));
+				} else {
+					value.append(text, i, semicolon + 1);
+				}
+				i = semicolon + 1;
+			} else {
+				value.append(c);
+				i++;
+			}
+		}
+		index = end + 1;
+		return value.toString();
+	}
+
+	private void attributeListDeclaration() {
+		index += "<!ATTLIST".length();
+		requireWhitespace();
+		final String element = name();
+		final Map<String, AttributeDeclaration> declarations = attributeDeclarations.computeIfAbsent(
+			element,
+			key -> new HashMap<>()
+		);
+
+		while (true) {
+			final boolean whitespace = skipWhitespace();
+			if (index < text.length() && text.charAt(index) == '>') {
+				index++;
+				return;
+			}
+			if (!whitespace) {
+				throw XmlFeedReader.error("invalid attribute list declaration");
+			}
+
+			final String name = name();
+			requireWhitespace();
+			final boolean cdata;
+			if (startsWith("NOTATION")) {
+				index += "NOTATION".length();
+				requireWhitespace();
+				enumeration(false);
+				cdata = false;
+			} else if (index < text.length() && text.charAt(index) == '(') {
+				enumeration(true);
+				cdata = false;
+			} else {
+				final String type = name();
+				switch (type) {
+					case "CDATA":
+					case "ID":
+					case "IDREF":
+					case "IDREFS":
+					case "ENTITY":
+					case "ENTITIES":
+					case "NMTOKEN":
+					case "NMTOKENS":
+						break;
+					default:
+						throw XmlFeedReader.error("invalid attribute type " + type);
+				}
+				cdata = "CDATA".equals(type);
+			}
+			requireWhitespace();
+
+			String defaultValue = null;
+			if (startsWith("#REQUIRED")) {
+				index += "#REQUIRED".length();
+			} else if (startsWith("#IMPLIED")) {
+				index += "#IMPLIED".length();
+			} else {
+				if (startsWith("#FIXED")) {
+					index += "#FIXED".length();
+					requireWhitespace();
+				}
+				final int end = quotedEnd();
+				defaultValue = normalizeAttributeValue(text, index + 1, end);
+				if (!cdata) {
+					defaultValue = collapseSpaces(defaultValue);
+				}
+				index = end + 1;
+			}
+
+			// The first declaration of an attribute is binding
+			declarations.putIfAbsent(name, new AttributeDeclaration(cdata, defaultValue));
+		}
+	}
+
+	/**
+	 * Read an enumeration of names or name tokens, like <code>(a|b)</code>.
+	 */
+	private void enumeration(final boolean nmtokens) {
+		expect('(');
+		do {
+			skipWhitespace();
+			final int end = nmtokens
+				? XmlChars.nmtokenEnd(text, index, text.length())
+				: XmlChars.nameEnd(text, index, text.length());
+			if (end == index) {
+				throw XmlFeedReader.error("invalid enumeration");
+			}
+			index = end;
+			skipWhitespace();
+		} while (index < text.length() && text.charAt(index++) == '|');
+		if (text.charAt(index - 1) != ')') {
+			throw XmlFeedReader.error("invalid enumeration");
+		}
+	}
+
+	private void elementDeclaration() {
+		index += "<!ELEMENT".length();
+		requireWhitespace();
+		name();
+		requireWhitespace();
+
+		// The content model is only checked for its characters and parentheses, it is not used
+		final int start = index;
+		int depth = 0;
+		while (index < text.length() && text.charAt(index) != '>') {
+			final int codePoint = text.codePointAt(index);
+			if (codePoint == '(') {
+				depth++;
+			} else if (codePoint == ')') {
+				depth--;
+			} else if (codePoint == '#' && startsWith("#PCDATA")) {
+				index += "#PCDATA".length() - 1;
+			} else if (
+				!XmlChars.isNameChar(codePoint) && !XmlChars.isWhitespace(codePoint) && "|,?*+".indexOf(codePoint) < 0
+			) {
+				throw XmlFeedReader.error("invalid element declaration");
+			}
+			if (depth < 0) {
+				throw XmlFeedReader.error("invalid element declaration");
+			}
+			index += Character.charCount(codePoint);
+		}
+		if (index == start || depth != 0) {
+			throw XmlFeedReader.error("invalid element declaration");
+		}
+		expect('>');
+	}
+
+	private void notationDeclaration() {
+		index += "<!NOTATION".length();
+		requireWhitespace();
+		name();
+		requireWhitespace();
+		externalId(true);
+		skipWhitespace();
+		expect('>');
+	}
+
+	/**
+	 * Read an external identifier: <code>SYSTEM "uri"</code> or <code>PUBLIC "id" "uri"</code>.
+	 *
+	 * @param notation Whether the system literal may be omitted after the public identifier, in a notation
+	 */
+	private void externalId(final boolean notation) {
+		if (startsWith("SYSTEM")) {
+			index += "SYSTEM".length();
+			requireWhitespace();
+			index = quotedEnd() + 1;
+		} else if (startsWith("PUBLIC")) {
+			index += "PUBLIC".length();
+			requireWhitespace();
+			final int end = quotedEnd();
+			for (int i = index + 1; i < end; i++) {
+				final char c = text.charAt(i);
+				if (!(c < 0x80 && (Character.isLetterOrDigit(c) || " \n-'()+,./:=?;!*#@$_%".indexOf(c) >= 0))) {
+					throw XmlFeedReader.error("invalid public identifier");
+				}
+			}
+			index = end + 1;
+			final int position = index;
+			if (skipWhitespace() && index < text.length() && (text.charAt(index) == '"' || text.charAt(index) == '\'')) {
+				index = quotedEnd() + 1;
+			} else if (notation) {
+				index = position;
+			} else {
+				throw XmlFeedReader.error("system literal expected");
+			}
+		} else {
+			throw XmlFeedReader.error("entity value or external identifier expected");
+		}
+	}
+
+	/**
+	 * @return The position of the quote ending the literal starting at the current position
+	 */
+	private int quotedEnd() {
+		if (index == text.length() || (text.charAt(index) != '"' && text.charAt(index) != '\'')) {
+			throw XmlFeedReader.error("quoted literal expected");
+		}
+		final int end = text.indexOf(text.charAt(index), index + 1);
+		if (end < 0) {
+			throw XmlFeedReader.error("literal not closed");
+		}
+		return end;
+	}
+
+	private String name() {
+		final int end = XmlChars.nameEnd(text, index, text.length());
+		if (end == index) {
+			throw XmlFeedReader.error("name expected in the document type declaration");
+		}
+		final String name = text.substring(index, end);
+		index = end;
+		return name;
+	}
+
+	private int find(final int contentOffset, final String terminator) {
+		final int end = text.indexOf(terminator, index + contentOffset);
+		if (end < 0) {
+			throw XmlFeedReader.error("markup not closed in the document type declaration");
+		}
+		return end;
+	}
+
+	private boolean startsWith(final String prefix) {
+		return text.startsWith(prefix, index);
+	}
+
+	private void expect(final char c) {
+		if (index == text.length() || text.charAt(index) != c) {
+			throw XmlFeedReader.error(c + " expected in the document type declaration");
+		}
+		index++;
+	}
+
+	private boolean skipWhitespace() {
+		final int start = index;
+		while (index < text.length() && XmlChars.isWhitespace(text.charAt(index))) {
+			index++;
+		}
+		return index > start;
+	}
+
+	private void requireWhitespace() {
+		if (!skipWhitespace()) {
+			throw XmlFeedReader.error("white space expected in the document type declaration");
+		}
+	}
+
+	/**
+	 * A declared entity. The replacement text of an external or unparsed entity is null.
+	 */
+	private static final class Entity {
+
+		private final String replacementText;
+		private final boolean unparsed;
+
+		private Entity(final String replacementText, final boolean unparsed) {
+			this.replacementText = replacementText;
+			this.unparsed = unparsed;
+		}
+	}
+
+	/**
+	 * A declared attribute of an element.
+	 */
+	private static final class AttributeDeclaration {
+
+		private final boolean cdata;
+		private final String defaultValue;
+
+		private AttributeDeclaration(final boolean cdata, final String defaultValue) {
+			this.cdata = cdata;
+			this.defaultValue = defaultValue;
+		}
+	}
+}
@@ -0,0 +1,786 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+
+/**
+ * <p>Incremental XML reader, pushing the events of the characters fed to it to a {@link MatchedDocumentBuilder}.</p>
+ * <p>The characters can be cut anywhere: an incomplete markup or text is kept until the next characters complete
+ * it, and is never read twice. Nothing blocks waiting for input. The text outside the elements matched as a
+ * property is checked and dropped as soon as it is read.</p>
+ * <p>The whole document is checked for well-formedness, like the DOM parsing does: the characters, the names, the
+ * markup and every attribute of each start tag, the single root element and the references. The internal subset
+ * of the document type declaration is read by a {@link XmlFeedDocumentType}, and the internal entities are
+ * expanded, even when they contain markup.</p>
+ * <p>The reading is suspended between two events as soon as the suspension condition is met, and the characters not
+ * read yet are kept until {@link #resume()}.</p>
+ */
+class XmlFeedReader {
+
+	private static final String COMMENT_START = "<!--";
+	private static final String CDATA_START = "<![CDATA[";
+	private static final String DOCTYPE_START = "<!DOCTYPE";
+
+	private final MatchedDocumentBuilder builder;
+	private final BooleanSupplier suspension;
+	private final Deque<String> openElements;
+	private final XmlFeedDocumentType documentType;
+	private final StringBuilder buffer = new StringBuilder();
+
+	// The replacement text of an entity is read by its own reader, within the elements open at the reference
+	private final boolean entityReader;
+	private final int baseDepth;
+
+	// The attributes of the start tag being read
+	private final List<String> attributeNames = new ArrayList<>();
+	private final List<String> attributeValues = new ArrayList<>();
+	private final UnaryOperator<String> attributes = this::getAttributeValue;
+
+	// Progress of the search of the end of the markup starting the buffer, kept between the feeds
+	private int scanIndex;
+	private char quote;
+	private int bracketDepth;
+	private String terminator;
+
+	// Progress of the input, whose line ends are normalized and characters checked as they are fed
+	private boolean firstChar = true;
+	private boolean carriageReturn;
+	private boolean highSurrogate;
+
+	private Section section = Section.PROLOG;
+	private boolean documentStart = true;
+	private boolean documentTypeRead;
+	private boolean suspended;
+
+	/**
+	 * @param builder The builder receiving the events
+	 * @param suspension The condition suspending the reading, checked before each event
+	 */
+	XmlFeedReader(final MatchedDocumentBuilder builder, final BooleanSupplier suspension) {
+		this.builder = builder;
+		this.suspension = suspension;
+		this.openElements = new ArrayDeque<>();
+		this.documentType = new XmlFeedDocumentType();
+		this.entityReader = false;
+		this.baseDepth = 0;
+	}
+
+	/**
+	 * Create the reader of the replacement text of an entity referenced in the content.
+	 *
+	 * @param parent The reader of the reference
+	 */
+	private XmlFeedReader(final XmlFeedReader parent) {
+		this.builder = parent.builder;
+		this.suspension = () -> false;
+		this.openElements = parent.openElements;
+		this.documentType = parent.documentType;
+		this.entityReader = true;
+		this.baseDepth = openElements.size();
+		this.section = Section.CONTENT;
+		this.documentStart = false;
+	}
+
+	/**
+	 * Read the next characters of the XML, until the reading is suspended.
+	 *
+	 * @param chars The characters, in a buffer backed by an array
+	 * @throws XFlatRunTimeException if the XML is not well-formed
+	 */
+	void read(final CharBuffer chars) {
+		if (!chars.hasRemaining()) {
+			return;
+		}
+
+		append(chars.array(), chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit());
+		readBuffer();
+	}
+
+	/**
+	 * Resume the reading of the characters kept when it was suspended, until it is suspended again.
+	 *
+	 * @throws XFlatRunTimeException if the XML is not well-formed
+	 */
+	void resume() {
+		if (suspended) {
+			readBuffer();
+		}
+	}
+
+	/**
+	 * @return Whether the reading is suspended before the end of the characters read so far
+	 */
+	boolean isSuspended() {
+		return suspended;
+	}
+
+	/**
+	 * End the XML.
+	 *
+	 * @throws XFlatRunTimeException if the XML is not complete
+	 */
+	void end() {
+		if (highSurrogate) {
+			throw error("incomplete surrogate pair");
+		}
+		readRemainingText();
+		if (!openElements.isEmpty()) {
+			throw error("element " + openElements.peek() + " is not closed");
+		}
+		if (section == Section.PROLOG) {
+			throw error("no root element");
+		}
+	}
+
+	/**
+	 * Build the exception of a XML which is not well-formed.
+	 *
+	 * @param message The reason
+	 * @return The exception to throw
+	 */
+	static XFlatRunTimeException error(final String message) {
+		return new XFlatRunTimeException("Error in parsing xml: " + message + ".");
+	}
+
+	/**
+	 * Check the content of a comment.
+	 *
+	 * @param chars The characters
+	 * @param start The position following <code>&lt;!--</code>
+	 * @param end The position of <code>--&gt;</code>
+	 * @throws XFlatRunTimeException if the comment is not well-formed
+	 */
+	static void checkComment(final CharSequence chars, final int start, final int end) {
+		for (int i = start; i < end; i++) {
+			if (chars.charAt(i) == '-' && (i + 1 == end || chars.charAt(i + 1) == '-')) {
+				throw error("the string -- is not allowed in a comment");
+			}
+		}
+	}
+
+	/**
+	 * Check a processing instruction.
+	 *
+	 * @param chars The characters
+	 * @param start The position following <code>&lt;?</code>
+	 * @param end The position of <code>?&gt;</code>
+	 * @return The target of the processing instruction
+	 * @throws XFlatRunTimeException if the processing instruction is not well-formed
+	 */
+	static String processingInstructionTarget(final CharSequence chars, final int start, final int end) {
+		final int targetEnd = XmlChars.nameEnd(chars, start, end);
+		if (targetEnd == start || (targetEnd < end && !XmlChars.isWhitespace(chars.charAt(targetEnd)))) {
+			throw error("invalid processing instruction target");
+		}
+		return chars.subSequence(start, targetEnd).toString();
+	}
+
+	/**
+	 * Append the fed characters to the buffer, with the line ends normalized to line feeds. The runs of plain
+	 * characters are appended at once, only the characters found by the {@link XmlCharScanner} are checked.
+	 */
+	private void append(final char[] chars, final int start, final int end) {
+		int from = start;
+		if (firstChar) {
+			firstChar = false;
+			// Byte order mark
+			if (chars[from] == '\uFEFF') {
+				from++;
+			}
+		}
+
+		int i = from;
+		if (carriageReturn && i < end) {
+			carriageReturn = false;
+			if (chars[i] == '\n') {
+				// Already appended as the line feed of the carriage return
+				from = ++i;
+			}
+		}
+		if (highSurrogate && i < end) {
+			highSurrogate = false;
+			if (!Character.isLowSurrogate(chars[i++])) {
+				throw error("incomplete surrogate pair");
+			}
+		}
+
+		while ((i = XmlCharScanner.indexOfCharToCheck(chars, i, end)) < end) {
+			final char c = chars[i++];
+			if (c == '\r') {
+				buffer.append(chars, from, i - 1 - from).append('\n');
+				if (i == end) {
+					carriageReturn = true;
+				} else if (chars[i] == '\n') {
+					i++;
+				}
+				from = i;
+			} else if (Character.isHighSurrogate(c)) {
+				if (i == end) {
+					highSurrogate = true;
+				} else if (!Character.isLowSurrogate(chars[i++])) {
+					throw error("incomplete surrogate pair");
+				}
+			} else if (Character.isLowSurrogate(c)) {
+				throw error("incomplete surrogate pair");
+			} else if (c < 0x20 ? c != '\n' && c != '\t' : c > 0xFFFD) {
+				throw error("invalid XML character 0x" + Integer.toHexString(c));
+			}
+		}
+		buffer.append(chars, from, end - from);
+	}
+
+	private void readBuffer() {
+		suspended = false;
+		int position = 0;
+		while (position < buffer.length()) {
+			if (suspension.getAsBoolean()) {
+				suspended = true;
+				break;
+			}
+
+			if (buffer.charAt(position) != '<') {
+				final int end = buffer.indexOf("<", Math.max(position, scanIndex));
+				if (end < 0) {
+					if (builder.isCapturing()) {
+						scanIndex = buffer.length();
+					} else {
+						// The text is not kept, it is read up to its last complete reference
+						final int textEnd = readableTextEnd(position);
+						text(position, textEnd);
+						position = textEnd;
+						documentStart = false;
+					}
+					break;
+				}
+				text(position, end);
+				position = end;
+				scanIndex = 0;
+			} else {
+				final int end = findMarkupEnd(position);
+				if (end < 0) {
+					break;
+				}
+				markup(position, end);
+				position = end;
+				scanIndex = 0;
+				quote = 0;
+				bracketDepth = 0;
+				terminator = null;
+			}
+			documentStart = false;
+		}
+
+		buffer.delete(0, position);
+		if (scanIndex > 0) {
+			scanIndex -= position;
+		}
+	}
+
+	/**
+	 * Read the text left in the buffer at the end of the input, a markup cannot be completed anymore.
+	 */
+	private void readRemainingText() {
+		if (buffer.length() > 0) {
+			if (buffer.charAt(0) == '<') {
+				throw error("unexpected end of input");
+			}
+			text(0, buffer.length());
+			buffer.setLength(0);
+		}
+	}
+
+	/**
+	 * Find the end of a text which is not complete yet, excluding a reference or a <code>]]&gt;</code> sequence
+	 * which may be cut.
+	 */
+	private int readableTextEnd(final int start) {
+		int end = buffer.length();
+		final int ampersand = buffer.lastIndexOf("&");
+		if (ampersand >= start && buffer.indexOf(";", ampersand) < 0) {
+			end = ampersand;
+		}
+		for (int i = 0; i < 2 && end > start && buffer.charAt(end - 1) == ']'; i++) {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Find the end of the markup starting at the given position.
+	 *
+	 * @param start The position of the markup start character
+	 * @return The position following the markup, or -1 if the markup is not complete yet
+	 * @throws XFlatRunTimeException if the markup is not well-formed
+	 */
+	private int findMarkupEnd(final int start) {
+		if (buffer.length() - start < 2) {
+			return -1;
+		}
+
+		switch (buffer.charAt(start + 1)) {
+			case '?':
+				return findEnd(start + 2, "?>");
+			case '/':
+				return findEnd(start + 2, ">");
+			case '!':
+				for (final String prefix : new String[] { COMMENT_START, CDATA_START, DOCTYPE_START }) {
+					final int match = match(start, prefix);
+					if (match == 0) {
+						return -1;
+					}
+					if (match > 0) {
+						if (prefix == DOCTYPE_START) {
+							return findDocumentTypeEnd(start + match);
+						}
+						return findEnd(start + match, prefix == COMMENT_START ? "-->" : "]]>");
+					}
+				}
+				throw error("invalid markup");
+			default:
+				return findStartTagEnd(start + 1);
+		}
+	}
+
+	/**
+	 * Match the characters at the given position against a prefix.
+	 *
+	 * @return The length of the prefix if the characters start with it, 0 if they may start with it once complete,
+	 * -1 if they don't
+	 */
+	private int match(final int start, final String prefix) {
+		for (int i = 0; i < prefix.length(); i++) {
+			if (start + i == buffer.length()) {
+				return 0;
+			}
+			if (buffer.charAt(start + i) != prefix.charAt(i)) {
+				return -1;
+			}
+		}
+		return prefix.length();
+	}
+
+	/**
+	 * Find a terminator, resuming the search where the previous one stopped.
+	 *
+	 * @param from The position of the markup content
+	 * @param terminator The terminator of the markup
+	 * @return The position following the terminator, or -1 if not found yet
+	 */
+	private int findEnd(final int from, final String terminator) {
+		final int index = buffer.indexOf(terminator, Math.max(from, scanIndex - terminator.length() + 1));
+		if (index < 0) {
+			scanIndex = buffer.length();
+			return -1;
+		}
+		return index + terminator.length();
+	}
+
+	/**
+	 * Find the end of a start tag: the first '&gt;' outside the quotes.
+	 *
+	 * @param from The position of the element name
+	 * @return The position following the start tag, or -1 if not found yet
+	 */
+	private int findStartTagEnd(final int from) {
+		for (int i = Math.max(from, scanIndex); i < buffer.length(); i++) {
+			final char c = buffer.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '>') {
+				return i + 1;
+			} else if (c == '<') {
+				throw error("the character < is not allowed in a start tag");
+			}
+		}
+		scanIndex = buffer.length();
+		return -1;
+	}
+
+	/**
+	 * Find the end of the document type declaration: the first '&gt;' outside the quotes, the internal subset, and
+	 * the comments and processing instructions of the internal subset.
+	 *
+	 * @param from The position following <code>&lt;!DOCTYPE</code>
+	 * @return The position following the declaration, or -1 if not found yet
+	 */
+	private int findDocumentTypeEnd(final int from) {
+		int i = Math.max(from, scanIndex);
+		while (i < buffer.length()) {
+			if (terminator != null) {
+				final int index = buffer.indexOf(terminator, i);
+				if (index < 0) {
+					scanIndex = Math.max(i, buffer.length() - terminator.length() + 1);
+					return -1;
+				}
+				i = index + terminator.length();
+				terminator = null;
+				continue;
+			}
+
+			final char c = buffer.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '[') {
+				bracketDepth++;
+			} else if (c == ']') {
+				bracketDepth--;
+			} else if (c == '>' && bracketDepth <= 0) {
+				return i + 1;
+			} else if (c == '<' && bracketDepth > 0) {
+				final int comment = match(i, COMMENT_START);
+				final int processingInstruction = match(i, "<?");
+				if (comment == 0 || processingInstruction == 0) {
+					scanIndex = i;
+					return -1;
+				}
+				if (comment > 0) {
+					terminator = "-->";
+					i += comment;
+					continue;
+				}
+				if (processingInstruction > 0) {
+					terminator = "?>";
+					i += processingInstruction;
+					continue;
+				}
+			}
+			i++;
+		}
+		scanIndex = buffer.length();
+		return -1;
+	}
+
+	/**
+	 * Handle a complete text, or the part of a text which is not kept.
+	 */
+	private void text(final int start, final int end) {
+		final boolean capturing = builder.isCapturing();
+		int literalStart = start;
+		for (int i = start; i < end; i++) {
+			final char c = buffer.charAt(i);
+			if (section != Section.CONTENT && !XmlChars.isWhitespace(c)) {
+				throw error("text is not allowed " + (section == Section.PROLOG ? "before" : "after") + " the root element");
+			}
+			if (c == '&') {
+				if (capturing && i > literalStart) {
+					builder.characters(buffer.substring(literalStart, i));
+				}
+				i = reference(i, end);
+				literalStart = i + 1;
+			} else if (c == '>' && i - start >= 2 && buffer.charAt(i - 1) == ']' && buffer.charAt(i - 2) == ']') {
+				throw error("the string ]]> is not allowed in a text");
+			}
+		}
+		if (capturing && end > literalStart) {
+			builder.characters(buffer.substring(literalStart, end));
+		}
+	}
+
+	/**
+	 * Handle a reference in a text.
+	 *
+	 * @param ampersand The position of the ampersand starting the reference
+	 * @param end The end of the text
+	 * @return The position of the semicolon ending the reference
+	 */
+	private int reference(final int ampersand, final int end) {
+		final int semicolon = XmlFeedDocumentType.referenceEnd(buffer, ampersand, end);
+		final String reference = buffer.substring(ampersand + 1, semicolon);
+		if (reference.charAt(0) == '#') {
+			final int codePoint = XmlFeedDocumentType.characterReference(reference);
+			if (builder.isCapturing()) {
+				builder.characters(new String(Character.toChars(codePoint)));
+			}
+			return semicolon;
+		}
+
+		final String predefined = XmlFeedDocumentType.predefinedEntity(reference);
+		if (predefined != null) {
+			if (builder.isCapturing()) {
+				builder.characters(predefined);
+			}
+			return semicolon;
+		}
+
+		final String replacementText = documentType.beginExpansion(reference);
+		if (replacementText.indexOf('<') < 0 && replacementText.indexOf('&') < 0) {
+			if (builder.isCapturing()) {
+				builder.characters(replacementText);
+			}
+		} else {
+			final XmlFeedReader reader = new XmlFeedReader(this);
+			reader.buffer.append(replacementText);
+			reader.readBuffer();
+			reader.readRemainingText();
+			if (openElements.size() != reader.baseDepth) {
+				throw error("element " + openElements.peek() + " is not closed in the entity " + reference);
+			}
+		}
+		documentType.endExpansion();
+		return semicolon;
+	}
+
+	/**
+	 * Handle a complete markup.
+	 */
+	private void markup(final int start, final int end) {
+		switch (buffer.charAt(start + 1)) {
+			case '?':
+				processingInstruction(start + 2, end - 2);
+				break;
+			case '/':
+				endTag(start + 2, end - 1);
+				break;
+			case '!':
+				if (buffer.charAt(start + 2) == '-') {
+					checkComment(buffer, start + COMMENT_START.length(), end - 3);
+				} else if (buffer.charAt(start + 2) == '[') {
+					if (section != Section.CONTENT) {
+						throw error("CDATA section outside the root element");
+					}
+					if (builder.isCapturing()) {
+						builder.characters(buffer.substring(start + CDATA_START.length(), end - 3));
+					}
+				} else {
+					if (entityReader || section != Section.PROLOG || documentTypeRead) {
+						throw error("unexpected document type declaration");
+					}
+					documentTypeRead = true;
+					documentType.parse(buffer.substring(start, end));
+				}
+				break;
+			default:
+				startTag(start + 1, end);
+				break;
+		}
+	}
+
+	private void processingInstruction(final int start, final int end) {
+		final String target = processingInstructionTarget(buffer, start, end);
+		if (!"xml".equalsIgnoreCase(target)) {
+			return;
+		}
+		if (!documentStart || !"xml".equals(target)) {
+			throw error("the processing instruction target " + target + " is reserved");
+		}
+
+		// XML declaration: the version, then the optional encoding and standalone pseudo-attributes, in this order
+		final String[] names = { "version", "encoding", "standalone" };
+		int next = 0;
+		int i = start + target.length();
+		while (true) {
+			final int whitespaceStart = i;
+			i = skipWhitespace(i, end);
+			if (i == end) {
+				break;
+			}
+			final int nameEnd = XmlChars.nameEnd(buffer, i, end);
+			final String name = buffer.substring(i, nameEnd);
+			int index = next;
+			while (index < names.length && !names[index].equals(name)) {
+				index++;
+			}
+			if (i == whitespaceStart || index == names.length || (next == 0 && index > 0)) {
+				throw error("invalid XML declaration");
+			}
+
+			i = skipWhitespace(nameEnd, end);
+			if (i == end || buffer.charAt(i) != '=') {
+				throw error("invalid XML declaration");
+			}
+			i = skipWhitespace(i + 1, end);
+			final int valueEnd = i < end ? quotedValueEnd(i, end) : -1;
+			if (valueEnd < 0) {
+				throw error("invalid XML declaration");
+			}
+			final String value = buffer.substring(i + 1, valueEnd);
+			if (
+				index == 0 && !value.matches("1\\.[0-9]+") ||
+				index == 1 && !value.matches("[A-Za-z][A-Za-z0-9._-]*") ||
+				index == 2 && !"yes".equals(value) && !"no".equals(value)
+			) {
+				throw error("invalid " + name + " " + value + " in the XML declaration");
+			}
+			next = index + 1;
+			i = valueEnd + 1;
+		}
+		if (next == 0) {
+			throw error("the version is required in the XML declaration");
+		}
+	}
+
+	private void endTag(final int start, final int end) {
+		final int nameEnd = XmlChars.nameEnd(buffer, start, end);
+		if (nameEnd == start || skipWhitespace(nameEnd, end) != end) {
+			throw error("invalid end tag");
+		}
+		endElement(buffer.substring(start, nameEnd));
+	}
+
+	private void startTag(final int start, final int end) {
+		final boolean empty = buffer.charAt(end - 2) == '/';
+		final int tagEnd = empty ? end - 2 : end - 1;
+		final int nameEnd = XmlChars.nameEnd(buffer, start, tagEnd);
+		if (nameEnd == start) {
+			throw error("element name expected");
+		}
+		if (section == Section.EPILOG) {
+			throw error("only one root element is allowed");
+		}
+
+		final String name = buffer.substring(start, nameEnd);
+		readAttributes(name, nameEnd, tagEnd);
+		section = Section.CONTENT;
+		openElements.push(name);
+		builder.startElement(name, attributes);
+
+		if (empty) {
+			endElement(name);
+		}
+	}
+
+	/**
+	 * Read all the attributes of a start tag.
+	 *
+	 * @param element The name of the element
+	 * @param start The position following the element name
+	 * @param end The position of the end of the start tag
+	 */
+	private void readAttributes(final String element, final int start, final int end) {
+		attributeNames.clear();
+		attributeValues.clear();
+
+		int i = start;
+		while (true) {
+			final int whitespaceStart = i;
+			i = skipWhitespace(i, end);
+			if (i == end) {
+				break;
+			}
+
+			final int nameEnd = XmlChars.nameEnd(buffer, i, end);
+			if (i == whitespaceStart || nameEnd == i) {
+				throw error("attribute name expected in the start tag of " + element);
+			}
+			final String name = buffer.substring(i, nameEnd);
+			i = skipWhitespace(nameEnd, end);
+			if (i == end || buffer.charAt(i) != '=') {
+				throw error("attribute value expected");
+			}
+			i = skipWhitespace(i + 1, end);
+			final int valueEnd = i < end ? quotedValueEnd(i, end) : -1;
+			if (valueEnd < 0) {
+				throw error("quoted attribute value expected");
+			}
+			if (attributeNames.contains(name)) {
+				throw error("attribute " + name + " specified twice for element " + element);
+			}
+
+			attributeNames.add(name);
+			attributeValues.add(documentType.normalizeAttributeValue(buffer, i + 1, valueEnd));
+			i = valueEnd + 1;
+		}
+
+		documentType.completeAttributes(element, attributeNames, attributeValues);
+	}
+
+	/**
+	 * @param name The qualified name of an attribute
+	 * @return The normalized value of the attribute of the start tag being read, or null if it is absent
+	 */
+	private String getAttributeValue(final String name) {
+		final int index = attributeNames.indexOf(name);
+		return index < 0 ? null : attributeValues.get(index);
+	}
+
+	private void endElement(final String name) {
+		if (openElements.size() == baseDepth || !openElements.peek().equals(name)) {
+			throw error(
+				"unexpected end of element " +
+				name +
+				(openElements.size() == baseDepth ? "" : ", expected " + openElements.peek())
+			);
+		}
+		openElements.pop();
+		if (openElements.isEmpty()) {
+			section = Section.EPILOG;
+		}
+		builder.endElement();
+	}
+
+	/**
+	 * @return The position of the quote ending the value quoted at the given position, or -1 if it is not quoted
+	 */
+	private int quotedValueEnd(final int start, final int end) {
+		final char c = buffer.charAt(start);
+		if (c != '"' && c != '\'') {
+			return -1;
+		}
+		for (int i = start + 1; i < end; i++) {
+			if (buffer.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int skipWhitespace(final int start, final int end) {
+		int i = start;
+		while (i < end && XmlChars.isWhitespace(buffer.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Part of the document being read.
+	 */
+	private enum Section {
+		/**
+		 * Before the root element.
+		 */
+		PROLOG,
+		/**
+		 * Inside the root element.
+		 */
+		CONTENT,
+		/**
+		 * After the root element.
+		 */
+		EPILOG
+	}
+}
@@ -21,21 +21,21 @@ package org.metricshub.xflat.handlers;
  */
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.parsers.ParserConfigurationException;
 import org.metricshub.xflat.Utils;
+import org.metricshub.xflat.XFlatListener.Phase;
 import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.handlers.ParserBackends.PooledDocumentBuilder;
 import org.metricshub.xflat.types.SearchPathElement;
 import org.metricshub.xflat.types.SearchPathElementAttribute;
 import org.metricshub.xflat.types.SearchPathElementProperty;
@@ -49,23 +49,25 @@ import org.xml.sax.InputSource;
 
 public class XmlHandler {
 
-	private XmlHandler() {}
-
-	private static final DocumentBuilderFactory DOCUMENT_FACTORY;
-
-	static {
-		DOCUMENT_FACTORY =
-			DocumentBuilderFactory.newInstance(
-				"com.sun.org.apache.xerces.internal.jaxp.DocumentBuilderFactoryImpl",
-				ClassLoader.getSystemClassLoader()
-			);
-		DOCUMENT_FACTORY.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, Utils.EMPTY);
-		DOCUMENT_FACTORY.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, Utils.EMPTY);
+	private final int columnCount;
+	private final ParallelNavigation parallelNavigation;
+	// Shared with the handlers of the parallel navigation tasks, so that the ids stay unique
+	private final AtomicInteger nextLinkId;
+	private final Map<LinkKey, RowValues> resultMap = new LinkedHashMap<>();
+	// Counted on every navigation, as it costs less than checking for a probe
+	private long elementsVisited;
+	private long elementsSkipped;
+
+	private XmlHandler(
+		final int columnCount,
+		final ParallelNavigation parallelNavigation,
+		final AtomicInteger nextLinkId
+	) {
+		this.columnCount = columnCount;
+		this.parallelNavigation = parallelNavigation;
+		this.nextLinkId = nextLinkId;
 	}
 
-	private final Set<String> linkKeys = new HashSet<>();
-	private final Map<String, Map<Integer, String>> resultMap = new LinkedHashMap<>();
-
 	/**
 	 * Parse the XML recursively following the search path tree.
 	 *
@@ -74,19 +76,47 @@ public class XmlHandler {
 	 * @return The result map issued from the XML parsing
 	 * @throws XFlatException for error in parsing
 	 */
-	public static Map<String, Map<Integer, String>> parse(final String xml, final SearchPathNode searchPathNode)
+	public static Map<LinkKey, RowValues> parse(final String xml, final SearchPathNode searchPathNode)
 		throws XFlatException {
+		return parse(xml, searchPathNode, null);
+	}
+
+	/**
+	 * Parse the XML recursively following the search path tree, measured by the probe.
+	 *
+	 * @param xml The XML. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @param probe The probe measuring the parsing, or null to measure nothing
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(
+		final String xml,
+		final SearchPathNode searchPathNode,
+		final ParsingProbe probe
+	) throws XFlatException {
 		// For security because build is a public function but in practical, it's impossible.
 		Utils.checkNonNull(xml, "xml");
 		Utils.checkNonNull(searchPathNode, "searchPathNode");
 
 		try (StringReader stringReader = new StringReader(xml)) {
-			final Document document = DOCUMENT_FACTORY.newDocumentBuilder().parse(new InputSource(stringReader));
+			final Document document;
+			if (probe != null) {
+				probe.start(Phase.PARSE);
+			}
+			try (PooledDocumentBuilder documentBuilder = acquireDocumentBuilder()) {
+				document = documentBuilder.parse(new InputSource(stringReader));
+			} finally {
+				if (probe != null) {
+					probe.end(Phase.PARSE);
+					probe.addBytesRead(xml.length());
+				}
+			}
 
-			final XmlHandler xmlHandler = createXmlHandlerInstance();
+			final XmlHandler xmlHandler = createXmlHandlerInstance(SearchPathTreeHandler.getColumnCount(searchPathNode));
 
 			// recursively navigate the search path tree nodes.
-			xmlHandler.initNavigation(searchPathNode, document);
+			xmlHandler.initNavigation(searchPathNode, document, probe);
 
 			return xmlHandler.getResultMap();
 		} catch (final Exception e) {
@@ -94,9 +124,51 @@ public class XmlHandler {
 		}
 	}
 
+	/**
+	 * Create an empty document, to be filled by the streaming handlers.
+	 *
+	 * @return A new empty document
+	 * @throws ParserConfigurationException if the document builder cannot be created
+	 */
+	static Document createDocument() throws ParserConfigurationException {
+		try (PooledDocumentBuilder documentBuilder = acquireDocumentBuilder()) {
+			return documentBuilder.get().newDocument();
+		}
+	}
+
+	/**
+	 * @return A document builder borrowed from the parser backend in use, to be closed after the parsing
+	 * @throws ParserConfigurationException if the document builder cannot be created
+	 */
+	static PooledDocumentBuilder acquireDocumentBuilder() throws ParserConfigurationException {
+		return ParserBackends.acquireDocumentBuilder();
+	}
+
+	/**
+	 * Navigate the node, measured by the probe.
+	 *
+	 * @param searchPathNode The first node of the search path tree
+	 * @param node The document, or the element containing the root elements
+	 * @param probe The probe measuring the navigation, or null to measure nothing
+	 */
+	void initNavigation(final SearchPathNode searchPathNode, final Node node, final ParsingProbe probe) {
+		if (probe == null) {
+			initNavigation(searchPathNode, node);
+			return;
+		}
+
+		probe.start(Phase.NAVIGATE);
+		try {
+			initNavigation(searchPathNode, node);
+		} finally {
+			probe.end(Phase.NAVIGATE);
+			probe.addNavigation(this);
+		}
+	}
+
 	void initNavigation(final SearchPathNode searchPathNode, final Node node) {
-		final Map<Integer, String> dataValues = new HashMap<>();
-		final String linkKey = generateUniqueLinkKey();
+		final RowValues dataValues = createRowValues();
+		final LinkKey linkKey = generateUniqueLinkKey();
 
 		final SearchPathElement pathElement = searchPathNode.getElement();
 
@@ -105,6 +177,7 @@ public class XmlHandler {
 			? ((Document) node).getElementsByTagName(pathElement.getName())
 			: ((Element) node).getElementsByTagName(pathElement.getName());
 		final int totalNodes = nodeList.getLength();
+		elementsVisited += totalNodes;
 
 		if (totalNodes == 0) {
 			endNavigate(pathElement, linkKey, dataValues);
@@ -113,39 +186,39 @@ public class XmlHandler {
 			if (totalNodes == 1) {
 				navigateNext(searchPathNode, nodeList.item(0), linkKey, dataValues);
 			} else {
+				storeFrame(linkKey, dataValues);
 				for (int nodeIndex = 0; nodeIndex < totalNodes; nodeIndex++) {
-					final String nextLinkKey = generateNextLinkKey(linkKey);
-					navigateNext(searchPathNode, nodeList.item(nodeIndex), nextLinkKey, new HashMap<>(dataValues));
+					final LinkKey nextLinkKey = generateNextLinkKey(linkKey);
+					navigateNext(searchPathNode, nodeList.item(nodeIndex), nextLinkKey, createRowValues());
 				}
 			}
 		}
 	}
 
-	String generateNextLinkKey(final String linkKey) {
-		return new StringBuilder()
-			.append(linkKey)
-			.append(ResultHandler.LINK_SEPARATOR)
-			.append(generateUniqueLinkKey())
-			.toString();
+	LinkKey generateNextLinkKey(final LinkKey linkKey) {
+		return new LinkKey(linkKey, nextLinkId.getAndIncrement());
 	}
 
 	void navigateNext(
 		final SearchPathNode searchPathNode,
 		final Node node,
-		final String linkKey,
-		final Map<Integer, String> dataValues
+		final LinkKey linkKey,
+		final RowValues dataValues
 	) {
 		if (searchPathNode.getNexts().isEmpty()) {
 			endNavigate(linkKey, dataValues);
 			return;
 		}
 
+		// The children of the node grouped by the searched element names, built on the first searched element
+		Map<String, List<Element>> childrenByName = null;
+
 		for (final SearchPathNode next : searchPathNode.getNexts()) {
 			final SearchPathElement pathElement = next.getElement();
 
 			if (pathElement instanceof SearchPathElementAttribute) {
 				final Element element = (Element) node;
-				final Attr attr = (Attr) element.getAttributes().getNamedItem(pathElement.getName());
+				final Attr attr = element.getAttributeNode(pathElement.getName());
 				final String value = attr != null ? attr.getValue() : null;
 				final SearchPathElementAttribute searchPathElementAttribute = (SearchPathElementAttribute) pathElement;
 
@@ -154,34 +227,161 @@ public class XmlHandler {
 				navigateNext(next, element, linkKey, dataValues);
 			} else {
 				// Getting all the node children having the next seached element name
-				final NodeList children = node.getChildNodes();
-				final List<Element> elements = IntStream
-					.range(0, children.getLength())
-					.mapToObj(children::item)
-					.filter(child -> pathElement.getName().equals(child.getNodeName()))
-					.map(Element.class::cast)
-					.collect(Collectors.toList());
+				if (childrenByName == null) {
+					childrenByName = groupChildren(searchPathNode, node);
+				}
+				final List<Element> elements = childrenByName.get(pathElement.getName());
 
 				if (elements.isEmpty()) {
 					endNavigate(pathElement, linkKey, dataValues);
 				} else if (elements.size() == 1) {
 					navigateElement(next, elements.get(0), linkKey, dataValues);
+				} else if (parallelNavigation != null && elements.size() >= parallelNavigation.getThreshold()) {
+					storeFrame(linkKey, dataValues);
+					navigateInParallel(next, elements, linkKey);
 				} else {
+					storeFrame(linkKey, dataValues);
 					for (final Element element : elements) {
-						final String nextLinkKey = generateNextLinkKey(linkKey);
-						navigateElement(next, element, nextLinkKey, new HashMap<>(dataValues));
+						final LinkKey nextLinkKey = generateNextLinkKey(linkKey);
+						navigateElement(next, element, nextLinkKey, createRowValues());
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Group the element children of a node by name, in one pass over the children, for the element names searched
+	 * after the search path node.
+	 *
+	 * @param searchPathNode The search path node matched by the node
+	 * @param node The node
+	 * @return The children of each searched element name, in the document order
+	 */
+	Map<String, List<Element>> groupChildren(final SearchPathNode searchPathNode, final Node node) {
+		final Map<String, List<Element>> childrenByName = new HashMap<>();
+		for (final SearchPathNode next : searchPathNode.getNexts()) {
+			if (!(next.getElement() instanceof SearchPathElementAttribute)) {
+				childrenByName.put(next.getElement().getName(), new ArrayList<>());
+			}
+		}
+
+		// Sibling links rather than a node list, whose cache is shared by the whole document
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+				final List<Element> elements = childrenByName.get(child.getNodeName());
+				if (elements != null) {
+					elements.add((Element) child);
+				} else {
+					elementsSkipped++;
+				}
+			}
+		}
+		return childrenByName;
+	}
+
+	/**
+	 * <p>Navigate the repeated elements of a fork with fork-join tasks, then merge their result maps in the document
+	 * order.</p>
+	 * <p>The forked link keys are created before the tasks, in the document order. Each task then only creates link
+	 * keys and reads nodes in the subtrees of its own elements, with its own handler.</p>
+	 *
+	 * @param searchPathNode The search path node matched by the elements
+	 * @param elements The repeated elements
+	 * @param linkKey The forked link key
+	 */
+	private void navigateInParallel(
+		final SearchPathNode searchPathNode,
+		final List<Element> elements,
+		final LinkKey linkKey
+	) {
+		final List<LinkKey> linkKeys = new ArrayList<>(elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			linkKeys.add(generateNextLinkKey(linkKey));
+		}
+
+		final NavigationTask task = new NavigationTask(
+			searchPathNode,
+			elements,
+			linkKeys,
+			0,
+			elements.size(),
+			parallelNavigation.getBatchSize(elements.size())
+		);
+		// Forked directly only from a task of the navigation pool, a task of another pool (like the common pool of a
+		// batch) must not run the navigation in its own pool
+		final ForkJoinPool pool = parallelNavigation.getPool();
+		final List<XmlHandler> xmlHandlers = ForkJoinTask.getPool() == pool ? task.invoke() : pool.invoke(task);
+		for (final XmlHandler xmlHandler : xmlHandlers) {
+			resultMap.putAll(xmlHandler.resultMap);
+			elementsVisited += xmlHandler.elementsVisited;
+			elementsSkipped += xmlHandler.elementsSkipped;
+		}
+	}
+
+	/**
+	 * Navigation of a range of repeated elements, split in halves down to the batch size, returning the handlers of
+	 * the ranges in the document order.
+	 */
+	private class NavigationTask extends RecursiveTask<List<XmlHandler>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient SearchPathNode searchPathNode;
+		private final transient List<Element> elements;
+		private final transient List<LinkKey> linkKeys;
+		private final int from;
+		private final int to;
+		private final int batchSize;
+
+		private NavigationTask(
+			final SearchPathNode searchPathNode,
+			final List<Element> elements,
+			final List<LinkKey> linkKeys,
+			final int from,
+			final int to,
+			final int batchSize
+		) {
+			this.searchPathNode = searchPathNode;
+			this.elements = elements;
+			this.linkKeys = linkKeys;
+			this.from = from;
+			this.to = to;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		protected List<XmlHandler> compute() {
+			if (to - from <= batchSize) {
+				final XmlHandler xmlHandler = new XmlHandler(columnCount, parallelNavigation, nextLinkId);
+				for (int i = from; i < to; i++) {
+					xmlHandler.navigateElement(
+						searchPathNode,
+						elements.get(i),
+						linkKeys.get(i),
+						xmlHandler.createRowValues()
+					);
+				}
+				return Collections.singletonList(xmlHandler);
+			}
+
+			final int middle = (from + to) >>> 1;
+			final NavigationTask left = new NavigationTask(searchPathNode, elements, linkKeys, from, middle, batchSize);
+			final NavigationTask right = new NavigationTask(searchPathNode, elements, linkKeys, middle, to, batchSize);
+			right.fork();
+			final List<XmlHandler> xmlHandlers = new ArrayList<>(left.compute());
+			xmlHandlers.addAll(right.join());
+			return xmlHandlers;
+		}
+	}
+
 	void navigateElement(
 		final SearchPathNode searchPathNode,
 		final Element element,
-		final String linkKey,
-		final Map<Integer, String> dataValues
+		final LinkKey linkKey,
+		final RowValues dataValues
 	) {
+		elementsVisited++;
 		if (searchPathNode.getElement() instanceof SearchPathElementProperty) {
 			final SearchPathElementProperty searchPathElementProperty =
 				(SearchPathElementProperty) searchPathNode.getElement();
@@ -193,8 +393,8 @@ public class XmlHandler {
 
 	void endNavigate(
 		final SearchPathElement searchPathElement,
-		final String linkKey,
-		final Map<Integer, String> dataValues
+		final LinkKey linkKey,
+		final RowValues dataValues
 	) {
 		if (searchPathElement.isFromRootTag()) {
 			dataValues.put(ResultHandler.ROOT_TAG_NOT_FOUND, Utils.EMPTY);
@@ -202,38 +402,68 @@ public class XmlHandler {
 		endNavigate(linkKey, dataValues);
 	}
 
-	void endNavigate(final String linkKey, final Map<Integer, String> dataValues) {
+	/**
+	 * <p>Store the values of a link key forked into several rows, as the parent frame of the forked link keys.</p>
+	 * <p>The forked rows only hold the values they set: the values of the parent are shared, not copied, and are
+	 * flattened into each row by {@link ResultHandler#arrange}. The parent frame is the data values object itself,
+	 * so the values set after the fork are seen by all the forked rows.</p>
+	 *
+	 * @param linkKey The forked link key
+	 * @param dataValues The values of the forked link key
+	 */
+	void storeFrame(final LinkKey linkKey, final RowValues dataValues) {
+		endNavigate(linkKey, dataValues);
+	}
+
+	void endNavigate(final LinkKey linkKey, final RowValues dataValues) {
+		// merge result row values with dataValues, the values already stored first
 		getResultMap()
-			.compute(
-				linkKey,
-				(key, value) ->
-					value == null
-						? dataValues
-						: Stream // merge result value map with dataValues map
-							.concat(value.entrySet().stream(), dataValues.entrySet().stream())
-							.collect(Collectors.toMap(Entry::getKey, Entry::getValue, (oldValue, newValue) -> oldValue))
-			);
-	}
-
-	String generateUniqueLinkKey() {
-		// generate a random Id
-		final String linkKey = Integer.toHexString(Objects.hash(Math.random()));
-
-		// if the Id already exist, generate a new one
-		if (linkKeys.contains(linkKey)) {
-			return generateUniqueLinkKey();
-		}
+			.merge(linkKey, dataValues, (value, newValue) -> value == newValue ? value : value.merge(newValue));
+	}
+
+	LinkKey generateUniqueLinkKey() {
+		// the ids are given in the navigation order, so they are unique and reproducible
+		return new LinkKey(null, nextLinkId.getAndIncrement());
+	}
+
+	/**
+	 * @return Empty row values with a slot for each property
+	 */
+	RowValues createRowValues() {
+		return new RowValues(columnCount);
+	}
 
-		// Otherwise put it in the set and return the Id
-		linkKeys.add(linkKey);
-		return linkKey;
+	/**
+	 * @param columnCount The number of properties of the search path tree
+	 * @return A new handler for one navigation
+	 */
+	static XmlHandler createXmlHandlerInstance(final int columnCount) {
+		return new XmlHandler(columnCount, null, new AtomicInteger());
 	}
 
-	static XmlHandler createXmlHandlerInstance() {
-		return new XmlHandler();
+	/**
+	 * @param automaton The automaton compiled from the search path tree, with its navigation settings
+	 * @return A new handler for one navigation
+	 */
+	static XmlHandler createXmlHandlerInstance(final SearchPathAutomaton automaton) {
+		return new XmlHandler(automaton.getColumnCount(), automaton.getParallelNavigation(), new AtomicInteger());
 	}
 
-	public Map<String, Map<Integer, String>> getResultMap() {
+	public Map<LinkKey, RowValues> getResultMap() {
 		return resultMap;
 	}
+
+	/**
+	 * @return The number of elements navigated
+	 */
+	long getElementsVisited() {
+		return elementsVisited;
+	}
+
+	/**
+	 * @return The number of children of the navigated elements which are not searched
+	 */
+	long getElementsSkipped() {
+		return elementsSkipped;
+	}
 }
@@ -0,0 +1,159 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Map;
+import org.metricshub.xflat.Utils;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.types.SearchPathNode;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * <p>SAX content handler extracting the values of the search path tree, without any DOM of the whole document.</p>
+ * <p>The search path tree is compiled into a matching automaton. On each start element the automaton moves to the
+ * state of the element, its requested attributes are read in place, and the text is only collected inside the
+ * elements matched as a property.</p>
+ * <p>The matched elements are kept in a reduced DOM, holding only these elements with their requested attributes and
+ * property texts, which is then navigated by {@link XmlHandler} once the document is ended. The row values are not
+ * emitted directly from the events on purpose: the reduced DOM keeps the forks, the relative paths ({@code ..}) and
+ * the missing elements of the search path tree arranged exactly as the DOM parsing does, and its memory depends on
+ * the matched values only.</p>
+ * <p>It can be plugged in any pipeline pushing SAX events. The result map is available once the document is ended.
+ * An instance handles one document at a time.</p>
+ */
+public class XmlSaxHandler extends DefaultHandler {
+
+	private final SearchPathNode searchPathNode;
+	private final SearchPathAutomaton automaton;
+	private MatchedDocumentBuilder builder;
+	private Map<LinkKey, RowValues> resultMap;
+
+	/**
+	 * Create a SAX content handler for the search path tree.
+	 *
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 */
+	public XmlSaxHandler(final SearchPathNode searchPathNode) {
+		Utils.checkNonNull(searchPathNode, "searchPathNode");
+
+		this.searchPathNode = searchPathNode;
+		this.automaton = new SearchPathAutomaton(searchPathNode);
+	}
+
+	/**
+	 * Parse the XML with a SAX parser of the parser backend in use, following the search path tree.
+	 *
+	 * @param xml The XML. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing, same as {@link XmlHandler#parse(String, SearchPathNode)}
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(final String xml, final SearchPathNode searchPathNode)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		try (StringReader stringReader = new StringReader(xml)) {
+			return parse(stringReader, searchPathNode);
+		}
+	}
+
+	/**
+	 * Parse the XML with a SAX parser of the parser backend in use, following the search path tree.
+	 *
+	 * @param reader The XML reader. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(final Reader reader, final SearchPathNode searchPathNode)
+		throws XFlatException {
+		Utils.checkNonNull(reader, "reader");
+
+		final XmlSaxHandler handler = new XmlSaxHandler(searchPathNode);
+
+		try {
+			ParserBackends.newSAXParser().parse(new InputSource(reader), handler);
+		} catch (final Exception e) {
+			throw new XFlatException("Error in parsing xml.", e);
+		}
+
+		return handler.getResultMap();
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+		try {
+			builder = new MatchedDocumentBuilder(automaton, XmlHandler.createDocument());
+			resultMap = null;
+		} catch (final Exception e) {
+			throw new SAXException("Cannot create the document.", e);
+		}
+	}
+
+	@Override
+	public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+		// Without the namespace-prefixes feature, namespace aware parsers may only report the local name
+		final String name = Utils.isBlank(qName) ? localName : qName;
+		builder.startElement(name, attributes::getValue);
+	}
+
+	@Override
+	public void endElement(final String uri, final String localName, final String qName) {
+		builder.endElement();
+	}
+
+	@Override
+	public void characters(final char[] ch, final int start, final int length) {
+		if (builder.isCapturing()) {
+			builder.characters(new String(ch, start, length));
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(final char[] ch, final int start, final int length) {
+		characters(ch, start, length);
+	}
+
+	@Override
+	public void endDocument() {
+		final XmlHandler xmlHandler = XmlHandler.createXmlHandlerInstance(
+			SearchPathTreeHandler.getColumnCount(searchPathNode)
+		);
+
+		// recursively navigate the search path tree nodes.
+		xmlHandler.initNavigation(searchPathNode, builder.getDocument());
+
+		resultMap = xmlHandler.getResultMap();
+		builder = null;
+	}
+
+	/**
+	 * @return The result map issued from the last ended document, or null if no document has been ended
+	 */
+	public Map<LinkKey, RowValues> getResultMap() {
+		return resultMap;
+	}
+}
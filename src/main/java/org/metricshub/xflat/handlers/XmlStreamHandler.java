@@ -0,0 +1,347 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Map;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.metricshub.xflat.Utils;
+import org.metricshub.xflat.XFlatListener.Phase;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.types.SearchPathNode;
+
+public class XmlStreamHandler {
+
+	private XmlStreamHandler() {}
+
+	/**
+	 * Parse the XML with a StAX reader following the search path tree.
+	 *
+	 * @param xml The XML. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing, same as {@link XmlHandler#parse(String, SearchPathNode)}
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(final String xml, final SearchPathNode searchPathNode)
+		throws XFlatException {
+		Utils.checkNonNull(xml, "xml");
+
+		try (StringReader stringReader = new StringReader(xml)) {
+			return parse(stringReader, searchPathNode);
+		}
+	}
+
+	/**
+	 * <p>Parse the XML with a StAX reader following the search path tree.</p>
+	 * <p>The elements which are not matched by the search path tree are skipped while reading,
+	 * so the memory depends on the document depth and on the kept values, not on the document size.</p>
+	 *
+	 * @param reader The XML reader. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(final Reader reader, final SearchPathNode searchPathNode)
+		throws XFlatException {
+		Utils.checkNonNull(searchPathNode, "searchPathNode");
+
+		return parse(reader, new SearchPathAutomaton(searchPathNode));
+	}
+
+	/**
+	 * Parse the XML with a StAX reader following an already compiled search path tree.
+	 *
+	 * @param reader The XML reader. (Mandatory)
+	 * @param automaton The automaton compiled from the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(final Reader reader, final SearchPathAutomaton automaton)
+		throws XFlatException {
+		return parse(reader, automaton, null);
+	}
+
+	/**
+	 * Parse the XML with a StAX reader following an already compiled search path tree, measured by the probe.
+	 *
+	 * @param reader The XML reader. (Mandatory)
+	 * @param automaton The automaton compiled from the search path tree. (Mandatory)
+	 * @param probe The probe measuring the parsing, or null to measure nothing
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(
+		final Reader reader,
+		final SearchPathAutomaton automaton,
+		final ParsingProbe probe
+	) throws XFlatException {
+		Utils.checkNonNull(reader, "reader");
+
+		final Reader countedReader = probe == null ? reader : probe.count(reader);
+		return parse(() -> ParserBackends.getInputFactory().createXMLStreamReader(countedReader), automaton, probe);
+	}
+
+	/**
+	 * <p>Parse the XML with a StAX reader following the search path tree.</p>
+	 * <p>The bytes are decoded by the StAX reader, with the encoding detected from the byte order mark
+	 * or declared in the XML prolog (UTF-8 by default).</p>
+	 *
+	 * @param inputStream The XML input stream. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(
+		final InputStream inputStream,
+		final SearchPathNode searchPathNode
+	) throws XFlatException {
+		Utils.checkNonNull(searchPathNode, "searchPathNode");
+
+		return parse(inputStream, new SearchPathAutomaton(searchPathNode));
+	}
+
+	/**
+	 * Parse the XML with a StAX reader following an already compiled search path tree.
+	 *
+	 * @param inputStream The XML input stream. (Mandatory)
+	 * @param automaton The automaton compiled from the search path tree. (Mandatory)
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(
+		final InputStream inputStream,
+		final SearchPathAutomaton automaton
+	) throws XFlatException {
+		return parse(inputStream, automaton, null);
+	}
+
+	/**
+	 * Parse the XML with a StAX reader following an already compiled search path tree, measured by the probe.
+	 *
+	 * @param inputStream The XML input stream. (Mandatory)
+	 * @param automaton The automaton compiled from the search path tree. (Mandatory)
+	 * @param probe The probe measuring the parsing, or null to measure nothing
+	 * @return The result map issued from the XML parsing
+	 * @throws XFlatException for error in parsing
+	 */
+	public static Map<LinkKey, RowValues> parse(
+		final InputStream inputStream,
+		final SearchPathAutomaton automaton,
+		final ParsingProbe probe
+	) throws XFlatException {
+		Utils.checkNonNull(inputStream, "inputStream");
+
+		final InputStream countedInputStream = probe == null ? inputStream : probe.count(inputStream);
+		return parse(
+			() -> ParserBackends.getInputFactory().createXMLStreamReader(countedInputStream),
+			automaton,
+			probe
+		);
+	}
+
+	private static Map<LinkKey, RowValues> parse(
+		final StreamReaderFactory streamReaderFactory,
+		final SearchPathAutomaton automaton,
+		final ParsingProbe probe
+	) throws XFlatException {
+		Utils.checkNonNull(automaton, "automaton");
+
+		try {
+			final MatchedDocumentBuilder builder = new MatchedDocumentBuilder(automaton, XmlHandler.createDocument());
+
+			if (probe != null) {
+				probe.start(Phase.PARSE);
+			}
+			final XMLStreamReader streamReader = streamReaderFactory.create();
+			try {
+				read(streamReader, builder);
+			} finally {
+				streamReader.close();
+				if (probe != null) {
+					probe.end(Phase.PARSE);
+					probe.addElementsSkipped(builder.getElementsSkipped());
+				}
+			}
+
+			final XmlHandler xmlHandler = XmlHandler.createXmlHandlerInstance(automaton);
+
+			// recursively navigate the search path tree nodes.
+			xmlHandler.initNavigation(automaton.getSearchPathNode(), builder.getDocument(), probe);
+
+			return xmlHandler.getResultMap();
+		} catch (final Exception e) {
+			throw new XFlatException("Error in parsing xml.", e);
+		}
+	}
+
+	/**
+	 * <p>Iterate over the result maps of each branch element of the XML, read with a StAX reader.</p>
+	 * <p>The XML is read lazily, one branch element at a time. The reader is not closed by the iterator.</p>
+	 *
+	 * @param reader The XML reader. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The iterator over the result maps, to be closed once done
+	 * @throws XFlatException if the StAX reader cannot be created
+	 */
+	public static ResultMapIterator iterate(final Reader reader, final SearchPathNode searchPathNode)
+		throws XFlatException {
+		Utils.checkNonNull(searchPathNode, "searchPathNode");
+
+		return iterate(reader, new SearchPathAutomaton(searchPathNode));
+	}
+
+	/**
+	 * Iterate over the result maps of each branch element of the XML, following an already compiled search path tree.
+	 *
+	 * @param reader The XML reader. (Mandatory)
+	 * @param automaton The automaton compiled from the search path tree. (Mandatory)
+	 * @return The iterator over the result maps, to be closed once done
+	 * @throws XFlatException if the StAX reader cannot be created
+	 */
+	public static ResultMapIterator iterate(final Reader reader, final SearchPathAutomaton automaton)
+		throws XFlatException {
+		Utils.checkNonNull(reader, "reader");
+
+		return iterate(() -> ParserBackends.getInputFactory().createXMLStreamReader(reader), automaton);
+	}
+
+	/**
+	 * <p>Iterate over the result maps of each branch element of the XML, read with a StAX reader.</p>
+	 * <p>The XML is read lazily, one branch element at a time. The input stream is not closed by the iterator.</p>
+	 *
+	 * @param inputStream The XML input stream. (Mandatory)
+	 * @param searchPathNode The first node of the search path tree. (Mandatory)
+	 * @return The iterator over the result maps, to be closed once done
+	 * @throws XFlatException if the StAX reader cannot be created
+	 */
+	public static ResultMapIterator iterate(final InputStream inputStream, final SearchPathNode searchPathNode)
+		throws XFlatException {
+		Utils.checkNonNull(searchPathNode, "searchPathNode");
+
+		return iterate(inputStream, new SearchPathAutomaton(searchPathNode));
+	}
+
+	/**
+	 * Iterate over the result maps of each branch element of the XML, following an already compiled search path tree.
+	 *
+	 * @param inputStream The XML input stream. (Mandatory)
+	 * @param automaton The automaton compiled from the search path tree. (Mandatory)
+	 * @return The iterator over the result maps, to be closed once done
+	 * @throws XFlatException if the StAX reader cannot be created
+	 */
+	public static ResultMapIterator iterate(final InputStream inputStream, final SearchPathAutomaton automaton)
+		throws XFlatException {
+		Utils.checkNonNull(inputStream, "inputStream");
+
+		return iterate(() -> ParserBackends.getInputFactory().createXMLStreamReader(inputStream), automaton);
+	}
+
+	private static ResultMapIterator iterate(
+		final StreamReaderFactory streamReaderFactory,
+		final SearchPathAutomaton automaton
+	) throws XFlatException {
+		Utils.checkNonNull(automaton, "automaton");
+
+		try {
+			return new ResultMapIterator(streamReaderFactory.create(), automaton, XmlHandler.createDocument());
+		} catch (final Exception e) {
+			throw new XFlatException("Error in parsing xml.", e);
+		}
+	}
+
+	/**
+	 * Pull all the events of the stream reader into the builder.
+	 *
+	 * @param streamReader The StAX reader
+	 * @param builder The matched document builder
+	 * @throws XMLStreamException for error in reading
+	 */
+	static void read(final XMLStreamReader streamReader, final MatchedDocumentBuilder builder)
+		throws XMLStreamException {
+		while (streamReader.hasNext()) {
+			readEvent(streamReader, builder);
+		}
+	}
+
+	/**
+	 * Pull the next event of the stream reader into the builder.
+	 *
+	 * @param streamReader The StAX reader
+	 * @param builder The matched document builder
+	 * @throws XMLStreamException for error in reading
+	 */
+	static void readEvent(final XMLStreamReader streamReader, final MatchedDocumentBuilder builder)
+		throws XMLStreamException {
+		switch (streamReader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				builder.startElement(streamReader.getLocalName(), name -> getAttributeValue(streamReader, name));
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				builder.endElement();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				if (builder.isCapturing()) {
+					builder.characters(streamReader.getText());
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Get an attribute value from its qualified name.
+	 *
+	 * @param streamReader The StAX reader, positioned on a start element
+	 * @param name The qualified name of the attribute
+	 * @return The attribute value or null if the attribute is absent
+	 */
+	static String getAttributeValue(final XMLStreamReader streamReader, final String name) {
+		for (int i = 0; i < streamReader.getAttributeCount(); i++) {
+			final String prefix = streamReader.getAttributePrefix(i);
+			final String localName = streamReader.getAttributeLocalName(i);
+			final boolean matches = prefix == null || prefix.isEmpty()
+				? name.equals(localName)
+				: name.length() == prefix.length() + 1 + localName.length() &&
+				name.startsWith(prefix) &&
+				name.charAt(prefix.length()) == ':' &&
+				name.endsWith(localName);
+			if (matches) {
+				return streamReader.getAttributeValue(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Create the StAX reader of the input.
+	 */
+	@FunctionalInterface
+	private interface StreamReaderFactory {
+		XMLStreamReader create() throws XMLStreamException;
+	}
+}
@@ -0,0 +1,102 @@
+package org.metricshub.xflat.io;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * <p>Explicit release of the mappings of {@link MappedByteBuffer}s, which the JDK only releases when the buffer is
+ * garbage collected.</p>
+ * <p>The mapping is released with <code>sun.misc.Unsafe.invokeCleaner</code> on Java 9 and later, and with the
+ * cleaner of the buffer on Java 8. Both are resolved reflectively: when neither is accessible, the mapping is left to
+ * the garbage collector.</p>
+ */
+final class BufferUnmapper {
+
+	private static final Unmapper NONE = buffer -> {};
+
+	private static final Unmapper UNMAPPER = createUnmapper();
+
+	private BufferUnmapper() {}
+
+	/**
+	 * Release the mapping of the buffer. The buffer must not be accessed anymore: reading it afterwards crashes the
+	 * JVM.
+	 *
+	 * @param buffer The mapped buffer
+	 */
+	static void unmap(final MappedByteBuffer buffer) {
+		try {
+			UNMAPPER.unmap(buffer);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			// The mapping is released when the buffer is garbage collected
+		}
+	}
+
+	/**
+	 * @return Whether the mappings are released explicitly, false if they are left to the garbage collector
+	 */
+	static boolean isSupported() {
+		return UNMAPPER != NONE;
+	}
+
+	/**
+	 * @return The unmapper available on this JVM, or {@link #NONE}
+	 */
+	private static Unmapper createUnmapper() {
+		try {
+			// Java 9 and later
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			final Object unsafe = theUnsafe.get(null);
+			return buffer -> invokeCleaner.invoke(unsafe, buffer);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			// Java 8, see below
+		}
+
+		try {
+			// Java 8: sun.nio.ch.DirectBuffer.cleaner().clean()
+			final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+			final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			return buffer -> {
+				final Object bufferCleaner = cleaner.invoke(buffer);
+				if (bufferCleaner != null) {
+					clean.invoke(bufferCleaner);
+				}
+			};
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			return NONE;
+		}
+	}
+
+	/**
+	 * Release of the mapping of a buffer.
+	 */
+	@FunctionalInterface
+	private interface Unmapper {
+		void unmap(MappedByteBuffer buffer) throws ReflectiveOperationException;
+	}
+}
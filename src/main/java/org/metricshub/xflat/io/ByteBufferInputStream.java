@@ -0,0 +1,89 @@
+package org.metricshub.xflat.io;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Input stream reading the remaining bytes of a {@link ByteBuffer}, without copying them.</p>
+ * <p>The buffer position and limit are not modified: the stream reads from a duplicate of the buffer.</p>
+ */
+public class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buffer;
+	private int mark;
+
+	/**
+	 * Create an input stream reading the remaining bytes of the buffer.
+	 *
+	 * @param buffer The buffer to read
+	 */
+	public ByteBufferInputStream(final ByteBuffer buffer) {
+		this.buffer = buffer.duplicate();
+		this.mark = this.buffer.position();
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(final byte[] bytes, final int offset, final int length) {
+		if (length == 0) {
+			return 0;
+		}
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		final int count = Math.min(length, buffer.remaining());
+		buffer.get(bytes, offset, count);
+		return count;
+	}
+
+	@Override
+	public long skip(final long n) {
+		final int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+		buffer.position(buffer.position() + count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(final int readLimit) {
+		mark = buffer.position();
+	}
+
+	@Override
+	public synchronized void reset() {
+		buffer.position(mark);
+	}
+}
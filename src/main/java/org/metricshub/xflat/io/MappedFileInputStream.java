@@ -0,0 +1,151 @@
+package org.metricshub.xflat.io;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Input stream reading a file through memory-mapped segments.</p>
+ * <p>The file is mapped one segment at a time, so files larger than 2 GB can be read, and the bytes are read from
+ * the page cache without being copied onto the heap first.</p>
+ * <p>A segment is unmapped as soon as the next one is mapped, and the last one when the stream is closed, so that
+ * the address space and the pages of a large file are not held until a garbage collection. When the JVM does not
+ * allow unmapping explicitly, the segments are only released when they are garbage collected.</p>
+ */
+public class MappedFileInputStream extends InputStream {
+
+	/**
+	 * Default size of the mapped segments: 256 MB.
+	 */
+	public static final long DEFAULT_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long size;
+	private final long segmentSize;
+	private long segmentStart;
+	private MappedByteBuffer segment;
+
+	/**
+	 * Open the file to read it through memory-mapped segments of the default size.
+	 *
+	 * @param path The path of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public MappedFileInputStream(final Path path) throws IOException {
+		this(path, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Open the file to read it through memory-mapped segments.
+	 *
+	 * @param path The path of the file
+	 * @param segmentSize The size of the mapped segments, between 1 and {@link Integer#MAX_VALUE}
+	 * @throws IOException if the file cannot be opened
+	 */
+	public MappedFileInputStream(final Path path, final long segmentSize) throws IOException {
+		if (segmentSize < 1 || segmentSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("segmentSize must be between 1 and " + Integer.MAX_VALUE + ".");
+		}
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Make sure the current segment has remaining bytes, mapping the next segment if needed.
+	 *
+	 * @return false at the end of the file
+	 * @throws IOException if the segment cannot be mapped
+	 */
+	private boolean ensureSegment() throws IOException {
+		if (segment != null && segment.hasRemaining()) {
+			return true;
+		}
+
+		final long nextStart = segment == null ? segmentStart : segmentStart + segment.capacity();
+		if (nextStart >= size) {
+			return false;
+		}
+
+		segmentStart = nextStart;
+		releaseSegment();
+		segment = channel.map(MapMode.READ_ONLY, segmentStart, Math.min(segmentSize, size - segmentStart));
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return ensureSegment() ? segment.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		if (!ensureSegment()) {
+			return -1;
+		}
+		final int count = Math.min(length, segment.remaining());
+		segment.get(bytes, offset, count);
+		return count;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		long skipped = 0;
+		while (skipped < n && ensureSegment()) {
+			final int count = (int) Math.min(n - skipped, segment.remaining());
+			segment.position(segment.position() + count);
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		final long position = segment == null ? segmentStart : segmentStart + segment.position();
+		return (int) Math.min(Integer.MAX_VALUE, size - position);
+	}
+
+	/**
+	 * Unmap the current segment, which must not be read anymore.
+	 */
+	private void releaseSegment() {
+		if (segment != null) {
+			final MappedByteBuffer released = segment;
+			segment = null;
+			BufferUnmapper.unmap(released);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		releaseSegment();
+		channel.close();
+	}
+}
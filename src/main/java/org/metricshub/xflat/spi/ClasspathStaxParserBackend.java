@@ -0,0 +1,83 @@
+package org.metricshub.xflat.spi;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.FactoryConfigurationError;
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * <p>Parser backend of the StAX implementation found on the classpath, like Woodstox or Aalto.</p>
+ * <p>It is only available if the standard StAX lookup finds another implementation than the JDK one, and is then
+ * preferred to the {@link JdkParserBackend}.</p>
+ * <p>It only covers the StAX entry points, see {@link XFlatParserBackend}: the StAX implementations have no DOM, so
+ * {@code XFlatQuery.parseXml(String)} is still parsed by the JDK DOM, and the SAX parsers are found by the standard
+ * JAXP lookup.</p>
+ */
+public final class ClasspathStaxParserBackend implements XFlatParserBackend {
+
+	/**
+	 * Name of the classpath StAX parser backend.
+	 */
+	public static final String NAME = "classpath-stax";
+
+	private final JdkParserBackend jdkParserBackend = new JdkParserBackend();
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+		return 10;
+	}
+
+	@Override
+	public boolean isAvailable() {
+		try {
+			return XMLInputFactory.newFactory().getClass() != JdkParserBackend.createJdkInputFactory().getClass();
+		} catch (final RuntimeException | FactoryConfigurationError e) {
+			return false;
+		}
+	}
+
+	@Override
+	public DocumentBuilderFactory createDocumentBuilderFactory() {
+		return jdkParserBackend.createDocumentBuilderFactory();
+	}
+
+	@Override
+	public XMLInputFactory createInputFactory() {
+		return XMLInputFactory.newFactory();
+	}
+
+	@Override
+	public SAXParserFactory createSAXParserFactory() {
+		return SAXParserFactory.newInstance();
+	}
+
+	@Override
+	public String toString() {
+		return NAME;
+	}
+}
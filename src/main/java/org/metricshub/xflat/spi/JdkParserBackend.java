@@ -0,0 +1,125 @@
+package org.metricshub.xflat.spi;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.lang.reflect.Method;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+
+/**
+ * <p>Parser backend of the XML parsers built in the JDK.</p>
+ * <p>Since Java 9, the JDK implementations are used even if another implementation is on the classpath. On Java 8,
+ * the DOM and SAX factories are found by the standard JAXP lookup, which is the JDK one unless another
+ * implementation is configured.</p>
+ */
+public final class JdkParserBackend implements XFlatParserBackend {
+
+	/**
+	 * Name of the JDK parser backend.
+	 */
+	public static final String NAME = "jdk";
+
+	private static final String INPUT_FACTORY_CLASS = "com.sun.xml.internal.stream.XMLInputFactoryImpl";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public DocumentBuilderFactory createDocumentBuilderFactory() {
+		return createJdkDocumentBuilderFactory();
+	}
+
+	@Override
+	public XMLInputFactory createInputFactory() {
+		return createJdkInputFactory();
+	}
+
+	@Override
+	public SAXParserFactory createSAXParserFactory() {
+		return createJdkSAXParserFactory();
+	}
+
+	/**
+	 * Create the DOM factory built in the JDK: {@code DocumentBuilderFactory.newDefaultInstance()} since Java 9,
+	 * which does not depend on the class loaders, or the standard JAXP lookup on Java 8.
+	 *
+	 * @return A new factory of the JDK document builders
+	 */
+	static DocumentBuilderFactory createJdkDocumentBuilderFactory() {
+		try {
+			final Method newDefaultInstance = DocumentBuilderFactory.class.getMethod("newDefaultInstance");
+			return (DocumentBuilderFactory) newDefaultInstance.invoke(null);
+		} catch (final NoSuchMethodException e) {
+			// Java 8
+			return DocumentBuilderFactory.newInstance();
+		} catch (final ReflectiveOperationException e) {
+			throw new XFlatRunTimeException("Error in creating the JDK DOM factory.", e);
+		}
+	}
+
+	/**
+	 * Create the SAX factory built in the JDK: {@code SAXParserFactory.newDefaultInstance()} since Java 9, or the
+	 * standard JAXP lookup on Java 8.
+	 *
+	 * @return A new factory of the JDK SAX parsers
+	 */
+	static SAXParserFactory createJdkSAXParserFactory() {
+		try {
+			final Method newDefaultInstance = SAXParserFactory.class.getMethod("newDefaultInstance");
+			return (SAXParserFactory) newDefaultInstance.invoke(null);
+		} catch (final NoSuchMethodException e) {
+			// Java 8
+			return SAXParserFactory.newInstance();
+		} catch (final ReflectiveOperationException e) {
+			throw new XFlatRunTimeException("Error in creating the JDK SAX factory.", e);
+		}
+	}
+
+	/**
+	 * Create the StAX factory built in the JDK: {@code XMLInputFactory.newDefaultFactory()} since Java 9, where the
+	 * implementation class is not exported, or the implementation class itself on Java 8.
+	 *
+	 * @return A new factory of the JDK StAX readers
+	 */
+	static XMLInputFactory createJdkInputFactory() {
+		try {
+			final Method newDefaultFactory = XMLInputFactory.class.getMethod("newDefaultFactory");
+			return (XMLInputFactory) newDefaultFactory.invoke(null);
+		} catch (final NoSuchMethodException e) {
+			try {
+				return (XMLInputFactory) Class.forName(INPUT_FACTORY_CLASS).newInstance();
+			} catch (final ReflectiveOperationException e1) {
+				throw new XFlatRunTimeException("Error in creating the JDK StAX factory.", e1);
+			}
+		} catch (final ReflectiveOperationException e) {
+			throw new XFlatRunTimeException("Error in creating the JDK StAX factory.", e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return NAME;
+	}
+}
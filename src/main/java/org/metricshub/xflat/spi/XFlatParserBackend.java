@@ -0,0 +1,78 @@
+package org.metricshub.xflat.spi;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * <p>Parser backend providing the XML parser factories used by XFlat.</p>
+ * <p>The backends are discovered with a {@link java.util.ServiceLoader}. The available backend with the highest
+ * priority is used, unless a backend is selected by name with the
+ * {@code org.metricshub.xflat.parserBackend} system property.</p>
+ * <p>The factories are configured by XFlat once created: namespace awareness and external entities are
+ * disabled.</p>
+ * <p>Each factory covers its own entry points:</p>
+ * <ul>
+ * <li>the DOM factory: {@code XFlatQuery.parseXml(String)}, {@code parseXmlBatch}, {@code parseXmlAsync(String)}
+ * and the {@code XmlHandler} parsings,</li>
+ * <li>the StAX factory: the other {@code parseXml} inputs, with or without a sink, {@code parseXmlStream},
+ * {@code stream}, and the XML strings of a query with parallel navigation,</li>
+ * <li>the SAX factory: {@code XmlSaxHandler.parse}.</li>
+ * </ul>
+ * <p>The non-blocking {@code XFlatQuery.feeder} has its own reader and does not depend on the backend.</p>
+ */
+public interface XFlatParserBackend {
+	/**
+	 * @return The name of the backend, used to select it
+	 */
+	String getName();
+
+	/**
+	 * @return The priority of the backend, the highest priority backend being used by default
+	 */
+	default int getPriority() {
+		return 0;
+	}
+
+	/**
+	 * @return Whether the parser implementation of the backend is available in the current runtime
+	 */
+	default boolean isAvailable() {
+		return true;
+	}
+
+	/**
+	 * @return A new factory of the DOM document builders, used to parse the XML strings
+	 */
+	DocumentBuilderFactory createDocumentBuilderFactory();
+
+	/**
+	 * @return A new factory of the StAX readers, used to stream the XML
+	 */
+	XMLInputFactory createInputFactory();
+
+	/**
+	 * @return A new factory of the SAX parsers, used by the SAX content handler
+	 */
+	SAXParserFactory createSAXParserFactory();
+}
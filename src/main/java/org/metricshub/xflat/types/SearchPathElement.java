@@ -26,7 +26,8 @@ public class SearchPathElement {
 	private final boolean fromRootTag;
 
 	public SearchPathElement(final String name, final boolean fromRootTag) {
-		this.name = name;
+		// Interned like the tag names of the DOM parser, so that the name lookups first compare the references
+		this.name = name == null ? null : name.intern();
 		this.fromRootTag = fromRootTag;
 	}
 
@@ -0,0 +1,171 @@
+package org.metricshub.xflat.jfr;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.stream.Stream;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import org.metricshub.xflat.XFlat;
+import org.metricshub.xflat.XFlatListener;
+import org.metricshub.xflat.XFlatQuery;
+import org.metricshub.xflat.XFlatStatistics;
+
+/**
+ * <p>Bridge from the {@link XFlatListener} phases to the XFlat Java Flight Recorder events: compile, parse,
+ * navigation and row assembly.</p>
+ * <p>The events are disabled by default. The bridge is registered as a listener only while a recording enables one of
+ * them, so that XFlat measures nothing the rest of the time. Enable them in the settings of a recording, e.g.
+ * <code>jfr configure +org.metricshub.xflat.Parse#enabled=true</code>, or with {@link Recording#enable(String)}.</p>
+ * <p>The events of a parsing are committed when it ends successfully, with its input size and row count: a failed
+ * parsing is not recorded.</p>
+ * <p>This class is compiled for Java 11 and loaded reflectively by XFlat: it is not an API.</p>
+ */
+public final class XFlatEvents implements XFlatListener, FlightRecorderListener {
+
+	private static final XFlatEvents INSTANCE = new XFlatEvents();
+
+	private static final Class<?>[] EVENT_CLASSES = {
+		CompileEvent.class,
+		ParseEvent.class,
+		NavigateEvent.class,
+		ArrangeEvent.class
+	};
+
+	/**
+	 * The events of the phases started by each thread, by phase.
+	 */
+	private final ThreadLocal<XFlatEvent[]> events = ThreadLocal.withInitial(() -> new XFlatEvent[Phase.values().length]);
+
+	private boolean registered;
+
+	private XFlatEvents() {}
+
+	/**
+	 * Watch the recordings, to register the bridge while they enable the XFlat events.
+	 */
+	public static void install() {
+		FlightRecorder.addListener(INSTANCE);
+
+		// Recordings started with the JVM are already running
+		if (FlightRecorder.isInitialized()) {
+			INSTANCE.update();
+		}
+	}
+
+	@Override
+	public void recordingStateChanged(final Recording recording) {
+		update();
+	}
+
+	/**
+	 * Register or unregister the bridge, whether the running recordings enable one of the XFlat events.
+	 */
+	private synchronized void update() {
+		final boolean enabled = isAnyEventEnabled();
+		if (enabled && !registered) {
+			XFlat.addListener(this);
+		} else if (!enabled && registered) {
+			XFlat.removeListener(this);
+		}
+		registered = enabled;
+	}
+
+	/**
+	 * @return Whether one of the XFlat events is enabled by the running recordings
+	 */
+	@SuppressWarnings("unchecked")
+	private static boolean isAnyEventEnabled() {
+		return Stream
+			.of(EVENT_CLASSES)
+			.anyMatch(eventClass -> EventType.getEventType((Class<? extends XFlatEvent>) eventClass).isEnabled());
+	}
+
+	@Override
+	public void phaseStarted(final Phase phase) {
+		final XFlatEvent event = createEvent(phase);
+		event.begin();
+		events.get()[phase.ordinal()] = event;
+	}
+
+	/**
+	 * @param phase The phase
+	 * @return A new event of the phase
+	 */
+	private static XFlatEvent createEvent(final Phase phase) {
+		switch (phase) {
+			case COMPILE:
+				return new CompileEvent();
+			case PARSE:
+				return new ParseEvent();
+			case NAVIGATE:
+				return new NavigateEvent();
+			default:
+				return new ArrangeEvent();
+		}
+	}
+
+	@Override
+	public void phaseEnded(final Phase phase, final long durationNanos) {
+		final XFlatEvent event = events.get()[phase.ordinal()];
+		if (event != null) {
+			event.end();
+		}
+	}
+
+	@Override
+	public void queryCompiled(final XFlatQuery query, final long durationNanos) {
+		commit(Phase.COMPILE, query, null);
+	}
+
+	@Override
+	public void parsingEnded(final XFlatQuery query, final XFlatStatistics statistics) {
+		commit(Phase.PARSE, query, statistics);
+		commit(Phase.NAVIGATE, query, statistics);
+		commit(Phase.ARRANGE, query, statistics);
+	}
+
+	/**
+	 * Commit the ended event of the phase, if the phase started while the bridge was registered.
+	 *
+	 * @param phase The phase
+	 * @param query The query
+	 * @param statistics The statistics of the parsing, or null for the compilation
+	 */
+	private void commit(final Phase phase, final XFlatQuery query, final XFlatStatistics statistics) {
+		final XFlatEvent[] threadEvents = events.get();
+		final XFlatEvent event = threadEvents[phase.ordinal()];
+		if (event == null) {
+			return;
+		}
+		threadEvents[phase.ordinal()] = null;
+
+		event.rootTag = query.getRootTag();
+		event.propertyCount = query.getPropertyCount();
+		if (statistics != null) {
+			final ParsingEvent parsingEvent = (ParsingEvent) event;
+			parsingEvent.inputSize = statistics.getBytesRead();
+			parsingEvent.rowCount = statistics.getRowCount();
+		}
+		event.commit();
+	}
+}
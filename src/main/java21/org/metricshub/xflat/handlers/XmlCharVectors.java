@@ -0,0 +1,81 @@
+package org.metricshub.xflat.handlers;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * XFlat Utility
+ * ჻჻჻჻჻჻
+ * Copyright (C) 2023 - 2025 MetricsHub
+ * ჻჻჻჻჻჻
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>Scanning of the fed characters by vectors, only loaded by the {@link XmlCharScanner} when the
+ * <code>jdk.incubator.vector</code> module is added to the JVM.</p>
+ * <p>The characters are loaded as shorts, so the comparisons are signed: the characters from <code>0xD800</code> are
+ * the shorts from <code>(short) 0xD800</code> to <code>-1</code>, and the characters below <code>0x20</code> the
+ * shorts from <code>0</code> to <code>0x1F</code>. Both are the shorts below <code>0x20</code> and from
+ * <code>(short) 0xD800</code>.</p>
+ */
+final class XmlCharVectors {
+
+	// The 512-bit vectors are not faster than the 256-bit ones on the runs of plain characters of the XML
+	private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED.vectorBitSize() > 256
+		? ShortVector.SPECIES_256
+		: ShortVector.SPECIES_PREFERRED;
+	private static final short CONTROL_END = 0x20;
+	private static final short SURROGATE_START = (short) 0xD800;
+
+	// Most runs of plain characters between the line ends and the indentations of the markup are shorter
+	private static final int PROBE_LENGTH = 64;
+
+	private XmlCharVectors() {}
+
+	/**
+	 * Find the first character to check in the range, see {@link XmlCharScanner#indexOfCharToCheck}.
+	 *
+	 * @param chars The characters
+	 * @param from The index of the first character to scan
+	 * @param to The index following the last character to scan
+	 * @return The index of the first character below <code>0x20</code> or from <code>0xD800</code>, or
+	 * <code>to</code> if there is none
+	 */
+	static int indexOfCharToCheck(final char[] chars, final int from, final int to) {
+		// The first characters are compared one by one, a vector is only loaded for a long run of plain characters
+		final int probeEnd = Math.min(from + PROBE_LENGTH, to);
+		int i = XmlCharScanner.scan(chars, from, probeEnd);
+		if (i < probeEnd) {
+			return i;
+		}
+
+		final int length = SPECIES.length();
+		for (final int bound = i + SPECIES.loopBound(to - i); i < bound; i += length) {
+			final ShortVector vector = ShortVector.fromCharArray(SPECIES, chars, i);
+			final VectorMask<Short> charsToCheck = vector
+				.compare(VectorOperators.LT, CONTROL_END)
+				.and(vector.compare(VectorOperators.GE, SURROGATE_START));
+			if (charsToCheck.anyTrue()) {
+				return i + charsToCheck.firstTrue();
+			}
+		}
+
+		// The last characters, fewer than a vector
+		return XmlCharScanner.scan(chars, i, to);
+	}
+}
@@ -0,0 +1,130 @@
+package org.metricshub.xflat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * <p>Bytes allocated by one {@link XFlat#parseXml(String, String, String)} call, per input byte and per output row,
+ * checked against the budgets of <code>allocation-budget-java&lt;version&gt;.properties</code>.</p>
+ * <p>The parsing is warmed up first, and the smallest allocation of several calls is kept, so that the measure does
+ * not depend on the JIT compilation. The budgets are calibrated for each Java feature version, as the XML
+ * implementation of the JDK changes the allocation: the test is skipped on a version without budgets, and if the JVM
+ * does not measure the allocated bytes.</p>
+ */
+class AllocationBudgetTest extends XFlatTestUtils {
+
+	private static final int WARM_UP_CALLS = 300;
+	private static final int MEASURED_CALLS = 20;
+
+	@TestFactory
+	Stream<DynamicTest> testAllocationBudget() throws Exception {
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(
+			threadMXBean instanceof com.sun.management.ThreadMXBean &&
+			((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported(),
+			"The JVM does not measure the allocated bytes"
+		);
+		final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		final String budgetFile = "allocation-budget-java" + getJavaFeatureVersion() + ".properties";
+		final Properties budgets = new Properties();
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(budgetFile)) {
+			assumeTrue(inputStream != null, () -> "No allocation budgets calibrated for this Java version: " + budgetFile);
+			budgets.load(inputStream);
+		}
+
+		final XmlWorkloadGenerator dense = new XmlWorkloadGenerator().withSize(100_000);
+		final XmlWorkloadGenerator sparse = new XmlWorkloadGenerator()
+			.withFanOuts(1, 4, 3)
+			.withAttributeCount(5)
+			.withTextLength(16)
+			.withPresence(0.3)
+			.withSize(100_000);
+
+		return Stream
+			.of(
+				new Workload("test.xml", getXml("test.xml"), PROPERTIES, ROOT_TAG),
+				new Workload(
+					"ucsEquipementFan.xml",
+					getXml("ucsEquipementFan.xml"),
+					">classId;outConfigs/equipmentFan>dn;outConfigs/equipmentFan>model",
+					"/configResolveClass"
+				),
+				new Workload("dense", dense.generate(), dense.getProperties(), XmlWorkloadGenerator.ROOT_TAG),
+				new Workload("sparse", sparse.generate(), sparse.getProperties(), XmlWorkloadGenerator.ROOT_TAG)
+			)
+			.map(workload -> DynamicTest.dynamicTest(workload.name, () -> workload.check(allocationMXBean, budgets)));
+	}
+
+	/**
+	 * @return The feature version of the running Java: 8 for 1.8, then 11, 17, 21...
+	 */
+	private static String getJavaFeatureVersion() {
+		final String version = System.getProperty("java.specification.version");
+		return version.startsWith("1.") ? version.substring(2) : version;
+	}
+
+	/**
+	 * A document, with its properties and root tag.
+	 */
+	private static class Workload {
+
+		private final String name;
+		private final String xml;
+		private final String properties;
+		private final String rootTag;
+
+		private Workload(final String name, final String xml, final String properties, final String rootTag) {
+			this.name = name;
+			this.xml = xml;
+			this.properties = properties;
+			this.rootTag = rootTag;
+		}
+
+		private void check(final com.sun.management.ThreadMXBean allocationMXBean, final Properties budgets)
+			throws Exception {
+			final long threadId = Thread.currentThread().getId();
+
+			int rowCount = 0;
+			for (int i = 0; i < WARM_UP_CALLS; i++) {
+				rowCount = XFlat.parseXml(xml, properties, rootTag).size();
+			}
+			assertTrue(rowCount > 0, name);
+
+			long allocatedBytes = Long.MAX_VALUE;
+			for (int i = 0; i < MEASURED_CALLS; i++) {
+				final long start = allocationMXBean.getThreadAllocatedBytes(threadId);
+				final List<List<String>> rows = XFlat.parseXml(xml, properties, rootTag);
+				allocatedBytes = Math.min(allocatedBytes, allocationMXBean.getThreadAllocatedBytes(threadId) - start);
+				assertEquals(rowCount, rows.size(), name);
+			}
+
+			final double perInputByte = (double) allocatedBytes / xml.getBytes(StandardCharsets.UTF_8).length;
+			final double perRow = (double) allocatedBytes / rowCount;
+			checkBudget(budgets, name + ".perInputByte", perInputByte);
+			checkBudget(budgets, name + ".perRow", perRow);
+		}
+
+		private static void checkBudget(final Properties budgets, final String key, final double actual) {
+			final String budget = budgets.getProperty(key);
+			assertNotNull(budget, () -> "No budget " + key + ", measured " + actual);
+			assertTrue(
+				actual <= Double.parseDouble(budget),
+				() -> String.format("%s: %.1f bytes allocated, over the budget of %s", key, actual, budget)
+			);
+		}
+	}
+}
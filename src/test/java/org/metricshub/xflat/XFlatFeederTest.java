@@ -0,0 +1,433 @@
+package org.metricshub.xflat;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.handlers.ResultMapFeeder;
+import org.metricshub.xflat.handlers.SearchPathAutomaton;
+import org.metricshub.xflat.handlers.SearchPathTreeHandler;
+
+class XFlatFeederTest extends XFlatTestUtils {
+
+	@Test
+	void testFeedChunks() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> XFlat.feeder(PROPERTIES, ROOT_TAG, null, row -> null));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> XFlat.feeder(PROPERTIES, ROOT_TAG, StandardCharsets.UTF_8, null)
+		);
+
+		for (final String file : new String[] { "test.xml", "test2.xml", "ucsEquipementFan.xml" }) {
+			final String xml = getXml(file);
+			final List<List<String>> expected = XFlat.parseXml(xml, PROPERTIES, ROOT_TAG);
+			final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+
+			for (final int chunkSize : new int[] { 1, 3, 64, bytes.length }) {
+				assertEquals(expected, feed(bytes, chunkSize, PROPERTIES, ROOT_TAG), file + " by " + chunkSize);
+			}
+		}
+	}
+
+	@Test
+	void testMarkup() throws Exception {
+		final String xml =
+			"\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" +
+			"<!DOCTYPE Document [ <!ELEMENT Document ANY> ]>\n" +
+			"<!-- <Document><Owner>comment</Owner></Document> -->" +
+			"<Document><Owner>A &amp; B &lt;&#233;&#x20AC;&gt;</Owner>" +
+			"<OS name='café \"&apos;\n1&apos;\"'/>" +
+			"<Disks><Disk name=\"d1\" size=\"10\"><Free><![CDATA[<5>]]> GB</Free><?pi data?>" +
+			"<Volumes><Volume name=\"v1\"><Subscribe>1\r\n2</Subscribe></Volume><Volume/></Volumes></Disk>" +
+			"</Disks></Document>\n";
+		final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+
+		final List<List<String>> expected = XFlat.parseXmlStream(xml.substring(1), PROPERTIES, ROOT_TAG);
+		assertEquals("A & B <é€>", expected.get(0).get(1));
+		assertEquals("café \"' 1'\"", expected.get(0).get(0));
+
+		for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+			assertEquals(expected, feed(bytes, chunkSize, PROPERTIES, ROOT_TAG), "by " + chunkSize);
+		}
+	}
+
+	@Test
+	void testNoRootElement() throws Exception {
+		final byte[] bytes = "<Other><Owner>a</Owner></Other>".getBytes(StandardCharsets.UTF_8);
+		assertEquals(
+			XFlat.parseXml(new String(bytes, StandardCharsets.UTF_8), PROPERTIES, ROOT_TAG),
+			feed(bytes, 5, PROPERTIES, ROOT_TAG)
+		);
+	}
+
+	@Test
+	void testPauseAndStop() throws Exception {
+		final String xml = "<a><Document><Owner>1</Owner></Document><Document><Owner>2</Owner></Document></a>";
+		final ByteBuffer bytes = ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8));
+
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatFeeder pausing = XFlat.feeder(
+			"Owner",
+			"/Document",
+			StandardCharsets.UTF_8,
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.PAUSE;
+			}
+		);
+		pausing.feed(bytes);
+		assertFalse(bytes.hasRemaining());
+		assertEquals(asList(asList("1")), rows);
+		assertTrue(pausing.isPaused());
+		assertThrows(IllegalStateException.class, () -> pausing.feed(utf8(" ")));
+
+		pausing.endOfInput();
+		assertEquals(1, rows.size());
+		pausing.resume();
+		assertEquals(asList(asList("1"), asList("2")), rows);
+		assertTrue(pausing.isPaused());
+		pausing.resume();
+		assertTrue(pausing.isDone());
+		assertFalse(pausing.isPaused());
+
+		rows.clear();
+		bytes.rewind();
+		final XFlatFeeder stopping = XFlat.feeder(
+			"Owner",
+			"/Document",
+			StandardCharsets.UTF_8,
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.STOP;
+			}
+		);
+		stopping.feed(bytes);
+		assertTrue(stopping.isDone());
+		assertEquals(asList(asList("1")), rows);
+
+		// The next chunks are ignored
+		stopping.feed(ByteBuffer.wrap(new byte[] { '<' })).endOfInput();
+		assertEquals(1, rows.size());
+	}
+
+	@Test
+	void testBackpressure() throws Exception {
+		final StringBuilder builder = new StringBuilder("<Document><Disks>");
+		for (int i = 0; i < 1000; i++) {
+			builder.append("<Disk name=\"Disk").append(i).append("\"/>");
+		}
+		final String xml = builder.append("</Disks></Document>").toString();
+		final String properties = "Disks/Disk>name";
+
+		// A single chunk of many disks, with a sink pausing after each row
+		final ResultMapFeeder resultMapFeeder = ResultMapFeeder.create(
+			new SearchPathAutomaton(SearchPathTreeHandler.build(asList(properties), "/Document")),
+			StandardCharsets.UTF_8
+		);
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatFeeder feeder = new XFlatFeeder(
+			resultMapFeeder,
+			1,
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.PAUSE;
+			}
+		);
+		feeder.feed(utf8(xml)).endOfInput();
+		while (feeder.isPaused()) {
+			// The next disks are not read while the sink is paused
+			assertTrue(resultMapFeeder.getPendingResultMapCount() <= 1);
+			feeder.resume();
+		}
+		assertTrue(feeder.isDone());
+		assertEquals(XFlat.parseXml(xml, properties, "/Document"), rows);
+	}
+
+	@Test
+	void testSinkNullSignal() throws Exception {
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatFeeder feeder = XFlat.feeder(
+			"Owner",
+			"/Document",
+			StandardCharsets.UTF_8,
+			row -> {
+				rows.add(row);
+				return null;
+			}
+		);
+		final IllegalArgumentException exception = assertThrows(
+			IllegalArgumentException.class,
+			() -> feeder.feed(utf8("<a><Document><Owner>1</Owner></Document><Document><Owner>2</Owner></Document></a>"))
+		);
+		assertEquals("The signal returned by the sink must not be null.", exception.getMessage());
+		assertTrue(feeder.isDone());
+		assertEquals(asList(asList("1")), rows);
+	}
+
+	@Test
+	void testBranchElements() throws Exception {
+		// Each disk is pushed as soon as it is fed, while its document is not complete
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatFeeder feeder = XFlat.feeder(
+			">os;Disks/Disk>name;Disks/Disk/Size",
+			"/Document",
+			StandardCharsets.UTF_8,
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.CONTINUE;
+			}
+		);
+		feeder.feed(utf8("<Document os=\"Linux\"><Disks><Disk name=\"Disk1\"><Size>1</Size></Disk>"));
+		assertEquals(asList(asList("Linux", "Disk1", "1")), rows);
+		feeder.feed(utf8("<Disk name=\"Disk2\"><Size>2</Size>"));
+		assertEquals(1, rows.size());
+		feeder.feed(utf8("</Disk>"));
+		assertEquals(asList(asList("Linux", "Disk1", "1"), asList("Linux", "Disk2", "2")), rows);
+		feeder.feed(utf8("</Disks></Document>")).endOfInput();
+		assertEquals(2, rows.size());
+
+		// Same rows as the DOM parsing, with ancestor attributes, missing branches and nested root elements
+		final String xml =
+			"<r><Document a=\"x\"><Disks b=\"y\"><Disk name=\"1\"><Size>3</Size></Disk><Disk name=\"2\"/></Disks>" +
+			"<Disks/><Disks><Disk name=\"3\"><Document a=\"n\"><Disks><Disk name=\"n1\"/></Disks></Document>" +
+			"<Size>4</Size><Size>5</Size></Disk></Disks></Document><Document a=\"z\"/></r>";
+		final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+		for (final String[] query : new String[][] {
+			{ ">a;Disks>b;Disks/Disk>name;Disks/Disk/Size", "/Document" },
+			{ ">name;Size", "/Document/Disks/Disk" },
+		}) {
+			assertEquals(XFlat.parseXml(xml, query[0], query[1]), feed(bytes, 7, query[0], query[1]), query[1]);
+		}
+	}
+
+	@Test
+	void testErrors() throws Exception {
+		for (final String xml : new String[] {
+			"<Document><Owner>a</Document>",
+			"<Document><Owner>a &unknown; b</Owner></Document>",
+			"<Document><OS name=a/></Document>",
+			"<Document><Owner>a</Owner>",
+			"<Document><Owner>a</Owner></Document><"
+		}) {
+			final XFlatFeeder feeder = XFlat.feeder(
+				PROPERTIES,
+				ROOT_TAG,
+				StandardCharsets.UTF_8,
+				row -> RowConsumer.Signal.CONTINUE
+			);
+			assertThrows(
+				XFlatException.class,
+				() -> feeder.feed(ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8))).endOfInput(),
+				xml
+			);
+			assertTrue(feeder.isDone());
+		}
+
+		// Character cut by the end of input
+		final byte[] bytes = "<Document>é".getBytes(StandardCharsets.UTF_8);
+		final XFlatFeeder feeder = XFlat.feeder(
+			PROPERTIES,
+			ROOT_TAG,
+			StandardCharsets.UTF_8,
+			row -> RowConsumer.Signal.CONTINUE
+		);
+		feeder.feed(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+		assertThrows(XFlatException.class, feeder::endOfInput);
+	}
+
+	@Test
+	void testWellFormedness() throws Exception {
+		// Rejected by both the DOM parsing and the feeder
+		for (final String xml : new String[] {
+			"<Document/><Document/>",
+			"<Document/>x",
+			"x<Document/>",
+			"<Document/>&amp;",
+			"<![CDATA[x]]><Document/>",
+			"<Document/><!-- a --><Other/>",
+			"<!-- only a comment -->",
+			"<Document><X a='1' a='2'/></Document>",
+			"<Document><X a='1'b='2'/></Document>",
+			"<Document><X a='<'/></Document>",
+			"<Document><X a='&u;'/></Document>",
+			"<Document><X a=1/></Document>",
+			"<Document><X 1a='1'/></Document>",
+			"<Document>]]></Document>",
+			"<Document><!-- a -- b --></Document>",
+			"<Document><!-- a ---></Document>",
+			"<Document>&#0;</Document>",
+			"<Document>&#+65;</Document>",
+			"<Document>&#x110000;</Document>",
+			"<Document>&amp</Document>",
+			"<Document>\u0001</Document>",
+			"<Document>\uFFFE</Document>",
+			"<Document><1X/></Document>",
+			"<Document></Document x>",
+			"<Document><?xml version='1.0'?></Document>",
+			" <?xml version='1.0'?><Document/>",
+			"<?xml version='1.0' encoding='UTF-8' standalone='maybe'?><Document/>",
+			"<?xml encoding='UTF-8'?><Document/>",
+			"<?xml version='1.0' standalone='yes' encoding='UTF-8'?><Document/>",
+			"<?xml version='2.0'?><Document/>",
+			"<? pi?><Document/>",
+			"<!ELEMENT Document ANY><Document/>",
+			"<!DOCTYPE Document><!DOCTYPE Document><Document/>",
+			"<Document/><!DOCTYPE Document>",
+			"<!DOCTYPE Document SYSTEM 'x.dtd'><Document/>",
+			"<!DOCTYPE Document PUBLIC 'p' 'x.dtd'><Document/>",
+			"<!DOCTYPE Document [<!ENTITY e SYSTEM 'x.xml'>]><Document><Owner>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY % p SYSTEM 'x.dtd'> %p;]><Document/>",
+			"<!DOCTYPE Document [<!ENTITY e '<Owner>x'>]><Document>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY e '</Owner>'>]><Document><Owner>&e;</Document>",
+			"<!DOCTYPE Document [<!ENTITY e '&e;'>]><Document><Owner>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY e '<'>]><Document><Owner>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY e 'x&#60;y'>]><Document><OS name='&e;'/></Document>",
+			"<!DOCTYPE Document [<!ENTITY e 'a%b'>]><Document/>",
+			"<!DOCTYPE Document [<!ELEMENT Document ANY><!BOGUS>]><Document/>",
+			"<!DOCTYPE Document [<!ATTLIST OS name BOGUS #IMPLIED>]><Document/>",
+			"<!DOCTYPE Document [<!ENTITY n SYSTEM 'x' NDATA gif>]><Document><Owner>&n;</Owner></Document>",
+			"<!DOCTYPE Document [<?xml version='1.0'?>]><Document/>",
+			"<!DOCTYPE Document [<!ENTITY e 'v'>]><Document/>&e;",
+			"<Document><Owner>a</Document>",
+			"<Document><Owner>a &unknown; b</Owner></Document>",
+			"<Document><OS name=a/></Document>",
+			"<Document><Owner>a</Owner>",
+			"<Document><Owner>a</Owner></Document><"
+		}) {
+			assertThrows(XFlatException.class, () -> XFlat.parseXml(xml, PROPERTIES, ROOT_TAG), xml);
+			final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+			for (final int chunkSize : new int[] { 1, bytes.length }) {
+				final XFlatFeeder feeder = XFlat.feeder(
+					PROPERTIES,
+					ROOT_TAG,
+					StandardCharsets.UTF_8,
+					row -> RowConsumer.Signal.CONTINUE
+				);
+				assertThrows(
+					XFlatException.class,
+					() -> {
+						for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+							feeder.feed(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+						}
+						feeder.endOfInput();
+					},
+					xml + " by " + chunkSize
+				);
+				assertTrue(feeder.isDone());
+			}
+		}
+
+		// Same rows as the DOM parsing
+		for (final String xml : new String[] {
+			"<!DOCTYPE Document [<!ENTITY e SYSTEM 'x.xml'>]><Document><Owner>a</Owner></Document>",
+			"<!DOCTYPE Document [%p;<!ENTITY e 'v'>]><Document><Owner>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY % p '<!ENTITY e \"pe\">'> %p;]><Document><Owner>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY e '<Owner>x</Owner>'>]><Document>&e;</Document>",
+			"<!DOCTYPE Document [<!ENTITY d '<Disk name=\"d&#38;#38;1\"><Free>&f;</Free></Disk>'><!ENTITY f '5'>]>" +
+			"<Document><Disks>&d;&d;<Disk name='d2'/></Disks></Document>",
+			"<!DOCTYPE Document [<!ATTLIST OS name CDATA 'default'>]><Document><OS/></Document>",
+			"<!DOCTYPE Document [<!ATTLIST OS name NMTOKENS #IMPLIED>]><Document><OS name='  a   b '/></Document>",
+			"<!DOCTYPE Document [<!ATTLIST OS name (a|b) 'b' type CDATA #FIXED 'f'>]><Document><OS/></Document>",
+			"<!DOCTYPE Document [<!ENTITY e 'x&#38;#60;y'>]><Document><OS name='&e;'/></Document>",
+			"<!DOCTYPE Document [<!ENTITY e 'a&#13;b'>]><Document><Owner>&e;</Owner></Document>",
+			"<!DOCTYPE Document [<!-- it's ] > --><?pi ]>?>]><Document><Owner>a</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY e 'v'><!ENTITY e 'w'><!ENTITY lt '&#38;#60;'>]>" +
+			"<Document><Owner>&e;&lt;</Owner></Document>",
+			"<!DOCTYPE Document [<!ENTITY n SYSTEM 'x' NDATA gif><!NOTATION gif PUBLIC 'g'>" +
+			"<!ELEMENT Document (Owner|OS)*><!ELEMENT Owner (#PCDATA)>]><Document><Owner>a</Owner></Document>",
+			"<Document><Owner>a&#13;b\r\nc\rd</Owner><OS name='a&#10;b&#9;c\r\nd\te'/></Document>",
+			"<Document ><Owner\n>a</Owner ><OS\tname = \"x\" /></Document\r\n>",
+			"<?xml version='1.0' encoding='UTF-8' standalone='no' ?><Document/><!-- end --><?pi?>\n"
+		}) {
+			final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+			final List<List<String>> expected = XFlat.parseXml(xml, PROPERTIES, ROOT_TAG);
+			for (final int chunkSize : new int[] { 1, 7, bytes.length }) {
+				assertEquals(expected, feed(bytes, chunkSize, PROPERTIES, ROOT_TAG), xml + " by " + chunkSize);
+			}
+		}
+	}
+
+	@Test
+	void testEncoding() throws Exception {
+		final String xml = "<Document><Owner>Zoë € 𝄞</Owner><OS name='été'/></Document>";
+		final String latin = "<Document><Owner>Zoë</Owner><OS name='été'/></Document>";
+		final List<byte[]> documents = asList(
+			("\uFEFF" + xml).getBytes(StandardCharsets.UTF_8),
+			("\uFEFF" + xml).getBytes(StandardCharsets.UTF_16BE),
+			("\uFEFF" + xml).getBytes(StandardCharsets.UTF_16LE),
+			("<?xml version='1.0' encoding='UTF-16'?>" + xml).getBytes(StandardCharsets.UTF_16BE),
+			("<?xml version='1.0' encoding='UTF-16'?>" + xml).getBytes(StandardCharsets.UTF_16LE),
+			("<?xml version='1.0' encoding='ISO-8859-1'?>" + latin).getBytes(StandardCharsets.ISO_8859_1),
+			("<?xml version=\"1.0\"\n encoding = \"windows-1252\"?>" + latin).getBytes("windows-1252"),
+			("<?xml version='1.0'?>" + xml).getBytes(StandardCharsets.UTF_8)
+		);
+		for (final byte[] bytes : documents) {
+			final List<List<String>> expected = XFlat.parseXml(new ByteArrayInputStream(bytes), PROPERTIES, ROOT_TAG);
+			assertFalse(expected.get(0).get(1).isEmpty());
+			for (final int chunkSize : new int[] { 1, 3, bytes.length }) {
+				assertEquals(expected, feed(bytes, chunkSize, PROPERTIES, ROOT_TAG), new String(bytes, 0, 8) + chunkSize);
+			}
+		}
+
+		// The given charset is used without byte order mark nor encoding declaration
+		final byte[] bytes = latin.getBytes(StandardCharsets.ISO_8859_1);
+		final List<List<String>> rows = new ArrayList<>();
+		XFlat
+			.feeder(
+				PROPERTIES,
+				ROOT_TAG,
+				StandardCharsets.ISO_8859_1,
+				row -> {
+					rows.add(row);
+					return RowConsumer.Signal.CONTINUE;
+				}
+			)
+			.feed(ByteBuffer.wrap(bytes))
+			.endOfInput();
+		assertEquals(XFlat.parseXml(latin, PROPERTIES, ROOT_TAG), rows);
+
+		final XFlatFeeder feeder = XFlat.feeder(
+			PROPERTIES,
+			ROOT_TAG,
+			StandardCharsets.UTF_8,
+			row -> RowConsumer.Signal.CONTINUE
+		);
+		assertThrows(XFlatException.class, () -> feeder.feed(utf8("<?xml version='1.0' encoding='unknown'?>")));
+	}
+
+	private static ByteBuffer utf8(final String xml) {
+		return ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<List<String>> feed(
+		final byte[] bytes,
+		final int chunkSize,
+		final String properties,
+		final String rootTag
+	) throws XFlatException {
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatFeeder feeder = XFlat.feeder(
+			properties,
+			rootTag,
+			StandardCharsets.UTF_8,
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.CONTINUE;
+			}
+		);
+		for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+			feeder.feed(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+		}
+		assertTrue(feeder.endOfInput().isDone());
+		return rows;
+	}
+}
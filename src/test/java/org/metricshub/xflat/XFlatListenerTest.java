@@ -0,0 +1,138 @@
+package org.metricshub.xflat;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.metricshub.xflat.XFlatListener.Phase;
+import org.metricshub.xflat.exceptions.XFlatException;
+
+class XFlatListenerTest extends XFlatTestUtils {
+
+	private final RecordingListener listener = new RecordingListener();
+
+	@AfterEach
+	void removeListener() {
+		XFlat.removeListener(listener);
+	}
+
+	@Test
+	void testCompile() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> XFlat.addListener(null));
+		XFlat.addListener(listener);
+
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		assertEquals(asList("start COMPILE", "end COMPILE", "compiled"), listener.events);
+		assertSame(query, listener.query);
+		assertEquals(7, query.getPropertyCount());
+	}
+
+	@Test
+	void testParseXml() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		final String xml = getXml("test.xml");
+		XFlat.addListener(listener);
+
+		final List<List<String>> rows = query.parseXml(xml);
+		assertEquals(
+			asList("start PARSE", "end PARSE", "start NAVIGATE", "end NAVIGATE", "start ARRANGE", "end ARRANGE", "ended"),
+			listener.events
+		);
+		assertSame(query, listener.query);
+		final XFlatStatistics statistics = listener.statistics;
+		assertEquals(xml.length(), statistics.getBytesRead());
+		assertEquals(rows.size(), statistics.getRowCount());
+		// The document, then Owner, Disks, OS, 3 Disk, 3 Free, 2 Volumes, 4 Volume and 4 Subscribe
+		assertEquals(20, statistics.getElementsVisited());
+		assertEquals(0, statistics.getElementsSkipped());
+		assertTrue(statistics.getFragmentCount() >= rows.size());
+		assertTrue(statistics.getParseNanos() > 0);
+		assertTrue(statistics.getNavigationNanos() > 0);
+		assertTrue(statistics.getArrangeNanos() > 0);
+	}
+
+	@Test
+	void testStreaming() throws Exception {
+		final XFlatQuery query = XFlat.compile("Disks/Disk>name", "/Document");
+		final String xml =
+			"<Document><Other><Disks/></Other><Disks><Disk name='a'/><Free/><Disk name='b'/></Disks></Document>";
+		final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+		XFlat.addListener(listener);
+
+		final List<List<String>> expected = asList(asList("a"), asList("b"));
+		assertEquals(expected, query.parseXml(new ByteArrayInputStream(bytes)));
+		assertEquals(bytes.length, listener.statistics.getBytesRead());
+		// Other and its Disks, then Free, skipped while reading
+		assertEquals(3, listener.statistics.getElementsSkipped());
+		assertEquals(2, listener.statistics.getRowCount());
+
+		assertEquals(expected, query.parseXml(xml));
+		// Other and Free, among the children of the navigated elements
+		assertEquals(2, listener.statistics.getElementsSkipped());
+
+		assertEquals(expected, query.parseXmlStream(xml));
+		assertEquals(xml.length(), listener.statistics.getBytesRead());
+	}
+
+	@Test
+	void testFailedParsing() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		XFlat.addListener(listener);
+
+		assertThrows(XFlatException.class, () -> query.parseXml("<Document>"));
+		assertEquals(asList("start PARSE", "end PARSE"), listener.events);
+	}
+
+	@Test
+	void testRemoveListener() throws Exception {
+		XFlat.addListener(listener);
+		assertTrue(XFlat.removeListener(listener));
+		assertFalse(XFlat.removeListener(listener));
+
+		XFlat.compile(PROPERTIES, ROOT_TAG).parseXml(getXml("test.xml"));
+		assertTrue(listener.events.isEmpty());
+	}
+
+	/**
+	 * Listener recording its calls.
+	 */
+	private static class RecordingListener implements XFlatListener {
+
+		private final List<String> events = new ArrayList<>();
+		private XFlatQuery query;
+		private XFlatStatistics statistics;
+
+		@Override
+		public void phaseStarted(final Phase phase) {
+			events.add("start " + phase);
+		}
+
+		@Override
+		public void phaseEnded(final Phase phase, final long durationNanos) {
+			assertTrue(durationNanos >= 0);
+			events.add("end " + phase);
+		}
+
+		@Override
+		public void queryCompiled(final XFlatQuery query, final long durationNanos) {
+			this.query = query;
+			events.add("compiled");
+		}
+
+		@Override
+		public void parsingEnded(final XFlatQuery query, final XFlatStatistics statistics) {
+			this.query = query;
+			this.statistics = statistics;
+			events.add("ended");
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.metricshub.xflat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.xflat.exceptions.XFlatException;
+
+class XFlatQueryCacheTest extends XFlatTestUtils {
+
+	@Test
+	void testGet() throws Exception {
+		final XFlatQueryCache cache = new XFlatQueryCache(2);
+
+		assertThrows(IllegalArgumentException.class, () -> cache.get(null, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> cache.get(PROPERTIES, " "));
+		assertThrows(XFlatException.class, () -> cache.get(";", ROOT_TAG));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getMissCount());
+		cache.clear();
+
+		final XFlatQuery query = cache.get(PROPERTIES, ROOT_TAG);
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+
+		// Same properties and root tag once the white spaces are removed
+		assertSame(query, cache.get(PROPERTIES, ROOT_TAG));
+		assertSame(query, cache.get(Utils.removeWhiteSpaces(PROPERTIES), "/Document"));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	void testEviction() throws Exception {
+		final XFlatQueryCache cache = new XFlatQueryCache(2);
+
+		final XFlatQuery first = cache.get("OS>name", ROOT_TAG);
+		final XFlatQuery second = cache.get("Owner", ROOT_TAG);
+
+		// The first one is now the most recently used
+		assertSame(first, cache.get("OS>name", ROOT_TAG));
+		cache.get("Disks/Disk>name", ROOT_TAG);
+		assertEquals(2, cache.size());
+
+		assertSame(first, cache.get("OS>name", ROOT_TAG));
+		assertNotSame(second, cache.get("Owner", ROOT_TAG));
+		assertEquals(4, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+
+		cache.setMaximumSize(1);
+		assertEquals(1, cache.size());
+		assertThrows(IllegalArgumentException.class, () -> cache.setMaximumSize(-1));
+
+		// Disabled
+		cache.setMaximumSize(0);
+		assertEquals(0, cache.size());
+		assertNotSame(cache.get("Owner", ROOT_TAG), cache.get("Owner", ROOT_TAG));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void testStaticParseXml() throws Exception {
+		final XFlatQueryCache cache = XFlat.getQueryCache();
+		assertEquals(XFlatQueryCache.DEFAULT_MAXIMUM_SIZE, cache.getMaximumSize());
+
+		final String xml = getXml("test.xml");
+		final String properties = "Disks/Disk>name;Disks/Disk/Free";
+		final long hitCount = cache.getHitCount();
+
+		assertEquals(XFlat.compile(properties, ROOT_TAG).parseXml(xml), XFlat.parseXml(xml, properties, ROOT_TAG));
+		assertEquals(XFlat.parseXml(xml, properties, ROOT_TAG), XFlat.parseXml(xml, " " + properties, ROOT_TAG));
+		assertEquals(hitCount + 2, cache.getHitCount());
+	}
+}
@@ -0,0 +1,277 @@
+package org.metricshub.xflat;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.metricshub.xflat.exceptions.XFlatException;
+
+class XFlatQueryTest extends XFlatTestUtils {
+
+	@Test
+	void testCompile() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> XFlat.compile(null, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.compile(" ", ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.compile(PROPERTIES, null));
+		assertThrows(XFlatException.class, () -> XFlat.compile(";", ROOT_TAG));
+		assertThrows(XFlatException.class, () -> XFlat.compile("Disks/Disk>", ROOT_TAG));
+
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		assertEquals(PROPERTIES, query.getProperties());
+		assertEquals(ROOT_TAG, query.getRootTag());
+
+		assertThrows(IllegalArgumentException.class, () -> query.parseXml((String) null));
+		assertThrows(IllegalArgumentException.class, () -> query.parseXml(" "));
+		assertThrows(IllegalArgumentException.class, () -> query.parseXml((Path) null));
+		assertThrows(IllegalArgumentException.class, () -> query.parseXml(new StringReader("<a/>"), null));
+	}
+
+	@Test
+	void testRunManyDocuments() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+
+		for (final String file : new String[] { "test.xml", "test2.xml", "ucsEquipementFan.xml" }) {
+			final String xml = getXml(file);
+			final List<List<String>> expected = XFlat.parseXml(xml, PROPERTIES, ROOT_TAG);
+			final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+
+			assertEquals(expected, query.parseXml(xml));
+			assertEquals(expected, query.parseXmlStream(xml));
+			assertEquals(expected, query.parseXml(new StringReader(xml)));
+			assertEquals(expected, query.parseXml(new ByteArrayInputStream(bytes)));
+			assertEquals(expected, query.parseXml(ByteBuffer.wrap(bytes)));
+			assertEquals(expected, query.parseXml(Paths.get(getFileAbsolutePath(file))));
+
+			try (Stream<List<String>> rows = query.stream(new StringReader(xml))) {
+				assertEquals(expected, rows.collect(Collectors.toList()));
+			}
+
+			final List<List<String>> pushed = new ArrayList<>();
+			assertTrue(
+				query
+					.parseXml(
+						new ByteArrayInputStream(bytes),
+						row -> {
+							pushed.add(row);
+							return RowConsumer.Signal.CONTINUE;
+						}
+					)
+					.isDone()
+			);
+			assertEquals(expected, pushed);
+		}
+	}
+
+	@Test
+	void testConcurrentRuns() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		final String xml = getXml("test.xml");
+		final List<List<String>> expected = XFlat.parseXml(xml, PROPERTIES, ROOT_TAG);
+
+		final List<Callable<List<List<String>>>> tasks = new ArrayList<>();
+		for (int i = 0; i < 32; i++) {
+			tasks.add(i % 2 == 0 ? () -> query.parseXml(xml) : () -> query.parseXml(new StringReader(xml)));
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (final Future<List<List<String>>> future : executor.invokeAll(tasks)) {
+				assertEquals(expected, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void testParseXmlBatch() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		assertThrows(IllegalArgumentException.class, () -> query.parseXmlBatch(null));
+		assertThrows(IllegalArgumentException.class, () -> query.parseXmlBatch(new ArrayList<>(), null));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXmlBatch(null, PROPERTIES, ROOT_TAG));
+
+		final List<String> xmls = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			xmls.add(getXml("test.xml"));
+			xmls.add(getXml("test2.xml"));
+			xmls.add(i % 4 == 0 ? "<Document>" : getXml("ucsEquipementFan.xml"));
+		}
+		xmls.add(null);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (final List<XFlatResult> results : asList(
+				query.parseXmlBatch(xmls),
+				query.parseXmlBatch(xmls, executor),
+				XFlat.parseXmlBatch(xmls, PROPERTIES, ROOT_TAG, executor)
+			)) {
+				assertEquals(xmls.size(), results.size());
+				for (int i = 0; i < xmls.size(); i++) {
+					final String xml = xmls.get(i);
+					final XFlatResult result = results.get(i);
+					if (xml == null || "<Document>".equals(xml)) {
+						assertFalse(result.isSuccess());
+						assertSame(result.getException(), assertThrows(XFlatException.class, result::getRows));
+					} else {
+						assertTrue(result.isSuccess());
+						assertNull(result.getException());
+						assertEquals(query.parseXml(xml), result.getRows());
+					}
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// An executor rejecting every other parsing, in the middle of the batch
+		final AtomicInteger submitted = new AtomicInteger();
+		final Executor rejecting = command -> {
+			if (submitted.getAndIncrement() % 2 == 1) {
+				throw new RejectedExecutionException("Full");
+			}
+			command.run();
+		};
+		final List<XFlatResult> results = query.parseXmlBatch(Collections.nCopies(6, getXml("test.xml")), rejecting);
+		assertEquals(6, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			if (i % 2 == 1) {
+				assertFalse(results.get(i).isSuccess());
+				assertTrue(results.get(i).getException().getCause() instanceof RejectedExecutionException);
+			} else {
+				assertEquals(query.parseXml(getXml("test.xml")), results.get(i).getRows());
+			}
+		}
+	}
+
+	@Test
+	void testParallelNavigation() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		assertThrows(IllegalArgumentException.class, () -> query.withParallelNavigation(1));
+		assertThrows(IllegalArgumentException.class, () -> query.withParallelNavigation(null, 2));
+
+		// Many disks, each with many volumes, to fork at both levels
+		final StringBuilder builder = new StringBuilder("<Document><Owner>User</Owner><Disks>");
+		for (int i = 0; i < 200; i++) {
+			builder.append("<Disk name=\"Disk").append(i).append("\" size=\"").append(i * 10).append("\">");
+			builder.append("<Free>").append(i).append("</Free><Volumes>");
+			for (int j = 0; j < i % 7; j++) {
+				builder.append("<Volume name=\"Vol").append(i).append('.').append(j).append("\">");
+				builder.append("<Subscribe>").append(j).append("</Subscribe></Volume>");
+			}
+			builder.append("</Volumes></Disk>");
+		}
+		builder.append("</Disks><OS name=\"Linux\"/></Document>");
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			final XFlatQuery parallelQuery = query.withParallelNavigation(pool, 2);
+			assertEquals(query.toString(), parallelQuery.toString());
+
+			for (final String xml : asList(
+				getXml("test.xml"),
+				getXml("test2.xml"),
+				getXml("ucsEquipementFan.xml"),
+				builder.toString()
+			)) {
+				final List<List<String>> expected = query.parseXml(xml);
+
+				assertEquals(expected, parallelQuery.parseXml(xml));
+				assertEquals(expected, parallelQuery.parseXml(new StringReader(xml)));
+				assertEquals(expected, query.withParallelNavigation(2).parseXml(xml));
+				try (Stream<List<String>> rows = parallelQuery.stream(new StringReader(xml))) {
+					assertEquals(expected, rows.collect(Collectors.toList()));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		// Called from a task of another pool, the navigation still runs on its own pool
+		final ForkJoinPool navigationPool = new ForkJoinPool(2);
+		final ForkJoinPool callerPool = new ForkJoinPool(1);
+		try {
+			final XFlatQuery parallelQuery = query.withParallelNavigation(navigationPool, 2);
+			final String xml = builder.toString();
+			assertEquals(query.parseXml(xml), callerPool.submit(() -> parallelQuery.parseXml(xml)).get());
+			assertTrue(navigationPool.getPoolSize() > 0);
+		} finally {
+			navigationPool.shutdown();
+			callerPool.shutdown();
+		}
+	}
+
+	@Test
+	void testParseXmlAsync() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+		assertThrows(IllegalArgumentException.class, () -> query.parseXmlAsync((String) null));
+		assertThrows(IllegalArgumentException.class, () -> query.parseXmlAsync(" ", Runnable::run));
+		assertThrows(IllegalArgumentException.class, () -> query.parseXmlAsync("<a/>", null));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXmlAsync((InputStream) null, PROPERTIES, ROOT_TAG));
+		assertThrows(XFlatException.class, () -> XFlat.parseXmlAsync("<a/>", ";", ROOT_TAG));
+
+		final String xml = getXml("test.xml");
+		final List<List<String>> expected = query.parseXml(xml);
+		final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (final CompletableFuture<List<List<String>>> future : asList(
+				query.parseXmlAsync(xml),
+				query.parseXmlAsync(xml, executor),
+				query.parseXmlAsync(new ByteArrayInputStream(bytes)),
+				XFlat.parseXmlAsync(xml, PROPERTIES, ROOT_TAG),
+				XFlat.parseXmlAsync(new ByteArrayInputStream(bytes), PROPERTIES, ROOT_TAG, executor)
+			)) {
+				assertEquals(expected, future.get());
+			}
+
+			// The error of the parsing completes the future
+			final ExecutionException error = assertThrows(
+				ExecutionException.class,
+				() -> query.parseXmlAsync("<Document>", executor).get()
+			);
+			assertTrue(error.getCause() instanceof XFlatException);
+
+			executor.shutdown();
+			final ExecutionException rejected = assertThrows(
+				ExecutionException.class,
+				() -> query.parseXmlAsync(xml, executor).get()
+			);
+			assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+		} finally {
+			executor.shutdown();
+		}
+
+		// The default executor never prevents the JVM from exiting
+		final Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, AsyncExecutors.getDefault()).get();
+		assertTrue(thread.isDaemon());
+		assertSame(AsyncExecutors.getDefault(), AsyncExecutors.getDefault());
+	}
+}
@@ -3,21 +3,42 @@ package org.metricshub.xflat;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.metricshub.xflat.Utils.EMPTY;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
 
 class XFlatTest extends XFlatTestUtils {
 
+	@TempDir
+	Path tempDir;
+
 	@Test
 	void testParseXml() throws Exception {
 		final String xml = getXml("test.xml");
 
 		// check arguments
-		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml(null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((String) null, PROPERTIES, ROOT_TAG));
 		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml(EMPTY, PROPERTIES, ROOT_TAG));
 		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml(" ", PROPERTIES, ROOT_TAG));
 		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml(xml, null, ROOT_TAG));
@@ -118,6 +139,437 @@ class XFlatTest extends XFlatTestUtils {
 		assertEquals(expected, XFlat.parseXml(xml, PROPERTIES, ROOT_TAG));
 	}
 
+	@Test
+	void testParseXmlStream() throws Exception {
+		final String xml = getXml("test.xml");
+
+		// check arguments
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXmlStream(null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXmlStream(" ", PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXmlStream(xml, null, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXmlStream(xml, PROPERTIES, " "));
+
+		assertThrows(XFlatException.class, () -> XFlat.parseXmlStream(xml, ";", ROOT_TAG));
+		assertThrows(XFlatException.class, () -> XFlat.parseXmlStream("<Document>", PROPERTIES, ROOT_TAG));
+
+		assertEquals(XFlat.parseXml(xml, PROPERTIES, ROOT_TAG), XFlat.parseXmlStream(xml, PROPERTIES, ROOT_TAG));
+
+		final String fanXml = getXml("ucsEquipementFan.xml");
+		final String fanProperties = ">classId;outConfigs/equipmentFan>dn;outConfigs/equipmentFan>model";
+		assertEquals(
+			XFlat.parseXml(fanXml, fanProperties, "/configResolveClass"),
+			XFlat.parseXmlStream(fanXml, fanProperties, "/configResolveClass")
+		);
+	}
+
+	@Test
+	void testParseXmlInputs() throws Exception {
+		final String xml = getXml("test.xml");
+		final List<List<String>> expected = XFlat.parseXml(xml, PROPERTIES, ROOT_TAG);
+
+		// check arguments
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((InputStream) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((Reader) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((Path) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((ByteBuffer) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml(new StringReader(xml), PROPERTIES, EMPTY));
+
+		assertThrows(
+			XFlatException.class,
+			() -> XFlat.parseXml(Paths.get(getFileAbsolutePath("test.xml") + ".missing"), PROPERTIES, ROOT_TAG)
+		);
+		assertThrows(XFlatException.class, () -> XFlat.parseXml(new StringReader("<Document>"), PROPERTIES, ROOT_TAG));
+
+		assertEquals(expected, XFlat.parseXml(new StringReader(xml), PROPERTIES, ROOT_TAG));
+		assertEquals(
+			expected,
+			XFlat.parseXml(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), PROPERTIES, ROOT_TAG)
+		);
+		assertEquals(expected, XFlat.parseXml(Paths.get(getFileAbsolutePath("test.xml")), PROPERTIES, ROOT_TAG));
+
+		// A large file is read through memory-mapped segments
+		final StringBuilder largeXml = new StringBuilder("<Document><Owner>User</Owner><Disks>");
+		while (largeXml.length() < XFlat.MAPPED_FILE_THRESHOLD) {
+			largeXml.append("<Disk name=\"Disk\" size=\"1\"><Free>0</Free></Disk>");
+		}
+		largeXml.append("</Disks></Document>");
+		final Path largeFile = Files.write(
+			tempDir.resolve("large.xml"),
+			largeXml.toString().getBytes(StandardCharsets.UTF_8)
+		);
+		assertEquals(
+			XFlat.parseXml(largeXml.toString(), PROPERTIES, ROOT_TAG),
+			XFlat.parseXml(largeFile, PROPERTIES, ROOT_TAG)
+		);
+
+		// The buffer is read in place, without moving its position
+		final byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes).flip();
+		assertEquals(expected, XFlat.parseXml(buffer, PROPERTIES, ROOT_TAG));
+		assertEquals(0, buffer.position());
+
+		// The encoding declared in the prolog is respected
+		final String latinXml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><Document><Owner>Andr\u00e9</Owner></Document>";
+		assertEquals(
+			asList(asList("Andr\u00e9")),
+			XFlat.parseXml(new ByteArrayInputStream(latinXml.getBytes(StandardCharsets.ISO_8859_1)), "Owner", ROOT_TAG)
+		);
+		assertEquals(
+			asList(asList("Andr\u00e9")),
+			XFlat.parseXml(ByteBuffer.wrap(latinXml.getBytes(StandardCharsets.ISO_8859_1)), "Owner", ROOT_TAG)
+		);
+	}
+
+	@Test
+	void testStream() throws Exception {
+		final String xml = getXml("test.xml");
+
+		// check arguments
+		assertThrows(IllegalArgumentException.class, () -> XFlat.stream((Reader) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.stream((InputStream) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.stream((Path) null, PROPERTIES, ROOT_TAG));
+		assertThrows(IllegalArgumentException.class, () -> XFlat.stream(new StringReader(xml), null, ROOT_TAG));
+		assertThrows(XFlatException.class, () -> XFlat.stream(new StringReader(xml), ";", ROOT_TAG));
+		assertThrows(
+			XFlatException.class,
+			() -> XFlat.stream(Paths.get(getFileAbsolutePath("test.xml") + ".missing"), PROPERTIES, ROOT_TAG)
+		);
+
+		try (Stream<List<String>> rows = XFlat.stream(new StringReader(xml), PROPERTIES, ROOT_TAG)) {
+			assertEquals(XFlat.parseXml(xml, PROPERTIES, ROOT_TAG), rows.collect(Collectors.toList()));
+		}
+
+		final Path path = Paths.get(getFileAbsolutePath("test.xml"));
+		try (Stream<List<String>> rows = XFlat.stream(path, PROPERTIES, ROOT_TAG)) {
+			assertEquals(XFlat.parseXml(xml, PROPERTIES, ROOT_TAG), rows.collect(Collectors.toList()));
+		}
+
+		// One disk at a time
+		final String diskProperties = ">name;Free;Volumes/Volume>name;../../Owner";
+		try (Stream<List<String>> rows = XFlat.stream(new StringReader(xml), diskProperties, "Disks/Disk")) {
+			assertEquals(XFlat.parseXml(xml, diskProperties, "Disks/Disk"), rows.collect(Collectors.toList()));
+		}
+
+		// No root element
+		try (
+			Stream<List<String>> rows = XFlat.stream(
+				new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+				PROPERTIES,
+				"Unknown"
+			)
+		) {
+			assertEquals(XFlat.parseXml(xml, PROPERTIES, "Unknown"), rows.collect(Collectors.toList()));
+		}
+
+		// Invalid XML
+		try (Stream<List<String>> rows = XFlat.stream(new StringReader("<Document><Disks>"), PROPERTIES, ROOT_TAG)) {
+			assertThrows(XFlatRunTimeException.class, () -> rows.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	void testStreamIsLazy() throws Exception {
+		final String xml = "<Disks><Disk name=\"Disk1\"/><Disk name=\"Disk2\"/>";
+
+		// The rest of the document is not received yet once the first two disks have been read
+		final Reader reader = new Reader() {
+			private final StringReader delegate = new StringReader(xml);
+
+			@Override
+			public int read(final char[] buffer, final int offset, final int length) throws IOException {
+				final int count = delegate.read(buffer, offset, length);
+				if (count == -1) {
+					throw new IOException("Not received yet");
+				}
+				return count;
+			}
+
+			@Override
+			public void close() {
+				delegate.close();
+			}
+		};
+
+		try (Stream<List<String>> rows = XFlat.stream(reader, ">name", "Disk")) {
+			final Iterator<List<String>> iterator = rows.iterator();
+			assertEquals(asList("Disk1"), iterator.next());
+			assertEquals(asList("Disk2"), iterator.next());
+			assertThrows(XFlatRunTimeException.class, iterator::hasNext);
+		}
+	}
+
+	@Test
+	void testStreamBranchElements() throws Exception {
+		// Attributes of the ancestors, missing branches and nested root elements
+		final String xml =
+			"<r><Document a=\"x\"><Disks b=\"y\"><Disk name=\"1\"><Size>3</Size></Disk><Disk name=\"2\"/></Disks>" +
+			"<Disks/><Disks><Disk name=\"3\"><Document a=\"n\"><Disks><Disk name=\"n1\"/></Disks></Document>" +
+			"<Size>4</Size><Size>5</Size></Disk></Disks></Document><Document a=\"z\"/></r>";
+		final String[][] queries = {
+			{ ">a;Disks>b;Disks/Disk>name;Disks/Disk/Size", "/Document" },
+			{ ">name;Size", "/Document/Disks/Disk" },
+			{ ">name", "Disks/Disk" },
+			{ "Disks/Disk>name", "/Document" },
+		};
+		for (final String[] query : queries) {
+			try (Stream<List<String>> rows = XFlat.stream(new StringReader(xml), query[0], query[1])) {
+				assertEquals(XFlat.parseXml(xml, query[0], query[1]), rows.collect(Collectors.toList()), query[1]);
+			}
+		}
+	}
+
+	@Test
+	void testStreamReadAheadIsBounded() throws Exception {
+		final StringBuilder builder = new StringBuilder("<Document><Disks>");
+		for (int i = 0; i < 20000; i++) {
+			builder.append("<Disk name=\"Disk").append(i).append("\"><Size>").append(i).append("</Size></Disk>");
+		}
+		final String xml = builder.append("</Disks></Document>").toString();
+
+		final int[] charsRead = new int[1];
+		final Reader reader = new Reader() {
+			private final StringReader delegate = new StringReader(xml);
+
+			@Override
+			public int read(final char[] buffer, final int offset, final int length) throws IOException {
+				final int count = delegate.read(buffer, offset, length);
+				charsRead[0] += Math.max(count, 0);
+				return count;
+			}
+
+			@Override
+			public void close() {
+				delegate.close();
+			}
+		};
+
+		// Each disk is a row as soon as it is read, not once the whole document is read
+		try (Stream<List<String>> rows = XFlat.stream(reader, ">name;Size", "/Document/Disks/Disk")) {
+			final Iterator<List<String>> iterator = rows.iterator();
+			assertEquals(asList("Disk0", "0"), iterator.next());
+			assertTrue(charsRead[0] < xml.length() / 10, "Read ahead: " + charsRead[0]);
+
+			int count = 1;
+			while (iterator.hasNext()) {
+				iterator.next();
+				count++;
+			}
+			assertEquals(20000, count);
+		}
+	}
+
+	@Test
+	void testParseXmlSink() throws Exception {
+		final String xml = getXml("test.xml");
+		final List<List<String>> rows = new ArrayList<>();
+		final RowConsumer collect = row -> {
+			rows.add(row);
+			return RowConsumer.Signal.CONTINUE;
+		};
+
+		// check arguments
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((Reader) null, PROPERTIES, ROOT_TAG, collect));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> XFlat.parseXml((InputStream) null, PROPERTIES, ROOT_TAG, collect)
+		);
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml((Path) null, PROPERTIES, ROOT_TAG, collect));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> XFlat.parseXml(new StringReader(xml), PROPERTIES, ROOT_TAG, null)
+		);
+		assertThrows(IllegalArgumentException.class, () -> XFlat.parseXml(new StringReader(xml), null, ROOT_TAG, collect));
+		assertThrows(XFlatException.class, () -> XFlat.parseXml(new StringReader("<a>"), PROPERTIES, ROOT_TAG, collect));
+
+		// All the rows
+		final List<List<String>> expected = XFlat.parseXml(xml, PROPERTIES, ROOT_TAG);
+		assertTrue(XFlat.parseXml(new StringReader(xml), PROPERTIES, ROOT_TAG, collect).isDone());
+		assertEquals(expected, rows);
+
+		rows.clear();
+		assertTrue(XFlat.parseXml(Paths.get(getFileAbsolutePath("test.xml")), PROPERTIES, ROOT_TAG, collect).isDone());
+		assertEquals(expected, rows);
+
+		// Stop after the first row
+		rows.clear();
+		final XFlatParsing stopped = XFlat.parseXml(
+			new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+			PROPERTIES,
+			ROOT_TAG,
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.STOP;
+			}
+		);
+		assertTrue(stopped.isDone());
+		assertEquals(expected.subList(0, 1), rows);
+		assertSame(stopped, stopped.resume());
+		assertEquals(expected.subList(0, 1), rows);
+	}
+
+	@Test
+	void testParseXmlSinkPause() throws Exception {
+		final String xml = "<Disks><Disk name=\"Disk1\"/><Disk name=\"Disk2\"/>";
+
+		// The rest of the document is not received yet once the first two disks have been read
+		final Reader reader = new Reader() {
+			private final StringReader delegate = new StringReader(xml);
+
+			@Override
+			public int read(final char[] buffer, final int offset, final int length) throws IOException {
+				final int count = delegate.read(buffer, offset, length);
+				if (count == -1) {
+					throw new IOException("Not received yet");
+				}
+				return count;
+			}
+
+			@Override
+			public void close() {
+				delegate.close();
+			}
+		};
+
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatParsing parsing = XFlat.parseXml(
+			reader,
+			">name",
+			"Disk",
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.PAUSE;
+			}
+		);
+
+		assertTrue(parsing.isPaused());
+		assertEquals(asList(asList("Disk1")), rows);
+
+		parsing.resume();
+		assertTrue(parsing.isPaused());
+		assertEquals(asList(asList("Disk1"), asList("Disk2")), rows);
+
+		assertThrows(XFlatException.class, parsing::resume);
+		assertTrue(parsing.isDone());
+		assertEquals(asList(asList("Disk1"), asList("Disk2")), rows);
+
+		// Closing a paused parsing
+		final XFlatParsing closed = XFlat.parseXml(
+			new StringReader("<Disks><Disk name=\"Disk1\"/><Disk name=\"Disk2\"/></Disks>"),
+			">name",
+			"Disk",
+			row -> RowConsumer.Signal.PAUSE
+		);
+		assertTrue(closed.isPaused());
+		closed.close();
+		assertTrue(closed.isDone());
+	}
+
+	@Test
+	void testParseXmlSinkNullSignal() throws Exception {
+		final StringReader reader = new StringReader("<Disks><Disk name=\"Disk1\"/><Disk name=\"Disk2\"/></Disks>");
+		final List<List<String>> rows = new ArrayList<>();
+		final IllegalArgumentException exception = assertThrows(
+			IllegalArgumentException.class,
+			() ->
+				XFlat.parseXml(
+					reader,
+					">name",
+					"Disk",
+					row -> {
+						rows.add(row);
+						return null;
+					}
+				)
+		);
+		assertEquals("The signal returned by the sink must not be null.", exception.getMessage());
+		assertEquals(asList(asList("Disk1")), rows);
+	}
+
+	@Test
+	void testParseXmlSinkPauseBranchElements() throws Exception {
+		final StringBuilder builder = new StringBuilder("<Document os=\"Linux\"><Disks>");
+		for (int i = 0; i < 20000; i++) {
+			builder.append("<Disk name=\"Disk").append(i).append("\"><Size>").append(i).append("</Size></Disk>");
+		}
+		final String xml = builder.toString();
+
+		// The disks and the document are never complete
+		final int[] charsRead = new int[1];
+		final Reader reader = new Reader() {
+			private final StringReader delegate = new StringReader(xml);
+
+			@Override
+			public int read(final char[] buffer, final int offset, final int length) throws IOException {
+				final int count = delegate.read(buffer, offset, length);
+				if (count == -1) {
+					throw new IOException("Not received yet");
+				}
+				charsRead[0] += count;
+				return count;
+			}
+
+			@Override
+			public void close() {
+				delegate.close();
+			}
+		};
+
+		// Pause on the first two disks only
+		final List<List<String>> rows = new ArrayList<>();
+		final XFlatParsing parsing = XFlat.parseXml(
+			reader,
+			">os;Disks/Disk>name;Disks/Disk/Size",
+			"/Document",
+			row -> {
+				rows.add(row);
+				return rows.size() <= 2 ? RowConsumer.Signal.PAUSE : RowConsumer.Signal.CONTINUE;
+			}
+		);
+
+		assertTrue(parsing.isPaused());
+		assertEquals(asList(asList("Linux", "Disk0", "0")), rows);
+		assertTrue(charsRead[0] < xml.length() / 10, "Read ahead: " + charsRead[0]);
+
+		parsing.resume();
+		assertTrue(parsing.isPaused());
+		assertEquals(asList(asList("Linux", "Disk0", "0"), asList("Linux", "Disk1", "1")), rows);
+		assertTrue(charsRead[0] < xml.length() / 10, "Read ahead: " + charsRead[0]);
+
+		assertThrows(XFlatException.class, parsing::resume);
+		assertTrue(parsing.isDone());
+		assertEquals(20000, rows.size());
+
+		// Same with the repeating element in the root tag
+		rows.clear();
+		final XFlatParsing disks = XFlat.parseXml(
+			new StringReader(xml + "</Disks></Document>"),
+			">name;Size",
+			"/Document/Disks/Disk",
+			row -> {
+				rows.add(row);
+				return RowConsumer.Signal.PAUSE;
+			}
+		);
+		assertTrue(disks.isPaused());
+		assertEquals(asList(asList("Disk0", "0")), rows);
+		disks.close();
+		assertTrue(disks.isDone());
+	}
+
+	@Test
+	void testRowOrder() throws Exception {
+		// The rows follow the document order, even when a branch only holds repeated elements
+		final String xml = "<D><X><Y b=\"1\"/><Y b=\"2\"/></X><X><Y b=\"3\"/></X></D>";
+		final List<List<String>> expected = asList(asList("1"), asList("2"), asList("3"));
+
+		assertEquals(expected, XFlat.parseXml(xml, "X/Y>b", "D"));
+		assertEquals(expected, XFlat.parseXmlStream(xml, "X/Y>b", "D"));
+
+		// A missing attribute in a repeated element
+		assertEquals(asList(asList("1"), asList((String) null)), XFlat.parseXml("<D><X b=\"1\"/><X/></D>", "X>b", "D"));
+	}
+
 	@Test
 	void testPartialRootPath() throws Exception {
 		final String xml = getXml("test2.xml");
@@ -0,0 +1,278 @@
+package org.metricshub.xflat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * <p>Generator of synthetic XML documents, shaped like the <code>Disks/Disk/Volumes/Volume</code> layout of the test
+ * resources, with the properties to extract from them.</p>
+ * <p>Each level of repeated elements is wrapped in its container: <code>Disks/Disk</code>, then
+ * <code>Volumes/Volume</code>, <code>Partitions/Partition</code>, and so on. Each repeated element has a
+ * <code>name</code> attribute, a <code>size</code> attribute and extra attributes which are never extracted, and a
+ * text value. The properties extract the name, the size and the value of each level: every leaf element issues one
+ * row.</p>
+ * <p>A generator is immutable: the <code>with</code> methods return a copy. The documents are only made of ASCII
+ * characters, and the same settings always generate the same document.</p>
+ */
+public final class XmlWorkloadGenerator {
+
+	public static final String ROOT_TAG = "/Document";
+
+	private static final String[] LEVEL_NAMES = { "Disk", "Volume", "Partition", "Extent", "Block" };
+	private static final String[] VALUE_NAMES = { "Free", "Subscribe", "Used", "Offset", "Length" };
+	private static final char[] TEXT_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+	private final int[] fanOuts;
+	private final int attributeCount;
+	private final int textLength;
+	private final double presence;
+	private final long seed;
+
+	/**
+	 * A generator of documents like <code>test.xml</code>: 3 disks of 3 volumes, each with 2 attributes and a short
+	 * value.
+	 */
+	public XmlWorkloadGenerator() {
+		this(new int[] { 3, 3 }, 2, 4, 1, 0);
+	}
+
+	private XmlWorkloadGenerator(
+		final int[] fanOuts,
+		final int attributeCount,
+		final int textLength,
+		final double presence,
+		final long seed
+	) {
+		this.fanOuts = fanOuts;
+		this.attributeCount = attributeCount;
+		this.textLength = textLength;
+		this.presence = presence;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param fanOuts The number of repeated elements under each element of the previous level, the first one being
+	 * the number of disks. The number of levels is the depth, from 1 to 5.
+	 * @return A copy of this generator with these fan-outs
+	 */
+	public XmlWorkloadGenerator withFanOuts(final int... fanOuts) {
+		if (fanOuts.length == 0 || fanOuts.length > LEVEL_NAMES.length) {
+			throw new IllegalArgumentException("The depth must be between 1 and " + LEVEL_NAMES.length);
+		}
+		if (Arrays.stream(fanOuts).anyMatch(fanOut -> fanOut < 1)) {
+			throw new IllegalArgumentException("The fan-outs must be positive: " + Arrays.toString(fanOuts));
+		}
+		return new XmlWorkloadGenerator(fanOuts.clone(), attributeCount, textLength, presence, seed);
+	}
+
+	/**
+	 * @param attributeCount The number of attributes of each repeated element, at least 1: the name, then the size,
+	 * then attributes which are not extracted
+	 * @return A copy of this generator with this number of attributes
+	 */
+	public XmlWorkloadGenerator withAttributeCount(final int attributeCount) {
+		if (attributeCount < 1) {
+			throw new IllegalArgumentException("The attribute count must be positive: " + attributeCount);
+		}
+		return new XmlWorkloadGenerator(fanOuts, attributeCount, textLength, presence, seed);
+	}
+
+	/**
+	 * @param textLength The length of the text values and of the extra attributes values
+	 * @return A copy of this generator with this text length
+	 */
+	public XmlWorkloadGenerator withTextLength(final int textLength) {
+		if (textLength < 0) {
+			throw new IllegalArgumentException("The text length must not be negative: " + textLength);
+		}
+		return new XmlWorkloadGenerator(fanOuts, attributeCount, textLength, presence, seed);
+	}
+
+	/**
+	 * @param presence The probability, from 0 to 1, that an extracted size or value is present in the document.
+	 * The lower it is, the sparser the extracted properties.
+	 * @return A copy of this generator with this presence
+	 */
+	public XmlWorkloadGenerator withPresence(final double presence) {
+		if (presence < 0 || presence > 1) {
+			throw new IllegalArgumentException("The presence must be between 0 and 1: " + presence);
+		}
+		return new XmlWorkloadGenerator(fanOuts, attributeCount, textLength, presence, seed);
+	}
+
+	/**
+	 * @param seed The seed of the random texts and of the missing properties
+	 * @return A copy of this generator with this seed
+	 */
+	public XmlWorkloadGenerator withSeed(final long seed) {
+		return new XmlWorkloadGenerator(fanOuts, attributeCount, textLength, presence, seed);
+	}
+
+	/**
+	 * Adjust the number of disks so that the document is about the size.
+	 *
+	 * @param size The size of the document in bytes
+	 * @return A copy of this generator with the number of disks of this size, at least 1
+	 */
+	public XmlWorkloadGenerator withSize(final long size) {
+		final int[] oneDisk = fanOuts.clone();
+		oneDisk[0] = 1;
+		final long oneDiskSize = withFanOuts(oneDisk).generate().length();
+		oneDisk[0] = 2;
+		final long diskSize = withFanOuts(oneDisk).generate().length() - oneDiskSize;
+
+		final long diskCount = Math.max(1, (size - (oneDiskSize - diskSize)) / diskSize);
+		if (diskCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The size is too large: " + size);
+		}
+
+		final int[] sized = fanOuts.clone();
+		sized[0] = (int) diskCount;
+		return withFanOuts(sized);
+	}
+
+	/**
+	 * @return The properties extracting the owner, the OS, and the name, size and value of each level
+	 */
+	public String getProperties() {
+		final StringJoiner properties = new StringJoiner(";");
+		properties.add("Owner").add("OS>name");
+
+		final StringBuilder path = new StringBuilder();
+		for (int level = 0; level < fanOuts.length; level++) {
+			if (level > 0) {
+				path.append('/');
+			}
+			path.append(LEVEL_NAMES[level]).append("s/").append(LEVEL_NAMES[level]);
+			properties.add(path + ">name");
+			if (attributeCount > 1) {
+				properties.add(path + ">size");
+			}
+			properties.add(path + "/" + VALUE_NAMES[level]);
+		}
+
+		return properties.toString();
+	}
+
+	/**
+	 * @return The number of rows extracted from the document: one per leaf element
+	 */
+	public long getRowCount() {
+		return Arrays.stream(fanOuts).asLongStream().reduce(1, (left, right) -> left * right);
+	}
+
+	/**
+	 * @return The generated document
+	 */
+	public String generate() {
+		final StringBuilder builder = new StringBuilder();
+		try {
+			write(builder);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Write the generated document to a file, without holding it in memory.
+	 *
+	 * @param file The file to write
+	 * @return The file
+	 * @throws IOException if the file cannot be written
+	 */
+	public Path generate(final Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			write(writer);
+		}
+		return file;
+	}
+
+	/**
+	 * Write the generated document.
+	 *
+	 * @param out Where to write the document
+	 * @throws IOException if the document cannot be written
+	 */
+	public void write(final Appendable out) throws IOException {
+		final Random random = new Random(seed);
+		out.append("<?xml version=\"1.0\"?>\n<Document>\n\t<Owner>User</Owner>\n");
+		writeLevel(out, random, 0, "", "\t");
+		out.append("\t<OS name=\"Linux\"/>\n</Document>\n");
+	}
+
+	private void writeLevel(
+		final Appendable out,
+		final Random random,
+		final int level,
+		final String parentName,
+		final String indent
+	) throws IOException {
+		final String name = LEVEL_NAMES[level];
+		final String childIndent = indent + '\t';
+		out.append(indent).append('<').append(name).append("s>\n");
+
+		for (int i = 0; i < fanOuts[level]; i++) {
+			final String elementName = parentName.isEmpty() ? Integer.toString(i) : parentName + '.' + i;
+
+			out.append(childIndent).append('<').append(name).append(" name=\"").append(name).append(elementName);
+			out.append('"');
+			if (attributeCount > 1 && isPresent(random)) {
+				out.append(" size=\"").append(Integer.toString(random.nextInt(1_000_000))).append('"');
+			}
+			for (int attribute = 2; attribute < attributeCount; attribute++) {
+				out.append(" attribute").append(Integer.toString(attribute)).append("=\"");
+				appendText(out, random);
+				out.append('"');
+			}
+			out.append(">\n");
+
+			if (isPresent(random)) {
+				out.append(childIndent).append("\t<").append(VALUE_NAMES[level]).append('>');
+				appendText(out, random);
+				out.append("</").append(VALUE_NAMES[level]).append(">\n");
+			}
+			if (level + 1 < fanOuts.length) {
+				writeLevel(out, random, level + 1, elementName, childIndent + '\t');
+			}
+
+			out.append(childIndent).append("</").append(name).append(">\n");
+		}
+
+		out.append(indent).append("</").append(name).append("s>\n");
+	}
+
+	private boolean isPresent(final Random random) {
+		return presence >= 1 || random.nextDouble() < presence;
+	}
+
+	private void appendText(final Appendable out, final Random random) throws IOException {
+		for (int i = 0; i < textLength; i++) {
+			out.append(TEXT_CHARS[random.nextInt(TEXT_CHARS.length)]);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return (
+			"XmlWorkloadGenerator [fanOuts=" +
+			Arrays.toString(fanOuts) +
+			", attributeCount=" +
+			attributeCount +
+			", textLength=" +
+			textLength +
+			", presence=" +
+			presence +
+			", seed=" +
+			seed +
+			"]"
+		);
+	}
+}
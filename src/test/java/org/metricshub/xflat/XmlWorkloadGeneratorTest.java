@@ -0,0 +1,76 @@
+package org.metricshub.xflat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class XmlWorkloadGeneratorTest {
+
+	@Test
+	void testGenerate() throws Exception {
+		final XmlWorkloadGenerator generator = new XmlWorkloadGenerator();
+		assertEquals(
+			"Owner;OS>name;Disks/Disk>name;Disks/Disk>size;Disks/Disk/Free;" +
+			"Disks/Disk/Volumes/Volume>name;Disks/Disk/Volumes/Volume>size;Disks/Disk/Volumes/Volume/Subscribe",
+			generator.getProperties()
+		);
+
+		final List<List<String>> rows = XFlat.parseXml(
+			generator.generate(),
+			generator.getProperties(),
+			XmlWorkloadGenerator.ROOT_TAG
+		);
+		assertEquals(9, rows.size());
+		assertEquals("Disk0", rows.get(0).get(2));
+		assertEquals("Volume2.2", rows.get(8).get(5));
+		rows.forEach(row -> assertTrue(row.stream().noneMatch(String::isEmpty), row::toString));
+
+		assertEquals(generator.generate(), generator.generate());
+		assertThrows(IllegalArgumentException.class, () -> generator.withFanOuts());
+		assertThrows(IllegalArgumentException.class, () -> generator.withFanOuts(1, 0));
+		assertThrows(IllegalArgumentException.class, () -> generator.withPresence(2));
+	}
+
+	@Test
+	void testShapes() throws Exception {
+		final XmlWorkloadGenerator generator = new XmlWorkloadGenerator()
+			.withFanOuts(2, 3, 4, 5)
+			.withAttributeCount(5)
+			.withTextLength(20)
+			.withPresence(0.5)
+			.withSeed(42);
+		assertEquals(120, generator.getRowCount());
+
+		final String xml = generator.generate();
+		assertTrue(xml.contains("<Extent name=\"Extent1.2.3.4\""), xml);
+		assertTrue(xml.contains(" attribute4=\""), xml);
+
+		final List<List<String>> rows = XFlat.parseXml(xml, generator.getProperties(), XmlWorkloadGenerator.ROOT_TAG);
+		assertEquals(120, rows.size());
+		// Half of the sizes and values are missing
+		assertTrue(rows.stream().anyMatch(row -> row.contains("")));
+	}
+
+	@Test
+	void testWithSize(@TempDir final Path directory) throws Exception {
+		for (final long size : new long[] { 1_000, 100_000, 1_000_000 }) {
+			final XmlWorkloadGenerator generator = new XmlWorkloadGenerator().withSize(size);
+			final Path file = generator.generate(directory.resolve(size + ".xml"));
+			final long actual = Files.size(file);
+			assertTrue(Math.abs(actual - size) < size / 10 + 400, () -> size + " -> " + actual);
+
+			assertEquals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), generator.generate());
+			assertEquals(
+				generator.getRowCount(),
+				XFlat.parseXml(file, generator.getProperties(), XmlWorkloadGenerator.ROOT_TAG).size()
+			);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package org.metricshub.xflat.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.metricshub.xflat.XFlat;
+import org.metricshub.xflat.XFlatQuery;
+import org.metricshub.xflat.XFlatTestUtils;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.exceptions.XFlatRunTimeException;
+import org.metricshub.xflat.spi.JdkParserBackend;
+import org.metricshub.xflat.spi.XFlatParserBackend;
+import org.metricshub.xflat.types.SearchPathNode;
+
+class ParserBackendsTest extends XFlatTestUtils {
+
+	private static final String[] FILES = { "test.xml", "test2.xml", "ucsEquipementFan.xml" };
+
+	/**
+	 * The test classes run again with each backend.
+	 */
+	private static final String[] SUITE = {
+		"org.metricshub.xflat.XFlatTest",
+		XmlHandlerTest.class.getName(),
+		XmlSaxHandlerTest.class.getName()
+	};
+
+	private final XFlatParserBackend defaultBackend = ParserBackends.getBackend();
+
+	@AfterEach
+	void restoreBackend() {
+		ParserBackends.setBackend(defaultBackend);
+	}
+
+	@Test
+	void testSelectBackend() {
+		final List<XFlatParserBackend> backends = ParserBackends.getAvailableBackends();
+		final List<String> names = backends.stream().map(XFlatParserBackend::getName).collect(Collectors.toList());
+		assertTrue(names.contains(JdkParserBackend.NAME));
+		assertTrue(names.contains(TestParserBackend.NAME));
+		for (int i = 1; i < backends.size(); i++) {
+			assertTrue(backends.get(i - 1).getPriority() >= backends.get(i).getPriority());
+		}
+
+		assertEquals(backends.get(0).getName(), ParserBackends.selectBackend(null).getName());
+		assertEquals(backends.get(0).getName(), ParserBackends.selectBackend(" ").getName());
+		assertEquals(TestParserBackend.NAME, ParserBackends.selectBackend(TestParserBackend.NAME).getName());
+		assertThrows(XFlatRunTimeException.class, () -> ParserBackends.selectBackend("unknown"));
+
+		assertThrows(IllegalArgumentException.class, () -> ParserBackends.setBackend(null));
+		final XFlatParserBackend testBackend = new TestParserBackend();
+		ParserBackends.setBackend(testBackend);
+		assertSame(testBackend, ParserBackends.getBackend());
+	}
+
+	@Test
+	void testSAXParserFactory() throws Exception {
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(Arrays.asList("Owner"), "Document");
+		ParserBackends.setBackend(new TestParserBackend());
+		assertEquals(1, XmlSaxHandler.parse("<Document><Owner>me</Owner></Document>", searchPathNode).size());
+
+		// The SAX parsers come from the backend too
+		ParserBackends.setBackend(
+			new TestParserBackend() {
+				@Override
+				public SAXParserFactory createSAXParserFactory() {
+					return new SAXParserFactory() {
+						@Override
+						public SAXParser newSAXParser() throws ParserConfigurationException {
+							throw new ParserConfigurationException("test");
+						}
+
+						@Override
+						public void setFeature(final String name, final boolean value) {}
+
+						@Override
+						public boolean getFeature(final String name) {
+							return false;
+						}
+					};
+				}
+			}
+		);
+		final XFlatException exception = assertThrows(
+			XFlatException.class,
+			() -> XmlSaxHandler.parse("<Document><Owner>me</Owner></Document>", searchPathNode)
+		);
+		assertEquals("test", exception.getCause().getMessage());
+	}
+
+	@TestFactory
+	Stream<DynamicTest> testBackends() throws Exception {
+		final XFlatQuery query = XFlat.compile(PROPERTIES, ROOT_TAG);
+
+		// The rows expected from the JDK parsers
+		final Map<String, List<List<String>>> expected = new HashMap<>();
+		ParserBackends.setBackend(new JdkParserBackend());
+		for (final String file : FILES) {
+			expected.put(file, query.parseXml(getXml(file)));
+		}
+
+		return ParserBackends
+			.getAvailableBackends()
+			.stream()
+			.map(backend ->
+				DynamicTest.dynamicTest(
+					backend.getName(),
+					() -> {
+						ParserBackends.setBackend(backend);
+						for (final String file : FILES) {
+							final String xml = getXml(file);
+							assertEquals(expected.get(file), query.parseXml(xml), file);
+							assertEquals(expected.get(file), query.parseXmlStream(xml), file);
+							try (Stream<List<String>> rows = query.stream(new StringReader(xml))) {
+								assertEquals(expected.get(file), rows.collect(Collectors.toList()), file);
+							}
+						}
+					}
+				)
+			);
+	}
+
+	@TestFactory
+	Stream<DynamicTest> testSuiteOnEachBackend() {
+		return ParserBackends
+			.getAvailableBackends()
+			.stream()
+			.map(backend ->
+				DynamicTest.dynamicTest(
+					backend.getName(),
+					() -> {
+						ParserBackends.setBackend(backend);
+
+						final LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder
+							.request()
+							.selectors(Stream.of(SUITE).map(DiscoverySelectors::selectClass).collect(Collectors.toList()))
+							.build();
+						final SummaryGeneratingListener listener = new SummaryGeneratingListener();
+						LauncherFactory.create().execute(request, listener);
+
+						final TestExecutionSummary summary = listener.getSummary();
+						assertTrue(summary.getTestsSucceededCount() > 0, backend.getName());
+						assertEquals(
+							0,
+							summary.getTotalFailureCount(),
+							() ->
+								summary
+									.getFailures()
+									.stream()
+									.map(failure -> failure.getTestIdentifier().getDisplayName() + ": " + failure.getException())
+									.collect(Collectors.joining("\n", backend.getName() + " failures:\n", ""))
+						);
+					}
+				)
+			);
+	}
+}
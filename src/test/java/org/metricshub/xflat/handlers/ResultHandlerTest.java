@@ -3,13 +3,11 @@ package org.metricshub.xflat.handlers;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.metricshub.xflat.Utils.EMPTY;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,74 +15,83 @@ import org.junit.jupiter.api.Test;
 
 class ResultHandlerTest {
 
+	// The link keys of the example: 0 forked into 1, 2 and 3, then 3 forked into 4, 5 and 6
+	private static final LinkKey LINK_0 = new LinkKey(null, 0);
+	private static final LinkKey LINK_1 = new LinkKey(LINK_0, 1);
+	private static final LinkKey LINK_2 = new LinkKey(LINK_0, 2);
+	private static final LinkKey LINK_3 = new LinkKey(LINK_0, 3);
+	private static final LinkKey LINK_4 = new LinkKey(LINK_3, 4);
+	private static final LinkKey LINK_5 = new LinkKey(LINK_3, 5);
+	private static final LinkKey LINK_6 = new LinkKey(LINK_3, 6);
+
 	@Test
 	void testArrange() {
 		assertEquals(emptyList(), ResultHandler.arrange(null, 0));
 		assertEquals(emptyList(), ResultHandler.arrange(emptyMap(), 0));
 
 		final int totalProperties = 7;
-		final Map<String, Map<Integer, String>> rowValuesMap = new LinkedHashMap<>();
+		final Map<LinkKey, RowValues> rowValuesMap = new LinkedHashMap<>();
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(0, "Linux");
 			values.put(1, "User");
-			rowValuesMap.put("1fb7505", values);
+			rowValuesMap.put(LINK_0, values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(1, "User");
 			values.put(2, "Vol1");
 			values.put(3, "600");
 			values.put(4, "Disk1");
 			values.put(5, "1000");
 			values.put(6, "500");
-			rowValuesMap.put("1fb7505=>82e176f9", values);
+			rowValuesMap.put(LINK_1, values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(1, "User");
 			values.put(4, "Disk2");
 			values.put(5, "2000");
 			values.put(6, "750");
-			rowValuesMap.put("1fb7505=>fa67f9d8", values);
+			rowValuesMap.put(LINK_2, values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(1, "User");
 			values.put(4, "Disk3");
 			values.put(5, "2900");
 			values.put(6, "1500");
-			rowValuesMap.put("1fb7505=>62dc3ae1", values);
+			rowValuesMap.put(LINK_3, values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(1, "User");
 			values.put(2, "Vol3.0");
 			values.put(3, "3000");
 			values.put(4, "Disk3");
 			values.put(5, "2900");
 			values.put(6, "1500");
-			rowValuesMap.put("1fb7505=>62dc3ae1=>69442fb2", values);
+			rowValuesMap.put(LINK_4, values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(1, "User");
 			values.put(2, "Vol3.1");
 			values.put(3, "3100");
 			values.put(4, "Disk3");
 			values.put(5, "2900");
 			values.put(6, "1500");
-			rowValuesMap.put("1fb7505=>62dc3ae1=>39622424", values);
+			rowValuesMap.put(LINK_5, values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(1, "User");
 			values.put(2, "Vol3.2");
 			values.put(3, "3200");
 			values.put(4, "Disk3");
 			values.put(5, "2900");
 			values.put(6, "1500");
-			rowValuesMap.put("1fb7505=>62dc3ae1=>bc8a4630", values);
+			rowValuesMap.put(LINK_6, values);
 		}
 
 		final List<List<String>> expected = asList(
@@ -99,297 +106,82 @@ class ResultHandlerTest {
 	}
 
 	@Test
-	void testLinkAndMergeRowMap() {
-		// First iteration of the example
-		{
-			final Map<Integer, String> firstLevelMapValues = new HashMap<>();
-			firstLevelMapValues.put(0, "Linux");
-			firstLevelMapValues.put(1, "User");
-			final Map<String, Map<Integer, String>> firstLevelMap = singletonMap("1fb7505", firstLevelMapValues);
-
-			final Map<String, Map<Integer, String>> remainingMap = new LinkedHashMap<>();
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(1, "User");
-				values.put(2, "Vol1");
-				values.put(3, "600");
-				values.put(4, "Disk1");
-				values.put(5, "1000");
-				values.put(6, "500");
-				remainingMap.put("1fb7505=>82e176f9", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(1, "User");
-				values.put(4, "Disk2");
-				values.put(5, "2000");
-				values.put(6, "750");
-				remainingMap.put("1fb7505=>fa67f9d8", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(1, "User");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("1fb7505=>62dc3ae1", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(1, "User");
-				values.put(2, "Vol3.0");
-				values.put(3, "3000");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("1fb7505=>62dc3ae1=>69442fb2", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(1, "User");
-				values.put(2, "Vol3.1");
-				values.put(3, "3100");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("1fb7505=>62dc3ae1=>39622424", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(1, "User");
-				values.put(2, "Vol3.2");
-				values.put(3, "3200");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("1fb7505=>62dc3ae1=>bc8a4630", values);
-			}
-
-			final Map<String, Map<Integer, String>> expected = new LinkedHashMap<>();
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol1");
-				values.put(3, "600");
-				values.put(4, "Disk1");
-				values.put(5, "1000");
-				values.put(6, "500");
-				expected.put("82e176f9", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(4, "Disk2");
-				values.put(5, "2000");
-				values.put(6, "750");
-				expected.put("fa67f9d8", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("62dc3ae1", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.0");
-				values.put(3, "3000");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("62dc3ae1=>69442fb2", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.1");
-				values.put(3, "3100");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("62dc3ae1=>39622424", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.2");
-				values.put(3, "3200");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("62dc3ae1=>bc8a4630", values);
-			}
-
-			assertEquals(expected, ResultHandler.linkAndMergeRowMap(firstLevelMap, remainingMap));
-		}
-
-		// Second iteration of the example
-		{
-			final Map<String, Map<Integer, String>> firstLevelMap = new LinkedHashMap<>();
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol1");
-				values.put(3, "600");
-				values.put(4, "Disk1");
-				values.put(5, "1000");
-				values.put(6, "500");
-				firstLevelMap.put("82e176f9", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(4, "Disk2");
-				values.put(5, "2000");
-				values.put(6, "750");
-				firstLevelMap.put("fa67f9d8", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				firstLevelMap.put("62dc3ae1", values);
-			}
+	void testArrangeTree() {
+		// 0 is not stored: all its branches fork, 1 and 2 under it too
+		final LinkKey root = new LinkKey(null, 0);
+		final LinkKey first = new LinkKey(root, 1);
+		final LinkKey second = new LinkKey(root, 2);
+		final LinkKey firstA = new LinkKey(first, 3);
+		final LinkKey firstB = new LinkKey(first, 4);
+
+		final Map<LinkKey, RowValues> rowValuesMap = new LinkedHashMap<>();
+		rowValuesMap.put(firstA, rowValues(0, "a"));
+		rowValuesMap.put(firstB, rowValues(0, "b"));
+		rowValuesMap.put(second, rowValues(0, "c"));
+
+		// The rows follow the navigation order
+		assertEquals(asList(asList("a"), asList("b"), asList("c")), ResultHandler.arrange(rowValuesMap, 1));
+
+		// The deepest values first, the values of the ancestors are shared
+		final RowValues rootValues = new RowValues(3);
+		rootValues.put(0, "root");
+		rootValues.put(1, "shared");
+		rowValuesMap.put(root, rootValues);
+		rowValuesMap.put(first, rowValues(2, "first"));
+		assertEquals(
+			asList(asList("a", "shared", "first"), asList("b", "shared", "first"), asList("c", "shared", EMPTY)),
+			ResultHandler.arrange(rowValuesMap, 3)
+		);
 
-			final Map<String, Map<Integer, String>> remainingMap = new LinkedHashMap<>();
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.0");
-				values.put(3, "3000");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("62dc3ae1=>69442fb2", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.1");
-				values.put(3, "3100");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("62dc3ae1=>39622424", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.2");
-				values.put(3, "3200");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				remainingMap.put("62dc3ae1=>bc8a4630", values);
-			}
+		// Missing attribute, no value merged over it
+		rowValuesMap.put(second, rowValues(0, null));
+		assertEquals(asList(null, "shared", EMPTY), ResultHandler.arrange(rowValuesMap, 3).get(2));
 
-			final Map<String, Map<Integer, String>> expected = new LinkedHashMap<>();
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol1");
-				values.put(3, "600");
-				values.put(4, "Disk1");
-				values.put(5, "1000");
-				values.put(6, "500");
-				expected.put("82e176f9", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(4, "Disk2");
-				values.put(5, "2000");
-				values.put(6, "750");
-				expected.put("fa67f9d8", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.0");
-				values.put(3, "3000");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("69442fb2", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.1");
-				values.put(3, "3100");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("39622424", values);
-			}
-			{
-				final Map<Integer, String> values = new HashMap<>();
-				values.put(0, "Linux");
-				values.put(1, "User");
-				values.put(2, "Vol3.2");
-				values.put(3, "3200");
-				values.put(4, "Disk3");
-				values.put(5, "2900");
-				values.put(6, "1500");
-				expected.put("bc8a4630", values);
-			}
+		// Root tag not found in a branch
+		rowValuesMap.put(second, rowValues(ResultHandler.ROOT_TAG_NOT_FOUND, EMPTY));
+		assertEquals(
+			asList(asList("a", "shared", "first"), asList("b", "shared", "first"), emptyList()),
+			ResultHandler.arrange(rowValuesMap, 3)
+		);
 
-			assertEquals(expected, ResultHandler.linkAndMergeRowMap(firstLevelMap, remainingMap));
-		}
+		// Several roots
+		final LinkKey otherRoot = new LinkKey(null, 5);
+		rowValuesMap.put(otherRoot, rowValues(0, "other"));
+		assertEquals(asList("other", EMPTY, EMPTY), ResultHandler.arrange(rowValuesMap, 3).get(3));
 	}
 
 	@Test
-	void testGetValueData() {
+	void testArrangeSingleFragment() {
 		final int totalProperties = 4;
+		final LinkKey linkKey = new LinkKey(null, 0);
 
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(0, "a");
 			values.put(1, "b");
 			values.put(ResultHandler.ROOT_TAG_NOT_FOUND, EMPTY);
 
-			assertEquals(Collections.emptyList(), ResultHandler.getValueData(values, totalProperties));
+			assertEquals(
+				singletonList(emptyList()),
+				ResultHandler.arrange(singletonMap(linkKey, values), totalProperties)
+			);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(totalProperties);
 			values.put(0, "a");
 			values.put(3, "d");
 			values.put(1, "b");
 
-			assertEquals(asList("a", "b", EMPTY, "d"), ResultHandler.getValueData(values, totalProperties));
+			assertEquals(
+				singletonList(asList("a", "b", EMPTY, "d")),
+				ResultHandler.arrange(singletonMap(linkKey, values), totalProperties)
+			);
 		}
 	}
 
-	@Test
-	void testRemoveFirstLinkPart() {
-		assertNull(ResultHandler.removeFirstLinkPart(null));
-		assertEquals(EMPTY, ResultHandler.removeFirstLinkPart(EMPTY));
-		assertEquals("ec9950f0", ResultHandler.removeFirstLinkPart("ec9950f0"));
-		assertEquals("8cd5fadb", ResultHandler.removeFirstLinkPart("8cd5fadb"));
-		assertEquals("be5ebf49", ResultHandler.removeFirstLinkPart("ec9950f0=>be5ebf49"));
-		assertEquals("74760e39", ResultHandler.removeFirstLinkPart("ec9950f0=>74760e39"));
-		assertEquals("88f3b609=>42705d9", ResultHandler.removeFirstLinkPart("8cd5fadb=>88f3b609=>42705d9"));
-		assertEquals("88f3b609=>8dcc003a", ResultHandler.removeFirstLinkPart("8cd5fadb=>88f3b609=>8dcc003a"));
+	private static RowValues rowValues(final int id, final String value) {
+		final RowValues values = new RowValues(3);
+		values.put(id, value);
+		return values;
 	}
 }
@@ -0,0 +1,73 @@
+package org.metricshub.xflat.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.metricshub.xflat.Utils.EMPTY;
+
+import org.junit.jupiter.api.Test;
+
+class RowValuesTest {
+
+	@Test
+	void testPut() {
+		final RowValues values = new RowValues(3);
+		assertEquals(0, values.size());
+		assertFalse(values.containsKey(0));
+		assertFalse(values.isRootTagNotFound());
+
+		values.put(0, "a");
+		values.put(2, null);
+		assertEquals(2, values.size());
+		assertEquals("a", values.get(0));
+		assertTrue(values.containsKey(2));
+		assertNull(values.get(2));
+		assertFalse(values.containsKey(1));
+
+		// Beyond the column count
+		values.put(5, "f");
+		assertEquals("f", values.get(5));
+		assertNull(values.get(10));
+
+		values.put(ResultHandler.ROOT_TAG_NOT_FOUND, EMPTY);
+		assertTrue(values.isRootTagNotFound());
+		assertEquals("RowValues {-1=, 0=a, 2=null, 5=f}", values.toString());
+	}
+
+	@Test
+	void testMerge() {
+		final RowValues values = new RowValues(3);
+		values.put(0, "a");
+		values.put(1, "b");
+
+		final RowValues other = new RowValues(3);
+		other.put(0, "x");
+		other.put(2, "c");
+
+		// The values already set win
+		final RowValues merged = values.merge(other);
+		assertEquals("a", merged.get(0));
+		assertEquals("b", merged.get(1));
+		assertEquals("c", merged.get(2));
+		assertNotEquals(values, merged);
+		assertFalse(values.containsKey(2));
+	}
+
+	@Test
+	void testApplyAndRestore() {
+		final RowValues values = new RowValues(3);
+		values.put(0, "a");
+		values.put(2, null);
+		values.put(ResultHandler.ROOT_TAG_NOT_FOUND, EMPTY);
+
+		final String[] branchValues = { "x", "y", "z" };
+		final String[] previousValues = values.apply(branchValues);
+		assertArrayEquals(new String[] { "a", "y", null }, branchValues);
+
+		values.restore(branchValues, previousValues);
+		assertArrayEquals(new String[] { "x", "y", "z" }, branchValues);
+	}
+}
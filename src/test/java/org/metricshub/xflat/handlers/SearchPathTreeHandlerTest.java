@@ -81,6 +81,14 @@ class SearchPathTreeHandlerTest extends XFlatTestUtils {
 		verifySearchPathNode(EXPECTED_SEARCH_PATH_NODE, SearchPathTreeHandler.build(propertiesPathList, ROOT_TAG));
 	}
 
+	@Test
+	void testGetColumnCount() {
+		assertThrows(IllegalArgumentException.class, () -> SearchPathTreeHandler.getColumnCount(null));
+
+		assertEquals(7, SearchPathTreeHandler.getColumnCount(EXPECTED_SEARCH_PATH_NODE));
+		assertEquals(0, SearchPathTreeHandler.getColumnCount(new SearchPathNode(new SearchPathElement("Document", true))));
+	}
+
 	@Test
 	void testBuildSearchPathElements() {
 		final String rootTag = "Document/";
@@ -0,0 +1,47 @@
+package org.metricshub.xflat.handlers;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import org.metricshub.xflat.spi.JdkParserBackend;
+import org.metricshub.xflat.spi.XFlatParserBackend;
+
+/**
+ * Parser backend registered by the tests, to check the service discovery.
+ */
+public class TestParserBackend implements XFlatParserBackend {
+
+	static final String NAME = "test";
+
+	private final JdkParserBackend jdkParserBackend = new JdkParserBackend();
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+		return -1;
+	}
+
+	@Override
+	public DocumentBuilderFactory createDocumentBuilderFactory() {
+		return jdkParserBackend.createDocumentBuilderFactory();
+	}
+
+	@Override
+	public XMLInputFactory createInputFactory() {
+		return jdkParserBackend.createInputFactory();
+	}
+
+	@Override
+	public SAXParserFactory createSAXParserFactory() {
+		return jdkParserBackend.createSAXParserFactory();
+	}
+
+	@Override
+	public String toString() {
+		return NAME;
+	}
+}
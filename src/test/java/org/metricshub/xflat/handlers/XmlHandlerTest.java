@@ -1,30 +1,29 @@
 package org.metricshub.xflat.handlers;
 
-import static java.util.Collections.emptyMap;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.metricshub.xflat.Utils.EMPTY;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyMap;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doCallRealMethod;
-import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
-
-import java.util.HashMap;
+
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
 import org.junit.jupiter.api.Test;
 import org.metricshub.xflat.XFlatTestUtils;
 import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.handlers.ParserBackends.PooledDocumentBuilder;
 import org.metricshub.xflat.types.SearchPathElement;
 import org.metricshub.xflat.types.SearchPathElementAttribute;
 import org.metricshub.xflat.types.SearchPathElementProperty;
 import org.metricshub.xflat.types.SearchPathNode;
-import org.mockito.MockedStatic;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
 class XmlHandlerTest extends XFlatTestUtils {
 
@@ -76,108 +75,147 @@ class XmlHandlerTest extends XFlatTestUtils {
 		assertThrows(XFlatException.class, () -> XmlHandler.parse(EMPTY, SEARCH_PATH_NODE));
 		assertThrows(XFlatException.class, () -> XmlHandler.parse("<?xml version=\"1.0\"?>", SEARCH_PATH_NODE));
 
-		final Map<String, Map<Integer, String>> actual = XmlHandler.parse("<Document/>", SEARCH_PATH_NODE);
+		final Map<LinkKey, RowValues> actual = XmlHandler.parse("<Document/>", SEARCH_PATH_NODE);
 		assertEquals(1, actual.size());
-		assertEquals(emptyMap(), actual.values().stream().findFirst().get());
+		assertEquals(0, actual.values().stream().findFirst().get().size());
 
-		final Map<String, Map<Integer, String>> expected = new LinkedHashMap<>();
+		final Map<String, RowValues> expected = new LinkedHashMap<>();
 		{
-			final Map<Integer, String> values = new HashMap<>();
+			final RowValues values = new RowValues(7);
 			values.put(0, "Linux");
 			values.put(1, "User");
-			expected.put("1fb7505", values);
+			expected.put("0", values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
-			values.put(1, "User");
+			final RowValues values = new RowValues(7);
 			values.put(2, "Vol1");
 			values.put(3, "600");
 			values.put(4, "Disk1");
 			values.put(5, "1000");
 			values.put(6, "500");
-			expected.put("1fb7505=>82e176f9", values);
+			expected.put("0=>1", values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
-			values.put(1, "User");
+			final RowValues values = new RowValues(7);
 			values.put(4, "Disk2");
 			values.put(5, "2000");
 			values.put(6, "750");
-			expected.put("1fb7505=>fa67f9d8", values);
+			expected.put("0=>2", values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
-			values.put(1, "User");
+			final RowValues values = new RowValues(7);
 			values.put(4, "Disk3");
 			values.put(5, "2900");
 			values.put(6, "1500");
-			expected.put("1fb7505=>62dc3ae1", values);
+			expected.put("0=>3", values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
-			values.put(1, "User");
+			final RowValues values = new RowValues(7);
 			values.put(2, "Vol3.0");
 			values.put(3, "3000");
-			values.put(4, "Disk3");
-			values.put(5, "2900");
-			values.put(6, "1500");
-			expected.put("1fb7505=>62dc3ae1=>69442fb2", values);
+			expected.put("0=>3=>4", values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
-			values.put(1, "User");
+			final RowValues values = new RowValues(7);
 			values.put(2, "Vol3.1");
 			values.put(3, "3100");
-			values.put(4, "Disk3");
-			values.put(5, "2900");
-			values.put(6, "1500");
-			expected.put("1fb7505=>62dc3ae1=>39622424", values);
+			expected.put("0=>3=>5", values);
 		}
 		{
-			final Map<Integer, String> values = new HashMap<>();
-			values.put(1, "User");
+			final RowValues values = new RowValues(7);
 			values.put(2, "Vol3.2");
 			values.put(3, "3200");
-			values.put(4, "Disk3");
-			values.put(5, "2900");
-			values.put(6, "1500");
-			expected.put("1fb7505=>62dc3ae1=>bc8a4630", values);
+			expected.put("0=>3=>6", values);
 		}
 
-		final Map<String, Map<Integer, String>> resultMap = new LinkedHashMap<>();
-		final XmlHandler xmlHandler = mock(XmlHandler.class);
-
-		try (final MockedStatic<XmlHandler> mockedXmlHandler = mockStatic(XmlHandler.class)) {
-			mockedXmlHandler.when(XmlHandler::createXmlHandlerInstance).thenReturn(xmlHandler);
-			mockedXmlHandler.when(() -> XmlHandler.parse(xml, SEARCH_PATH_NODE)).thenCallRealMethod();
-
-			doReturn(resultMap).when(xmlHandler).getResultMap();
-
-			doReturn("1fb7505").when(xmlHandler).generateUniqueLinkKey();
-
-			doReturn("1fb7505=>82e176f9", "1fb7505=>fa67f9d8", "1fb7505=>62dc3ae1")
-				.when(xmlHandler)
-				.generateNextLinkKey("1fb7505");
-
-			doReturn("1fb7505=>62dc3ae1=>69442fb2", "1fb7505=>62dc3ae1=>39622424", "1fb7505=>62dc3ae1=>bc8a4630")
-				.when(xmlHandler)
-				.generateNextLinkKey("1fb7505=>62dc3ae1");
-
-			doCallRealMethod().when(xmlHandler).initNavigation(any(SearchPathNode.class), any(Node.class));
+		// The link keys are given in the navigation order, the forked link keys only hold the values they set
+		assertEquals(expected, toStringKeys(XmlHandler.parse(xml, SEARCH_PATH_NODE)));
+		assertEquals(expected, toStringKeys(XmlHandler.parse(xml, SEARCH_PATH_NODE)));
+	}
 
-			doCallRealMethod()
-				.when(xmlHandler)
-				.navigateNext(any(SearchPathNode.class), any(Node.class), anyString(), anyMap());
+	@Test
+	void testAcquireDocumentBuilder() throws Exception {
+		// A borrowed document builder is not shared
+		try (PooledDocumentBuilder pooledDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+			try (PooledDocumentBuilder otherDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+				assertNotSame(pooledDocumentBuilder.get(), otherDocumentBuilder.get());
+			}
+		}
 
-			doCallRealMethod()
-				.when(xmlHandler)
-				.navigateElement(any(SearchPathNode.class), any(Element.class), anyString(), anyMap());
+		// Reused after a parsing, dropped after a parsing error
+		final DocumentBuilder documentBuilder;
+		try (PooledDocumentBuilder pooledDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+			documentBuilder = pooledDocumentBuilder.get();
+		}
+		assertEquals(1, XmlHandler.parse("<Document/>", SEARCH_PATH_NODE).size());
+		try (PooledDocumentBuilder pooledDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+			assertSame(documentBuilder, pooledDocumentBuilder.get());
+		}
+		final String malformedXml = "<Document><OS name='<'/></Document>";
+		assertThrows(XFlatException.class, () -> XmlHandler.parse(malformedXml, SEARCH_PATH_NODE));
+		try (PooledDocumentBuilder pooledDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+			assertNotSame(documentBuilder, pooledDocumentBuilder.get());
+		}
 
-			doCallRealMethod().when(xmlHandler).endNavigate(any(SearchPathElement.class), anyString(), anyMap());
+		// The elements following an entity with a reference in an attribute are all read after a parsing error
+		final String xml =
+			"<!DOCTYPE Document [<!ENTITY disk '<Disk name=\"a&#38;#38;b\"/>'>]>" +
+			"<Document><Disks>&disk;<Disk name='c'/></Disks></Document>";
+		assertThrows(XFlatException.class, () -> XmlHandler.parse(malformedXml, SEARCH_PATH_NODE));
+		assertEquals(
+			asList("0", "0=>1", "0=>2"),
+			new ArrayList<>(toStringKeys(XmlHandler.parse(xml, SEARCH_PATH_NODE)).keySet())
+		);
+
+		// Shared by the threads, not created for each one
+		final DocumentBuilder idleDocumentBuilder;
+		try (PooledDocumentBuilder pooledDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+			idleDocumentBuilder = pooledDocumentBuilder.get();
+		}
+		final DocumentBuilder[] otherDocumentBuilder = new DocumentBuilder[1];
+		final Thread thread = new Thread(() -> {
+			try (PooledDocumentBuilder pooledDocumentBuilder = XmlHandler.acquireDocumentBuilder()) {
+				otherDocumentBuilder[0] = pooledDocumentBuilder.get();
+			} catch (final ParserConfigurationException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		thread.start();
+		thread.join();
+		assertSame(idleDocumentBuilder, otherDocumentBuilder[0]);
+
+		// The idle document builders are bounded, whatever the number of parsings at once
+		final List<PooledDocumentBuilder> pooledDocumentBuilders = new ArrayList<>();
+		for (int i = 0; i < 2 * ParserBackends.MAX_IDLE_DOCUMENT_BUILDERS + 1; i++) {
+			pooledDocumentBuilders.add(XmlHandler.acquireDocumentBuilder());
+		}
+		assertEquals(0, ParserBackends.getIdleDocumentBuilderCount());
+		pooledDocumentBuilders.forEach(PooledDocumentBuilder::close);
+		assertEquals(ParserBackends.MAX_IDLE_DOCUMENT_BUILDERS, ParserBackends.getIdleDocumentBuilderCount());
+	}
 
-			doCallRealMethod().when(xmlHandler).endNavigate(anyString(), anyMap());
+	@Test
+	void testGroupChildren() throws Exception {
+		final Document document = XmlHandler.createDocument();
+		final Element root = (Element) document.appendChild(document.createElement("Document"));
+		root.appendChild(document.createElement("Disks"));
+		root.appendChild(document.createTextNode("text"));
+		root.appendChild(document.createElement("Other"));
+		root.appendChild(document.createElement("Owner"));
+		root.appendChild(document.createElement("Disks"));
+
+		final XmlHandler xmlHandler = XmlHandler.createXmlHandlerInstance(5);
+		final Map<String, List<Element>> childrenByName = xmlHandler.groupChildren(SEARCH_PATH_NODE, root);
+		assertEquals(3, childrenByName.size());
+		assertEquals(1, xmlHandler.getElementsSkipped());
+		assertEquals(1, childrenByName.get("Owner").size());
+		assertEquals(emptyList(), childrenByName.get("OS"));
+		assertEquals(asList(root.getFirstChild(), root.getLastChild()), childrenByName.get("Disks"));
+	}
 
-			assertEquals(expected, XmlHandler.parse(xml, SEARCH_PATH_NODE));
-		}
+	private static Map<String, RowValues> toStringKeys(final Map<LinkKey, RowValues> resultMap) {
+		final Map<String, RowValues> result = new LinkedHashMap<>();
+		resultMap.forEach((linkKey, values) -> result.put(linkKey.toString(), values));
+		return result;
 	}
 }
@@ -0,0 +1,124 @@
+package org.metricshub.xflat.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.metricshub.xflat.Utils.EMPTY;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.parsers.SAXParserFactory;
+import org.junit.jupiter.api.Test;
+import org.metricshub.xflat.XFlatTestUtils;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.types.SearchPathNode;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+class XmlSaxHandlerTest extends XFlatTestUtils {
+
+	private static List<List<String>> parseDom(final String xml, final String properties, final String rootTag)
+		throws Exception {
+		final List<String> propertiesList = Arrays.asList(properties.split(";"));
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(propertiesList, rootTag);
+		return ResultHandler.arrange(XmlHandler.parse(xml, searchPathNode), propertiesList.size());
+	}
+
+	private static List<List<String>> parseSax(final String xml, final String properties, final String rootTag)
+		throws Exception {
+		final List<String> propertiesList = Arrays.asList(properties.split(";"));
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(propertiesList, rootTag);
+		return ResultHandler.arrange(XmlSaxHandler.parse(new StringReader(xml), searchPathNode), propertiesList.size());
+	}
+
+	private static void assertSameAsDom(final String xml, final String properties, final String rootTag)
+		throws Exception {
+		assertEquals(parseDom(xml, properties, rootTag), parseSax(xml, properties, rootTag));
+	}
+
+	@Test
+	void testParse() throws Exception {
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(Arrays.asList("Owner"), "Document");
+
+		assertThrows(IllegalArgumentException.class, () -> new XmlSaxHandler(null));
+		assertThrows(IllegalArgumentException.class, () -> XmlSaxHandler.parse((String) null, searchPathNode));
+		assertThrows(IllegalArgumentException.class, () -> XmlSaxHandler.parse("<Document/>", null));
+
+		assertThrows(XFlatException.class, () -> XmlSaxHandler.parse(EMPTY, searchPathNode));
+		assertThrows(XFlatException.class, () -> XmlSaxHandler.parse("<Document><Owner></Document>", searchPathNode));
+
+		assertNull(new XmlSaxHandler(searchPathNode).getResultMap());
+		assertEquals(1, XmlSaxHandler.parse("<Document/>", searchPathNode).size());
+	}
+
+	@Test
+	void testUnknownNamesNotMemoized() throws Exception {
+		final SearchPathAutomaton automaton = new SearchPathAutomaton(
+			SearchPathTreeHandler.build(Arrays.asList("Disks/Disk>name"), "/Document")
+		);
+		final SearchPathAutomaton.State document = automaton.getInitialState().next("Document");
+		for (int i = 0; i < 1000; i++) {
+			assertSame(automaton.getInitialState(), document.next("Tag" + i));
+		}
+		assertTrue(document.next("Disks").isMatched());
+		assertEquals(1, document.getTransitionCount());
+
+		// Any root tag: the unknown names all share the state of the root
+		final SearchPathAutomaton anyTag = new SearchPathAutomaton(
+			SearchPathTreeHandler.build(Arrays.asList("Disks/Disk>name"), "*")
+		);
+		final SearchPathAutomaton.State root = anyTag.getInitialState().next("Tag0");
+		assertTrue(root.isRoot());
+		for (int i = 1; i < 1000; i++) {
+			assertSame(root, anyTag.getInitialState().next("Tag" + i).next("Other" + i));
+		}
+		assertEquals(0, anyTag.getInitialState().getTransitionCount());
+		assertEquals(0, root.getTransitionCount());
+	}
+
+	@Test
+	void testSameAsDom() throws Exception {
+		final String xml = getXml("test.xml");
+
+		assertSameAsDom(
+			xml,
+			"OS>name;Owner;Disks/Disk/Volumes/Volume>name;Disks/Disk/Volumes/Volume/Subscribe;" +
+			"Disks/Disk>name;Disks/Disk>size;Disks/Disk/Free",
+			"Document"
+		);
+		assertSameAsDom(xml, ">name;Subscribe", "Document/Disks/Disk/Volumes/Volume");
+		assertSameAsDom(xml, ">name;../../..>name;Subscribe", "Disks/Disk/Volumes/Volume");
+		assertSameAsDom(getXml("test2.xml"), "id;name", "properties");
+		assertSameAsDom(getXml("ucsEquipementFan.xml"), ">classId;outConfigs/equipmentFan>dn", "/configResolveClass");
+
+		assertSameAsDom("<D><X><Y b='1'/><Y b='2'/></X><X><Y b='3'/></X></D>", "X/Y>b", "D");
+		assertSameAsDom("<D><X>t<Y>u</Y><![CDATA[<v>]]>&amp;</X></D>", "X;X/Y", "D");
+		assertSameAsDom("<n:D xmlns:n='urn:n'><n:X n:a='1' b='2'/></n:D>", "n:X>n:a;n:X>b", "n:D");
+	}
+
+	@Test
+	void testPushedEvents() throws Exception {
+		final String xml = getXml("test.xml");
+		final String properties = "Owner;Disks/Disk>name;Disks/Disk/Volumes/Volume>name";
+		final List<String> propertiesList = Arrays.asList(properties.split(";"));
+		final XmlSaxHandler handler = new XmlSaxHandler(SearchPathTreeHandler.build(propertiesList, "Document"));
+
+		// A namespace aware pipeline only reports the local names
+		final SAXParserFactory factory = SAXParserFactory.newInstance();
+		factory.setNamespaceAware(true);
+		final XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+		xmlReader.setContentHandler(handler);
+
+		// The handler can be reused for several documents
+		for (int i = 0; i < 2; i++) {
+			xmlReader.parse(new InputSource(new StringReader(xml)));
+			assertEquals(
+				parseDom(xml, properties, "Document"),
+				ResultHandler.arrange(handler.getResultMap(), propertiesList.size())
+			);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package org.metricshub.xflat.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.metricshub.xflat.Utils.EMPTY;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.metricshub.xflat.XFlatTestUtils;
+import org.metricshub.xflat.exceptions.XFlatException;
+import org.metricshub.xflat.types.SearchPathNode;
+
+class XmlStreamHandlerTest extends XFlatTestUtils {
+
+	private static List<List<String>> parseDom(final String xml, final String properties, final String rootTag)
+		throws Exception {
+		final List<String> propertiesList = Arrays.asList(properties.split(";"));
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(propertiesList, rootTag);
+		return ResultHandler.arrange(XmlHandler.parse(xml, searchPathNode), propertiesList.size());
+	}
+
+	private static List<List<String>> parseStream(final String xml, final String properties, final String rootTag)
+		throws Exception {
+		final List<String> propertiesList = Arrays.asList(properties.split(";"));
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(propertiesList, rootTag);
+		return ResultHandler.arrange(
+			XmlStreamHandler.parse(new StringReader(xml), searchPathNode),
+			propertiesList.size()
+		);
+	}
+
+	private static void assertSameAsDom(final String xml, final String properties, final String rootTag)
+		throws Exception {
+		assertEquals(parseDom(xml, properties, rootTag), parseStream(xml, properties, rootTag));
+	}
+
+	@Test
+	void testParse() throws Exception {
+		final SearchPathNode searchPathNode = SearchPathTreeHandler.build(Arrays.asList("Owner"), "Document");
+
+		assertThrows(IllegalArgumentException.class, () -> XmlStreamHandler.parse((String) null, searchPathNode));
+		assertThrows(IllegalArgumentException.class, () -> XmlStreamHandler.parse("<Document/>", null));
+
+		assertThrows(XFlatException.class, () -> XmlStreamHandler.parse(EMPTY, searchPathNode));
+		assertThrows(XFlatException.class, () -> XmlStreamHandler.parse("<?xml version=\"1.0\"?>", searchPathNode));
+		assertThrows(XFlatException.class, () -> XmlStreamHandler.parse("<Document><Owner></Document>", searchPathNode));
+
+		assertEquals(1, XmlStreamHandler.parse("<Document/>", searchPathNode).size());
+	}
+
+	@Test
+	void testSameAsDom() throws Exception {
+		final String xml = getXml("test.xml");
+		final String properties = Arrays
+			.stream(PROPERTIES.replaceAll("\\s", EMPTY).split(";"))
+			.collect(Collectors.joining(";"));
+
+		assertSameAsDom(xml, properties, "Document");
+		assertSameAsDom(xml, ">name;Subscribe", "Document/Disks/Disk/Volumes/Volume");
+		assertSameAsDom(xml, ">name;../../..>name;Subscribe", "Disks/Disk/Volumes/Volume");
+		assertSameAsDom(xml, "Disks/Disk/Volumes/Volume>name", "Document");
+		assertSameAsDom(xml, "Disks;Owner", "Document");
+		assertSameAsDom(xml, "Free", "Disk");
+
+		final String xml2 = getXml("test2.xml");
+		assertSameAsDom(xml2, "id;name", "document/properties");
+		assertSameAsDom(xml2, "id;name", "properties/network");
+		assertSameAsDom(xml2, "id;name", "properties");
+		assertSameAsDom(xml2, "properties/id;bonds/bond/properties/name", "network");
+
+		assertSameAsDom(
+			getXml("ucsEquipementFan.xml"),
+			">classId;outConfigs/equipmentFan>dn;outConfigs/equipmentFan>serial",
+			"/configResolveClass"
+		);
+	}
+
+	@Test
+	void testSameAsDomEdgeCases() throws Exception {
+		// missing attribute
+		assertSameAsDom("<D><OS/><Owner>x</Owner></D>", "OS>name", "D");
+		assertSameAsDom("<D><X a='1'/><X/></D>", "X>a", "D");
+
+		// unstored branches
+		assertSameAsDom("<D><X><Y b='1'/><Y b='2'/></X><X><Y b='3'/></X></D>", "X/Y>b", "D");
+		assertSameAsDom("<D><Z c='z'/><X><Y b='1'/><Y b='2'/></X><X><Y b='3'/></X></D>", "X/Y>b;Z>c", "D");
+
+		// repeated properties
+		assertSameAsDom("<D><O>o1</O><O>o2</O><X a='1'/><X a='2'/></D>", "O;X>a", "D");
+
+		// nested root tags
+		assertSameAsDom("<R><D n='1'/><Q><D n='2'><D n='3'/></D></Q></R>", ">n", "D");
+		assertSameAsDom("<D n='1'><D n='2'/></D>", ">n;D>n", "D");
+
+		// text content of a property with mixed content, CDATA and entities
+		assertSameAsDom("<D><X>t<Y>u<!-- c --></Y><![CDATA[<v>]]>&amp;</X></D>", "X;X/Y", "D");
+
+		// a property which is also an element of the path
+		assertSameAsDom("<D><X a='1'>t</X><X a='2'>u</X></D>", "X;X>a", "D");
+
+		// prefixed names
+		assertSameAsDom("<n:D xmlns:n='urn:n'><n:X n:a='1' b='2'/></n:D>", "n:X>n:a;n:X>b;>xmlns:n", "n:D");
+	}
+}
@@ -0,0 +1,37 @@
+package org.metricshub.xflat.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class ByteBufferInputStreamTest {
+
+	@Test
+	void testRead() {
+		final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, (byte) 0xFF, 4, 5, 6 });
+		buffer.position(1);
+
+		final ByteBufferInputStream inputStream = new ByteBufferInputStream(buffer);
+		assertEquals(5, inputStream.available());
+		assertEquals(2, inputStream.read());
+		assertEquals(0xFF, inputStream.read());
+
+		inputStream.mark(0);
+		final byte[] bytes = new byte[10];
+		assertEquals(0, inputStream.read(bytes, 0, 0));
+		assertEquals(3, inputStream.read(bytes, 1, 9));
+		assertArrayEquals(new byte[] { 0, 4, 5, 6, 0, 0, 0, 0, 0, 0 }, bytes);
+		assertEquals(-1, inputStream.read());
+		assertEquals(-1, inputStream.read(bytes, 0, 10));
+
+		inputStream.reset();
+		assertEquals(2, inputStream.skip(2));
+		assertEquals(6, inputStream.read());
+		assertEquals(0, inputStream.skip(10));
+
+		// the buffer is not modified
+		assertEquals(1, buffer.position());
+	}
+}
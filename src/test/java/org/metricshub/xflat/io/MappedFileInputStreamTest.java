@@ -0,0 +1,66 @@
+package org.metricshub.xflat.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileInputStreamTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testRead() throws Exception {
+		final byte[] content = new byte[1000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		final Path file = Files.write(tempDir.resolve("test.bin"), content);
+
+		assertThrows(IllegalArgumentException.class, () -> new MappedFileInputStream(file, 0));
+		assertThrows(IllegalArgumentException.class, () -> new MappedFileInputStream(file, Integer.MAX_VALUE + 1L));
+
+		// Segments smaller than the reads, and not aligned with them
+		try (MappedFileInputStream inputStream = new MappedFileInputStream(file, 77)) {
+			assertEquals(1000, inputStream.available());
+			assertEquals(0, inputStream.read());
+			assertEquals(100, inputStream.skip(100));
+			assertEquals(101, inputStream.read());
+			assertEquals(898, inputStream.available());
+
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[128];
+			int count;
+			while ((count = inputStream.read(buffer, 0, buffer.length)) != -1) {
+				outputStream.write(buffer, 0, count);
+			}
+
+			final byte[] expected = new byte[898];
+			System.arraycopy(content, 102, expected, 0, expected.length);
+			assertArrayEquals(expected, outputStream.toByteArray());
+			assertEquals(-1, inputStream.read());
+			assertEquals(0, inputStream.skip(10));
+			assertEquals(0, inputStream.available());
+		}
+
+		// The closed stream has unmapped its segment, and does not read it anymore
+		assertTrue(BufferUnmapper.isSupported());
+		final MappedFileInputStream closed = new MappedFileInputStream(file, 77);
+		assertEquals(0, closed.read());
+		closed.close();
+		assertThrows(IOException.class, closed::read);
+
+		// Empty file
+		try (MappedFileInputStream inputStream = new MappedFileInputStream(Files.createFile(tempDir.resolve("empty")))) {
+			assertEquals(-1, inputStream.read());
+		}
+	}
+}
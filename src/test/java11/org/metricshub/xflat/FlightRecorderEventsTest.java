@@ -0,0 +1,92 @@
+package org.metricshub.xflat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class FlightRecorderEventsTest extends XFlatTestUtils {
+
+	private static final String[] EVENT_NAMES = {
+		"org.metricshub.xflat.Compile",
+		"org.metricshub.xflat.Parse",
+		"org.metricshub.xflat.Navigate",
+		"org.metricshub.xflat.Arrange"
+	};
+
+	@Test
+	void testEvents() throws Exception {
+		final String xml = getXml("test.xml");
+		final List<List<String>> rows;
+		final Path file = Files.createTempFile("xflat", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				for (final String name : EVENT_NAMES) {
+					recording.enable(name);
+				}
+				recording.start();
+				assertNotNull(Listeners.createProbe());
+
+				rows = XFlat.compile(PROPERTIES, ROOT_TAG).parseXml(xml);
+				recording.stop();
+				recording.dump(file);
+			}
+			assertNull(Listeners.createProbe());
+
+			final Map<String, RecordedEvent> events = RecordingFile
+				.readAllEvents(file)
+				.stream()
+				.collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity()));
+			assertEquals(EVENT_NAMES.length, events.size());
+
+			for (final String name : EVENT_NAMES) {
+				final RecordedEvent event = events.get(name);
+				assertEquals(ROOT_TAG, event.getString("rootTag"), name);
+				assertEquals(7, event.getInt("propertyCount"), name);
+				assertTrue(event.getDuration().toNanos() > 0, name);
+			}
+			for (int i = 1; i < EVENT_NAMES.length; i++) {
+				final RecordedEvent event = events.get(EVENT_NAMES[i]);
+				assertEquals(xml.length(), event.getLong("inputSize"), EVENT_NAMES[i]);
+				assertEquals(rows.size(), event.getInt("rowCount"), EVENT_NAMES[i]);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void testDisabledByDefault() throws Exception {
+		final Path file = Files.createTempFile("xflat", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.start();
+				assertNull(Listeners.createProbe());
+
+				XFlat.compile(PROPERTIES, ROOT_TAG).parseXml(getXml("test.xml"));
+				recording.stop();
+				recording.dump(file);
+			}
+
+			assertTrue(
+				RecordingFile
+					.readAllEvents(file)
+					.stream()
+					.noneMatch(event -> event.getEventType().getName().startsWith("org.metricshub.xflat."))
+			);
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.metricshub.xflat.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class XmlCharVectorsTest {
+
+	private static final char[] CHARS_TO_CHECK = {
+		0,
+		'\t',
+		'\n',
+		'\r',
+		0x1F,
+		0xD800,
+		0xDBFF,
+		0xDC00,
+		0xDFFF,
+		0xE000,
+		0xFFFD,
+		0xFEFF,
+		0xFFFE,
+		0xFFFF
+	};
+
+	private static final char[] PLAIN_CHARS = { ' ', 'a', '<', 0x7F, 0x7FFF, 0x8000, 0xAC00, 0xD7FF };
+
+	@Test
+	void testIndexOfCharToCheck() {
+		// Each character at each position of runs shorter and longer than the scalar probe and the vectors
+		for (final int length : new int[] { 0, 1, 15, 63, 64, 65, 100, 257, 1000 }) {
+			for (final char plain : PLAIN_CHARS) {
+				final char[] chars = new char[length];
+				Arrays.fill(chars, plain);
+				assertEquals(length, XmlCharVectors.indexOfCharToCheck(chars, 0, length));
+
+				for (int position = 0; position < length; position++) {
+					for (final char charToCheck : CHARS_TO_CHECK) {
+						chars[position] = charToCheck;
+						assertEquals(position, XmlCharVectors.indexOfCharToCheck(chars, 0, length));
+						assertEquals(position, XmlCharVectors.indexOfCharToCheck(chars, position / 2, length));
+						assertEquals(position, XmlCharVectors.indexOfCharToCheck(chars, position, length));
+						assertEquals(position, XmlCharVectors.indexOfCharToCheck(chars, 0, position));
+						assertEquals(length, XmlCharVectors.indexOfCharToCheck(chars, position + 1, length));
+					}
+					chars[position] = plain;
+				}
+			}
+		}
+	}
+}